@@ -18,6 +18,11 @@ public class App {
             }
 
             (new bci.app.main.Menu(receiver)).open();
+            try {
+                receiver.checkBackgroundSave();
+            } catch (java.io.IOException e) {
+                e.printStackTrace();
+            }
         }
     }
 
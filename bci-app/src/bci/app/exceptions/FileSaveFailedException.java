@@ -0,0 +1,12 @@
+package bci.app.exceptions;
+
+import pt.tecnico.uilib.menus.CommandException;
+
+public class FileSaveFailedException extends CommandException {
+    @java.io.Serial
+    private static final long serialVersionUID = 202507171003L;
+
+    public FileSaveFailedException(Exception e) {
+        super(Message.problemSavingFile(e), e);
+    }
+}
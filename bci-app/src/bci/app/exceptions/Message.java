@@ -5,6 +5,10 @@ interface Message {
         return "Problema ao abrir ficheiro: " + cause.getMessage();
     }
 
+    static String problemSavingFile(Exception cause) {
+        return "Problema ao guardar ficheiro: " + cause.getMessage();
+    }
+
     static String noSuchCreator(String id) {
         return "O criador '" + id + "' não existe.";
     }
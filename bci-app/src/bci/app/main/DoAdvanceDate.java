@@ -14,7 +14,7 @@ class DoAdvanceDate extends Command<LibraryManager> {
     @Override
     protected final void execute() {
         int days = integerField("days");
-        _receiver.getLibrary().advanceDate(days);
+        _receiver.advanceDate(days);
     }
     
 }
\ No newline at end of file
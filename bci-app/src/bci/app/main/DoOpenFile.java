@@ -2,11 +2,14 @@ package bci.app.main;
 
 import bci.LibraryManager;
 import bci.app.exceptions.FileOpenFailedException;
+import bci.app.exceptions.FileSaveFailedException;
 import bci.exceptions.UnavailableFileException;
 import pt.tecnico.uilib.forms.Form;
 import pt.tecnico.uilib.menus.Command;
 import pt.tecnico.uilib.menus.CommandException;
 
+import java.io.IOException;
+
 
 class DoOpenFile extends Command<LibraryManager> {
 
@@ -20,6 +23,7 @@ class DoOpenFile extends Command<LibraryManager> {
             if (_receiver.hasChanged() && Form.confirm(Prompt.saveBeforeExit())) {
                 DoSaveFile cmd = new DoSaveFile(_receiver);
                 cmd.execute();
+                _receiver.checkBackgroundSave();
             }
             
             String filename = Form.requestString(Prompt.openFile());
@@ -28,6 +32,8 @@ class DoOpenFile extends Command<LibraryManager> {
             
         } catch (UnavailableFileException e) {
             throw new FileOpenFailedException(e);
+        } catch (IOException e) {
+            throw new FileSaveFailedException(e);
         }
     }
 
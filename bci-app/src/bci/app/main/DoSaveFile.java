@@ -1,9 +1,11 @@
 package bci.app.main;
 
 import bci.LibraryManager;
+import bci.app.exceptions.FileSaveFailedException;
 import bci.exceptions.MissingFileAssociationException;
 import pt.tecnico.uilib.forms.Form;
 import pt.tecnico.uilib.menus.Command;
+import pt.tecnico.uilib.menus.CommandException;
 
 import java.io.IOException;
 
@@ -15,18 +17,20 @@ class DoSaveFile extends Command<LibraryManager> {
     }
 
     @Override
-    protected final void execute() {
+    protected final void execute() throws CommandException {
         try {
-			_receiver.save();
+			// a background save that failed since the last command is reported before starting another
+			_receiver.checkBackgroundSave();
+			_receiver.saveAsync();
 		} catch (MissingFileAssociationException eSave) {
 			try {
 				_receiver.saveAs(Form.requestString(Prompt.newSaveAs()));
 			} catch (MissingFileAssociationException | IOException eSaveAs) {
-				eSaveAs.printStackTrace();   
+				throw new FileSaveFailedException(eSaveAs);
 			}
-		} catch (IOException eSaveAs) {
-			eSaveAs.printStackTrace();   
+		} catch (IOException eSave) {
+			throw new FileSaveFailedException(eSave);
 		}
     }
 	
-}
\ No newline at end of file
+}
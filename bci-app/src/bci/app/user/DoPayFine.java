@@ -19,14 +19,10 @@ class DoPayFine extends Command<LibraryManager> {
         int userId = integerField("userId");
         
         try {
-            bci.user.User user = _receiver.getLibrary().getUser(userId);
-            
-            if (user == null) {
-                throw new bci.exceptions.NoSuchUserException(userId);
-            }
+            bci.user.User user = _receiver.getUser(userId);
             
             int fineAmount = user.getFines();
-            _receiver.getLibrary().payFine(userId, fineAmount);
+            _receiver.payFine(userId, fineAmount);
             
         } catch (bci.exceptions.NoSuchUserException e) {
             throw new NoSuchUserException(userId);
@@ -16,7 +16,7 @@ class DoRegisterUser extends Command<LibraryManager> {
     @Override
     protected final void execute() throws CommandException {
         try {
-            var user = _receiver.getLibrary().processUser("USER",
+            var user = _receiver.processUser("USER",
                 stringField("name"), 
                 stringField("email"));
             
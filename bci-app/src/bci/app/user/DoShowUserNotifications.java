@@ -19,7 +19,7 @@ class DoShowUserNotifications extends Command<LibraryManager> {
         int userId = integerField("userId");
         
         try {
-            List<String> notifications = _receiver.getLibrary().showUserNotifications(userId);
+            List<String> notifications = _receiver.showUserNotifications(userId);
             
             for (String notification : notifications) {
                 _display.addLine(notification);
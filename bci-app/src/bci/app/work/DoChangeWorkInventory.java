@@ -20,18 +20,20 @@ class DoChangeWorkInventory extends Command<LibraryManager> {
         int workId = integerField("workId");
         int amount = integerField("amount");
         
-        Work work = _receiver.getLibrary().getWork(workId);
-        if (work == null) {
+        try {
+            Work work = _receiver.getWork(workId);
+            
+            if (work.getTotalCopies() + amount < 0) {
+                _display.addLine(Message.notEnoughInventory(workId, amount));
+            }
+            else {
+                _receiver.changeWorkInventory(workId, amount);
+            }
+            
+        } catch (bci.exceptions.NoSuchWorkException e) {
             throw new NoSuchWorkException(workId);
         }
         
-        if (work.getTotalCopies() + amount < 0) {
-            _display.addLine(Message.notEnoughInventory(workId, amount));
-        }
-        else {
-            _receiver.getLibrary().changeWorkInventory(workId, amount);
-        }
-        
     }
 
 }
@@ -0,0 +1,87 @@
+package bci.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Helpers for the benchmarks: timing with warm-up rounds, and generated import files.
+ */
+public final class Bench {
+
+    private Bench() {
+    }
+
+    /**
+     * Code timed by {@link #time(String, int, int, Code)}.
+     */
+    public interface Code {
+        void run() throws Exception;
+    }
+
+    /**
+     * Runs some code a few times to warm up, then times it, and prints the median and the best time.
+     *
+     * @param label the name of what is timed
+     * @param warmup the number of rounds that are not timed
+     * @param rounds the number of rounds that are timed
+     * @param code the code
+     * @return the median time, in nanoseconds
+     * @throws Exception if the code throws
+     */
+    public static long time(String label, int warmup, int rounds, Code code) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            code.run();
+        }
+        long[] times = new long[rounds];
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            code.run();
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        long median = times[rounds / 2];
+        System.out.printf("%-40s median %8.2f ms   best %8.2f ms%n", label, median / 1e6, times[0] / 1e6);
+        return median;
+    }
+
+    /**
+     * Writes an import file with users and works. Each work has its own creators, so a first
+     * import registers a new creator for almost every name it reads.
+     *
+     * @param users the number of users
+     * @param works the number of works
+     * @return the path of the file, deleted when the benchmark exits
+     * @throws IOException if the file cannot be written
+     */
+    public static String importFile(int users, int works) throws IOException {
+        Random random = new Random(42);
+        String[] words = {"amor", "casa", "mar", "noite", "porto", "rio", "sol", "terra", "vento", "livro"};
+        String[] categories = {"FICTION", "SCITECH", "REFERENCE"};
+        List<String> lines = new ArrayList<>(users + works);
+        for (int i = 0; i < users; i++) {
+            lines.add("USER:Utente " + i + ":u" + i + "@mail.pt");
+        }
+        for (int i = 0; i < works; i++) {
+            String title = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)] + " " + i;
+            String category = categories[random.nextInt(categories.length)];
+            int price = 5 + random.nextInt(50);
+            int copies = 1 + random.nextInt(5);
+            if (i % 4 == 0) {
+                lines.add("DVD:" + title + ":Realizador " + i + ":" + price + ":" + category + ":IGAC" + i + ":" + copies);
+            } else {
+                lines.add("BOOK:" + title + ":Autor " + i + ",Coautor " + i + ":" + price + ":" + category + ":"
+                          + (9_000_000_000L + i) + ":" + copies);
+            }
+        }
+        Path path = Files.createTempFile("bci-bench", ".import");
+        path.toFile().deleteOnExit();
+        Files.write(path, lines, StandardCharsets.UTF_8);
+        return path.toString();
+    }
+}
@@ -0,0 +1,53 @@
+package bci.bench;
+
+import bci.Library;
+import bci.LibraryManager;
+import bci.exceptions.NoSuchCreatorException;
+
+/**
+ * Compares the two ways of resolving the creators read by an import: looking them up with the
+ * throwing {@link Library#creatorByKey(String)} and registering them when it throws, as
+ * {@code registerWork} did before, and {@link Library#resolveCreator(String)}.
+ * Then times a whole first-time import, which resolves every creator with the latter.
+ *
+ * Usage: {@code java bci.bench.CreatorLookupBenchmark [creators]}
+ */
+public final class CreatorLookupBenchmark {
+
+    private CreatorLookupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int creators = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        String[] names = new String[creators];
+        for (int i = 0; i < creators; i++) {
+            names[i] = "Autor " + i;
+        }
+        System.out.println(creators + " new creators, each looked up twice");
+
+        long throwing = Bench.time("creatorByKey, register on exception", 3, 7, () -> {
+            Library library = new Library();
+            for (String name : names) {
+                for (int i = 0; i < 2; i++) {
+                    try {
+                        library.creatorByKey(name);
+                    } catch (NoSuchCreatorException e) {
+                        library.resolveCreator(name);
+                    }
+                }
+            }
+        });
+        long resolving = Bench.time("resolveCreator", 3, 7, () -> {
+            Library library = new Library();
+            for (String name : names) {
+                for (int i = 0; i < 2; i++) {
+                    library.resolveCreator(name);
+                }
+            }
+        });
+        System.out.printf("speedup %.1fx%n", (double) throwing / resolving);
+
+        String file = Bench.importFile(creators / 20, creators / 2);
+        Bench.time("import " + creators / 2 + " works", 2, 5, () -> new LibraryManager().importFile(file));
+    }
+}
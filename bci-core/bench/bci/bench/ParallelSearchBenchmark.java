@@ -0,0 +1,53 @@
+package bci.bench;
+
+import bci.LibraryManager;
+import bci.search.ParallelSearch;
+import bci.search.Search;
+import bci.search.SearchByTitleOrCreator;
+import bci.work.Work;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Times a {@link ParallelSearch} of titles and creator names over a generated catalog, with
+ * pools of 1 up to N threads, to show how the search scales with the cores.
+ *
+ * Usage: {@code java bci.bench.ParallelSearchBenchmark [works [maxThreads]]}; the number of
+ * threads defaults to the number of available processors.
+ */
+public final class ParallelSearchBenchmark {
+
+    private static final String[] TERMS = {"amor", "ão", "autor 12", "noite sol", "realizador 9"};
+
+    private ParallelSearchBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int works = args.length > 0 ? Integer.parseInt(args[0]) : 400_000;
+        int processors = Runtime.getRuntime().availableProcessors();
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : processors;
+
+        LibraryManager manager = new LibraryManager();
+        manager.importFile(Bench.importFile(works / 100, works));
+        List<Work> catalog = manager.getLibrary().getAllWorks();
+        Search strategy = new SearchByTitleOrCreator();
+        System.out.println(catalog.size() + " works, " + TERMS.length + " terms, " + processors
+                           + " available processors");
+
+        long single = 0;
+        for (int threads = 1; ; threads = Math.min(2 * threads, maxThreads)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            ParallelSearch search = new ParallelSearch(pool, ParallelSearch.DEFAULT_SHARD_SIZE);
+            long time = Bench.time(threads + (threads == 1 ? " thread" : " threads"), 5, 15, () -> {
+                for (String term : TERMS) {
+                    search.search(strategy, term, catalog, Work::isAvailable);
+                }
+            });
+            if (threads == 1) single = time;
+            System.out.printf("%-40s speedup %.2fx%n", "", (double) single / time);
+            pool.shutdown();
+            if (threads >= maxThreads) break;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package bci;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+import bci.work.CatalogStore;
+import bci.work.Inventory;
+import bci.work.Work;
+
+/**
+ * The works of a library kept in a {@link CatalogStore}: the table has only the reference of the
+ * record of each work, by identifier, and each lookup decodes a new view of the work from its
+ * record. Putting a work writes it to a new record, so a changed work must be put again.
+ */
+final class CatalogWorks extends IdTable<Work> {
+
+    private static final long ABSENT = -1;
+
+    private final CatalogStore _catalog;
+    private final Inventory _inventory;
+    private long[] _refs = absent(16);
+    private int _size;
+    private int _first; // lowest identifier, if there are works
+    private int _end; // after the highest identifier
+
+    /**
+     * @param catalog the store of the records
+     * @param inventory the inventory of the library, which has the copies of the works
+     */
+    CatalogWorks(CatalogStore catalog, Inventory inventory) {
+        _catalog = catalog;
+        _inventory = inventory;
+    }
+
+    @Override
+    Work get(int id) {
+        long ref = id >= 0 && id < _refs.length ? _refs[id] : ABSENT;
+        return ref != ABSENT ? _catalog.get(ref, _inventory) : null;
+    }
+
+    @Override
+    boolean containsKey(int id) {
+        return id >= 0 && id < _refs.length && _refs[id] != ABSENT;
+    }
+
+    @Override
+    void put(int id, Work work) {
+        if (id >= _refs.length) {
+            int length = _refs.length;
+            _refs = Arrays.copyOf(_refs, Math.max(id + 1, length + (length >> 1)));
+            Arrays.fill(_refs, length, _refs.length, ABSENT);
+        }
+        if (_refs[id] == ABSENT) {
+            if (_size == 0 || id < _first) _first = id;
+            _end = Math.max(_end, id + 1);
+            _size++;
+        }
+        _refs[id] = _catalog.add(work);
+    }
+
+    @Override
+    int size() {
+        return _size;
+    }
+
+    @Override
+    List<Work> view() {
+        return _end - _first == _size ? new View() : values();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Work> action) {
+        for (int id = _first; id < _end; id++) {
+            if (_refs[id] != ABSENT) action.accept(_catalog.get(_refs[id], _inventory));
+        }
+    }
+
+    @Override
+    public Iterator<Work> iterator() {
+        return new Iterator<>() {
+            private int _next = advance(_first);
+
+            @Override
+            public boolean hasNext() {
+                return _next < _end;
+            }
+
+            @Override
+            public Work next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                Work work = _catalog.get(_refs[_next], _inventory);
+                _next = advance(_next + 1);
+                return work;
+            }
+
+            private int advance(int from) {
+                while (from < _end && _refs[from] == ABSENT) from++;
+                return from;
+            }
+        };
+    }
+
+    @Override
+    void write(ObjectOutputStream out) throws IOException {
+        out.writeInt(_size);
+        for (int id = _first; id < _end; id++) {
+            if (_refs[id] != ABSENT) {
+                out.writeInt(id);
+                out.writeObject(_catalog.get(_refs[id], _inventory));
+            }
+        }
+    }
+
+    private static long[] absent(int length) {
+        long[] refs = new long[length];
+        Arrays.fill(refs, ABSENT);
+        return refs;
+    }
+
+    /** The works of a table whose identifiers have no gaps, decoded as they are read. */
+    private final class View extends AbstractList<Work> implements RandomAccess {
+
+        @Override
+        public Work get(int index) {
+            Objects.checkIndex(index, _size);
+            return _catalog.get(_refs[_first + index], _inventory);
+        }
+
+        @Override
+        public int size() {
+            return _size;
+        }
+    }
+}
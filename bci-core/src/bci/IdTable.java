@@ -0,0 +1,205 @@
+package bci;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Users or works, by their identifiers, in an array indexed by identifier.
+ *
+ * Identifiers are given in sequence from 1, so the array is dense: a lookup is a bounds-checked
+ * read, with no boxed key and no entry object per element, and iterating the array gives the
+ * elements in identifier order, without sorting.
+ *
+ * @param <T> the type of the elements
+ * @see CatalogWorks
+ */
+class IdTable<T> implements Iterable<T> {
+
+    private Object[] _elements = new Object[16];
+    private int _size;
+    private int _first; // lowest identifier, if there are elements
+    private int _end; // after the highest identifier
+    private final List<T> _view = new View();
+
+    /**
+     * @param id an identifier
+     * @return the element with the identifier, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    T get(int id) {
+        return id >= 0 && id < _elements.length ? (T) _elements[id] : null;
+    }
+
+    /**
+     * @param id an identifier
+     * @return whether there is an element with the identifier
+     */
+    boolean containsKey(int id) {
+        return get(id) != null;
+    }
+
+    /**
+     * Sets the element with an identifier.
+     *
+     * @param id the identifier, not negative
+     * @param element the element
+     */
+    void put(int id, T element) {
+        if (id >= _elements.length) {
+            _elements = Arrays.copyOf(_elements, Math.max(id + 1, _elements.length + (_elements.length >> 1)));
+        }
+        if (_elements[id] == null) {
+            if (_size == 0 || id < _first) _first = id;
+            _end = Math.max(_end, id + 1);
+            _size++;
+        }
+        _elements[id] = element;
+    }
+
+    /**
+     * @return the number of elements
+     */
+    int size() {
+        return _size;
+    }
+
+    /**
+     * @return the elements, in identifier order
+     */
+    List<T> values() {
+        List<T> values = new ArrayList<>(size());
+        forEach(values::add);
+        return values;
+    }
+
+    /**
+     * Returns the elements without copying them when their identifiers have no gaps, as when
+     * they are given in sequence: the list then reads the table itself, and sees later changes.
+     *
+     * @return the elements, in identifier order
+     */
+    List<T> view() {
+        return _end - _first == _size ? _view : values();
+    }
+
+    /**
+     * @return the elements, in identifier order
+     */
+    Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliterator(iterator(), size(),
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.SIZED), false);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super T> action) {
+        for (Object element : _elements) {
+            if (element != null) action.accept((T) element);
+        }
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int _next = advance(0);
+
+            @Override
+            public boolean hasNext() {
+                return _next < _elements.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                T element = (T) _elements[_next];
+                _next = advance(_next + 1);
+                return element;
+            }
+
+            private int advance(int from) {
+                while (from < _elements.length && _elements[from] == null) from++;
+                return from;
+            }
+        };
+    }
+
+    /**
+     * Writes the elements: their number, then each identifier and element, in identifier order.
+     *
+     * @param out the stream of the library
+     * @throws IOException if an I/O error occurs
+     */
+    void write(ObjectOutputStream out) throws IOException {
+        out.writeInt(_size);
+        for (int id = _first; id < _end; id++) {
+            if (_elements[id] != null) {
+                out.writeInt(id);
+                out.writeObject(_elements[id]);
+            }
+        }
+    }
+
+    /**
+     * Reads the elements written by {@link #write(ObjectOutputStream)}.
+     *
+     * @param in the stream of the library
+     * @param type the type of the elements
+     * @return a table with the elements
+     * @throws IOException if an I/O error occurs
+     * @throws ClassNotFoundException if the class of an element is not known
+     */
+    static <T> IdTable<T> read(ObjectInputStream in, Class<T> type) throws IOException, ClassNotFoundException {
+        int size = in.readInt();
+        IdTable<T> table = new IdTable<>();
+        table._elements = new Object[Math.max(16, size + 1)];
+        for (int i = 0; i < size; i++) {
+            int id = in.readInt();
+            table.put(id, type.cast(in.readObject()));
+        }
+        return table;
+    }
+
+    /**
+     * @param map elements by identifier, as libraries saved before the tables kept them
+     * @return a table with the same elements
+     */
+    static <T> IdTable<T> of(Map<Integer, T> map) {
+        IdTable<T> table = new IdTable<>();
+        for (Map.Entry<Integer, T> entry : map.entrySet()) {
+            table.put(entry.getKey(), entry.getValue());
+        }
+        return table;
+    }
+
+    /** The elements of a table whose identifiers have no gaps, read from the table. */
+    private final class View extends AbstractList<T> implements RandomAccess {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            Objects.checkIndex(index, _size);
+            return (T) _elements[_first + index];
+        }
+
+        @Override
+        public int size() {
+            return _size;
+        }
+    }
+}
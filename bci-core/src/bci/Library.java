@@ -10,19 +10,40 @@ import bci.work.*;
 import bci.work.workCategory.*;
 import bci.work.workType.*;
 import bci.creator.*;
-import bci.search.SearchByCreator;
-import bci.search.SearchByTitle;
+import bci.search.Autocomplete;
+import bci.search.FacetCounts;
+import bci.search.FacetIndex;
+import bci.search.ParallelSearch;
+import bci.search.Popularity;
+import bci.search.RankedSearch;
+import bci.search.Query;
+import bci.search.Search;
+import bci.search.SearchCache;
+import bci.search.SearchByTitleOrCreator;
+import bci.search.SearchIndex;
+import bci.search.SearchResult;
+import bci.search.TopK;
+import bci.search.WorkBitmap;
+import bci.importer.ImportStaging;
+import bci.importer.UserEntry;
+import bci.importer.WorkEntry;
+import bci.storage.ChangeSet;
+import bci.storage.SnapshotView;
 import java.util.ArrayList;
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.Map;
+import java.util.BitSet;
+import java.util.Optional;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.stream.Collectors;
-import java.util.Locale;
 
 /**
  * The {@code Library} class represents a collection of users, works (such as books and DVDs or other classes 
@@ -60,11 +81,33 @@ public class Library implements Serializable {
     
     @java.io.Serial
     private static final long serialVersionUID = 202507171003L;
+
+    /**
+     * The serialized fields. Users and works used to be written as maps by ID; they are now
+     * written by their {@link IdTable}s after the fields, and the map fields are left null, but
+     * still declared so that libraries saved before are read.
+     */
+    @java.io.Serial
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("_changed", boolean.class),
+        new ObjectStreamField("_currentDate", int.class),
+        new ObjectStreamField("_journalSequence", long.class),
+        new ObjectStreamField("_users", Map.class),
+        new ObjectStreamField("_works", Map.class),
+        new ObjectStreamField("_creators", Map.class),
+        new ObjectStreamField("_activeRequests", List.class),
+        new ObjectStreamField("_availabilityInterests", Map.class),
+        new ObjectStreamField("_borrowingInterests", Map.class),
+    };
     
     private boolean _changed = false; //To check if it there is anything new to save
     private int _currentDate = 1;
-    private Map<Integer, User> _users = new HashMap<>();
-    private Map<Integer, Work> _works = new HashMap<>();
+    private long _journalSequence = 0; // sequence number of the last journaled operation applied
+    private transient IdTable<User> _users = new IdTable<>(); // serialized by the table, see writeObject
+    private transient IdTable<Work> _works = new IdTable<>();
+    private transient LoanCounters _loanCounters = new LoanCounters(); // of the users, by ID
+    private transient Inventory _inventory = new Inventory(); // copies of the works, by ID
+    private transient Map<String, Category> _categories = new HashMap<>(); // by key, such as FICTION
     private Map<String, Creator> _creators = new HashMap<>();
     private List<Request> _activeRequests = new ArrayList<>();
     
@@ -72,59 +115,40 @@ public class Library implements Serializable {
     private Map<Integer, List<Integer>> _availabilityInterests = new HashMap<>(); // workId -> list of userIds interested in availability
     private Map<Integer, List<Integer>> _borrowingInterests = new HashMap<>(); // workId -> list of userIds interested in borrowing notifications
 
-    /**
-     * Imports data from a specified file and processes it.
-     * 
-     * Reads the file line by line, splits each line into fields using the colon (:) delimiter,
-     * and processes the resulting fields. Also marks the state as changed after processing.
-     * 
-     *
-     * @param filename the path to the file to import
-     * @throws UnrecognizedEntryException if an entry in the file is not recognized
-     * @throws IOException if an I/O error occurs while reading the file
-     * @throws NoSuchUserException if a referenced user does not exist
-     * @throws NoSuchWorkException if a referenced work does not exist
-     * @throws NoSuchCreatorException if a referenced creator does not exist
-     * @throws UserRegistrationFailedException if user registration fails during import
-     * @throws BorrowingRuleFailedException if a borrowing rule is violated during import
-     * @throws WorkNotBorrowedByUserException if a work is not borrowed by the specified user
-     * @throws UserIsActiveException if an operation is attempted on an active user
-     */
-    void importFile(String filename) throws UnrecognizedEntryException, IOException, 
-                                           NoSuchUserException, NoSuchWorkException, NoSuchCreatorException,
-                                           UserRegistrationFailedException, BorrowingRuleFailedException,
-                                           WorkNotBorrowedByUserException, UserIsActiveException {
-        var reader = new BufferedReader(new FileReader(filename));
-        String line;
-        while ((line = reader.readLine()) != null) {
-            var fields = line.split(":");
-            process(fields);
-        }
-        _changed = true;
-        reader.close();
-    }
+    /** Order of {@link #showUsers()}: by name, then by ID. */
+    private static final Comparator<User> USER_ORDER =
+        Comparator.comparing(User::getName).thenComparing(User::getIdUser);
+
+    /** Order of {@link #showWorksByCreator(String)}: by title, ignoring case and accents. */
+    private static final Comparator<Work> TITLE_ORDER =
+        Comparator.comparing(Work::getSearchKey).thenComparing(Work::getTitle);
+
+    private transient ChangeSet _changes; // entities changed since the last save
+    private transient SnapshotView _snapshotView; // view being written by a background save, if any
+    private transient SearchIndex _searchIndex; // built on the first search
+    private transient FacetIndex _facets; // built on first use, kept up to date with the copies
+    private transient Autocomplete _autocomplete; // built on first use; counts borrows since then
+    private transient Popularity _popularity; // borrows of each work, counted from first use
+    private transient ParallelSearch _parallelSearch; // runs the searches that scan the works
+    private transient SearchCache _searchCache; // results of searchWorks, by term
 
     /**
-     * Processes a line from the import file.
-     * @param fields the fields from the line split by ":"
-     * @throws UnrecognizedEntryException if the entry type is not recognized
-     * @throws NoSuchUserException if a referenced user doesn't exist
-     * @throws NoSuchWorkException if a referenced work doesn't exist
-     * @throws NoSuchCreatorException if a referenced creator doesn't exist
-     * @throws UserRegistrationFailedException if user registration fails
-     * @throws BorrowingRuleFailedException if borrowing rules are violated
-     * @throws WorkNotBorrowedByUserException if work is not borrowed by user
-     * @throws UserIsActiveException if user is already active
+     * Commits a staged import: registers its users and works, in the order of the import file,
+     * in one step. Since the entries were validated while staged, either all of them are
+     * registered or, if the import could not be staged, none.
+     *
+     * @param staging the staged import
+     * @throws UnrecognizedEntryException if the type of a staged work is not recognized
      */
-    public void process(String[] fields) throws UnrecognizedEntryException, NoSuchUserException, 
-                                               NoSuchWorkException, NoSuchCreatorException,
-                                               UserRegistrationFailedException, BorrowingRuleFailedException,
-                                               WorkNotBorrowedByUserException, UserIsActiveException {
-        switch (fields[0]) {
-            case "USER" -> processUser(fields);
-            case "BOOK", "DVD" -> processWork(fields);
-            default -> throw new UnrecognizedEntryException(fields[0]);
+    public synchronized void commitImport(ImportStaging staging) throws UnrecognizedEntryException {
+        for (UserEntry user : staging.getUsers()) {
+            addUser(user.getName(), user.getEmail());
+        }
+        for (WorkEntry work : staging.getWorks()) {
+            addWork(work.getWorkType(), work.getTitle(), work.getCreatorNames(), work.getPrice(),
+                    work.getCategoryName(), work.getAdditionalInfo(), work.getQuantity());
         }
+        _changed = true;
     }
 
 
@@ -143,22 +167,42 @@ public class Library implements Serializable {
      * @return The newly created User object.
      * @throws UserRegistrationFailedException if a user with the generated ID already exists.
      */
-    public User processUser(String... fields) throws UserRegistrationFailedException {
+    public synchronized User processUser(String... fields) throws UserRegistrationFailedException {
+        return registerUser(fields[1], fields[2]);
+    }
+
+    /**
+     * Registers a new user with the next user ID.
+     *
+     * @param name the user's name
+     * @param email the user's email
+     * @return the newly created user
+     * @throws UserRegistrationFailedException if the name or email is blank, or the ID is taken
+     */
+    public synchronized User registerUser(String name, String email) throws UserRegistrationFailedException {
         int id = getCurrentUserID();
-        String name = fields[1];
-        String email = fields[2];
         if (name == null || name.isBlank() || email == null || email.isBlank()) {
             throw new UserRegistrationFailedException(name, email);
         }
 
         if (_users.containsKey(id)) throw new UserRegistrationFailedException(name, email);
 
-        var user = new User(id, name, email);
-        _users.put(id, user);
+        var user = addUser(name, email);
         _changed = true;
         return user;
     }
 
+    /**
+     * Adds a validated user with the next user ID.
+     */
+    private User addUser(String name, String email) {
+        var user = new User(getCurrentUserID(), name, email);
+        user.attach(_loanCounters);
+        _users.put(user.getIdUser(), user);
+        touchUser(user);
+        return user;
+    }
+
 
     /**
      * Processes the input fields to create and register a new Work instance in the library.
@@ -181,7 +225,7 @@ public class Library implements Serializable {
      * @throws NoSuchCreatorException If a creator cannot be found and cannot be created.
      * @throws UnrecognizedEntryException If the work type or other entry is unrecognized.
      */
-    public Work processWork(String... fields) throws NoSuchCreatorException, UnrecognizedEntryException {
+    public synchronized Work processWork(String... fields) throws NoSuchCreatorException, UnrecognizedEntryException {
         String workType = fields[0];
         String title = fields[1];
         String creatorsString = fields[2];
@@ -190,28 +234,58 @@ public class Library implements Serializable {
         String additionalInfo = fields[5];
         int quantity = Integer.parseInt(fields[6]);
         
+        List<String> creatorNames = new ArrayList<>();
+        for (String creatorName : creatorsString.split(",")) {
+            creatorNames.add(creatorName.trim());
+        }
+        return registerWork(workType, title, creatorNames, price, categoryName, additionalInfo, quantity);
+    }
+
+    /**
+     * Registers a new work with the next work ID, creating the creators that do not exist yet.
+     *
+     * @param workType the type of the work (BOOK or DVD)
+     * @param title the title of the work
+     * @param creatorNames the names of the creators, already trimmed
+     * @param price the price of the work
+     * @param categoryName the name of the category of the work
+     * @param additionalInfo the ISBN (BOOK) or IGAC (DVD)
+     * @param quantity the number of copies
+     * @return the created work
+     * @throws NoSuchCreatorException if a creator cannot be found and cannot be created
+     * @throws UnrecognizedEntryException if the work type is not recognized
+     */
+    public synchronized Work registerWork(String workType, String title, List<String> creatorNames, int price,
+                                          String categoryName, String additionalInfo, int quantity)
+                                          throws NoSuchCreatorException, UnrecognizedEntryException {
+        Work work = addWork(workType, title, creatorNames, price, categoryName, additionalInfo, quantity);
+        _changed = true;
+        return work;
+    }
+
+    /**
+     * Adds a work with the next work ID, creating the creators that do not exist yet.
+     */
+    private Work addWork(String workType, String title, List<String> creatorNames, int price,
+                         String categoryName, String additionalInfo, int quantity) throws UnrecognizedEntryException {
         int id = getCurrentWorkID();
         
         List<Creator> creators = new ArrayList<>();
-        String[] creatorNames = creatorsString.split(",");
         
         for (String creatorName : creatorNames) {
-            creatorName = creatorName.trim(); 
-            Creator creator;
-            try {
-                creator = creatorByKey(creatorName);
-            } catch (NoSuchCreatorException e) {
-                creator = new Creator(creatorName);
-                _creators.put(creatorName, creator);
-            }
-            creators.add(creator);
+            creators.add(resolveCreator(creatorName));
         }
         
         Category category = getCategoryByName(categoryName);
         
         Work work = createWork(workType, id, title, price, category, additionalInfo, creators, quantity);
+        work.attach(_inventory);
+        register(work);
         _works.put(id, work);
-        _changed = true;
+        touchWork(work);
+        if (_searchIndex != null) _searchIndex.add(work);
+        if (_facets != null) _facets.add(work);
+        if (_autocomplete != null) _autocomplete.add(work);
         return work;
     }
 
@@ -259,7 +333,7 @@ public class Library implements Serializable {
      * @throws BorrowingRuleFailedException If borrowing rules are violated during the request.
      * @return the request limit date for successful requests
      */
-    public int requestWork(int userId, int workId) throws NoSuchUserException, NoSuchWorkException, 
+    public synchronized int requestWork(int userId, int workId) throws NoSuchUserException, NoSuchWorkException, 
                                                           BorrowingRuleFailedException {
         User user = userByKey(userId);
         Work work = workByKey(workId);
@@ -270,7 +344,13 @@ public class Library implements Serializable {
         
         if (ruleViolated == 0) {
 
+            touchUser(user);
+            touchWork(work);
+            touchLoan(userId, workId);
             work.removeCopy();
+            copiesChanged(work);
+            if (_autocomplete != null) _autocomplete.borrowed(work);
+            if (_popularity != null) _popularity.borrowed(workId);
             user.setCurrentRequests(user.getCurrentRequests() + 1);
             _activeRequests.add(request);
             user.addRequestedWork(workId);
@@ -298,7 +378,7 @@ public class Library implements Serializable {
      * @throws NoSuchWorkException if the work doesn't exist
      * @throws WorkNotBorrowedByUserException if the work wasn't borrowed by the user
      */
-    public int returnWork(int userId, int workId) throws NoSuchUserException, NoSuchWorkException, 
+    public synchronized int returnWork(int userId, int workId) throws NoSuchUserException, NoSuchWorkException, 
                                                          WorkNotBorrowedByUserException {
         User user = userByKey(userId);
         workByKey(workId);
@@ -322,7 +402,11 @@ public class Library implements Serializable {
         Work work = activeRequest.getWork();
         boolean workWasUnavailable = work.getAvailableCopies() == 0;
         
+        touchUser(user);
+        touchWork(work);
+        touchLoan(userId, workId);
         activeRequest.returnWork(_currentDate);
+        copiesChanged(work);
         user.setCurrentRequests(user.getCurrentRequests() - 1);
 
         user.removeRequestedWork(workId);
@@ -355,13 +439,14 @@ public class Library implements Serializable {
      * @throws UserIsActiveException if the user is not suspended (has no fines to pay)
      * @return true if user becomes active after payment, false if still suspended
      */
-    public boolean payFine(int userId, int amount) throws NoSuchUserException, UserIsActiveException {
+    public synchronized boolean payFine(int userId, int amount) throws NoSuchUserException, UserIsActiveException {
         User user = userByKey(userId);
         
         if (!user.isSuspended() || user.getFines() == 0) {
             throw new UserIsActiveException(userId);
         }
 
+        touchUser(user);
         user.zeroFine(amount);
         
         updateUserStatus(userId);
@@ -389,10 +474,21 @@ public class Library implements Serializable {
      * @param userId the ID of the user to check
      * @throws NoSuchUserException if the user doesn't exist
      */
-    public void updateUserStatus(int userId) throws NoSuchUserException {
-        User user = userByKey(userId);
-        
-        if (user.getFines() > 0 || hasOverdueWorks(userId)) {
+    public synchronized void updateUserStatus(int userId) throws NoSuchUserException {
+        updateUserStatus(userByKey(userId));
+    }
+
+    /**
+     * Checks and updates the status of a user that is known to exist.
+     *
+     * @param user the user to check
+     */
+    private void updateUserStatus(User user) {
+        boolean suspend = user.getFines() > 0 || hasOverdueWorks(user.getIdUser());
+        if (suspend != user.isSuspended()) {
+            touchUser(user);
+        }
+        if (suspend) {
             user.suspend();
         } else {
             user.activate();
@@ -405,26 +501,47 @@ public class Library implements Serializable {
      * Checks and updates the status of all users in the system.
      * Should be called periodically or when the current date advances.
      */
-    public void updateAllUserStatuses() {
-        for (User user : _users.values()) {
-            try {
-                updateUserStatus(user.getIdUser());
-            } catch (NoSuchUserException e) {}
+    public synchronized void updateAllUserStatuses() {
+        for (User user : _users) {
+            updateUserStatus(user);
         }
     }
 
     /**
      * Gets a category by name, creating it if it doesn't exist.
+     * There is one instance of each category per library, shared by its works.
      * @param categoryName the category name
-     * @return the category instance
-     */
-    public Category getCategoryByName(String categoryName) {
-        return switch (categoryName.toUpperCase()) {
-            case "FICTION" -> new Fiction();
-            case "SCITECH" -> new Technical();
-            case "REFERENCE" -> new Reference();
-            default -> null;
-        };
+     * @return the category instance, or null if the name is not a category
+     */
+    public synchronized Category getCategoryByName(String categoryName) {
+        String key = categoryName.toUpperCase();
+        Category category = _categories.get(key);
+        if (category == null) {
+            category = switch (key) {
+                case "FICTION" -> new Fiction();
+                case "SCITECH" -> new Technical();
+                case "REFERENCE" -> new Reference();
+                default -> null;
+            };
+            if (category != null) _categories.put(key, category);
+        }
+        return category;
+    }
+
+    /**
+     * Returns the works of a category that have copies in the library, ordered by their IDs.
+     *
+     * @param categoryName the category name, as in import files
+     * @return the string representations of the works, or an empty list if the name is not a
+     *         category
+     */
+    public synchronized List<String> showWorksByCategory(String categoryName) {
+        Category category = getCategoryByName(categoryName);
+        if (category == null) return new ArrayList<>();
+        FacetIndex facets = facets();
+        List<String> works = new ArrayList<>();
+        facets.category(category).and(facets.visible()).forEach(id -> works.add(_works.get(id).toString()));
+        return works;
     }
 
     /**
@@ -442,7 +559,7 @@ public class Library implements Serializable {
      *
      * @param days the number of days to advance the current date; must be positive
      */
-    public void advanceDate(int days) {
+    public synchronized void advanceDate(int days) {
         if (days > 0) {
             _currentDate += days;
             updateAllUserStatuses();
@@ -456,11 +573,15 @@ public class Library implements Serializable {
      * @param amount the amount to change (positive to add, negative to remove)
      * @return true if successful, false if work doesn't exist or not enough inventory
      */
-    public void changeWorkInventory(int workId, int amount) {
+    public synchronized void changeWorkInventory(int workId, int amount) {
         Work work = _works.get(workId);
         if (work != null) {
             boolean wasUnavailable = work.getAvailableCopies() == 0;
+            if (amount != 0) {
+                touchWork(work);
+            }
             work.changeInventory(amount);
+            copiesChanged(work);
             
             if (wasUnavailable && amount > 0 && work.getAvailableCopies() > 0) {
                 sendAvailabilityNotifications(workId);
@@ -516,9 +637,13 @@ public class Library implements Serializable {
      * @param workId the work ID
      * @param removeFromUserList whether to also remove from user's interest list
      */
-    public void removeInterest(Map<Integer, List<Integer>> interestMap, int userId, int workId, boolean removeFromUserList) {
+    public synchronized void removeInterest(Map<Integer, List<Integer>> interestMap, int userId, int workId, boolean removeFromUserList) {
         List<Integer> interestedUsers = interestMap.get(workId);
         if (interestedUsers != null) {
+            touchInterests(workId);
+            if (removeFromUserList && _users.containsKey(userId)) {
+                touchUser(_users.get(userId));
+            }
             interestedUsers.remove(Integer.valueOf(userId));
             if (interestedUsers.isEmpty()) {
                 interestMap.remove(workId);
@@ -537,7 +662,11 @@ public class Library implements Serializable {
     /**
      * Generic method to register user interest in notifications
      */
-    public void registerInterest(Map<Integer, List<Integer>> interestMap, int userId, int workId, boolean addToUserList) {
+    public synchronized void registerInterest(Map<Integer, List<Integer>> interestMap, int userId, int workId, boolean addToUserList) {
+        touchInterests(workId);
+        if (addToUserList && _users.containsKey(userId)) {
+            touchUser(_users.get(userId));
+        }
         List<Integer> interestedUsers = interestMap.get(workId);
         if (interestedUsers == null) {
             interestedUsers = new ArrayList<>();
@@ -575,7 +704,7 @@ public class Library implements Serializable {
      * @param workId the work ID
      * @param isAvailability true for availability notifications, false for borrowing
      */
-    public void sendNotifications(Map<Integer, List<Integer>> interestMap, int workId, boolean isAvailability) {
+    public synchronized void sendNotifications(Map<Integer, List<Integer>> interestMap, int workId, boolean isAvailability) {
         List<Integer> interestedUsers = interestMap.get(workId);
         if (interestedUsers == null || interestedUsers.isEmpty()) return;
         
@@ -591,6 +720,7 @@ public class Library implements Serializable {
                 } else {
                     notification = new BorrowingNotification(_currentDate, work);
                 }
+                touchUser(user);
                 user.addNotification(notification);
             }
         }
@@ -602,6 +732,83 @@ public class Library implements Serializable {
 
 
 
+    // ========== CHANGE TRACKING ==========
+    // Called before an entity is modified, so that only what changed needs to be saved.
+
+    private void touchUser(User user) {
+        changes().markUser(user.getIdUser());
+        if (_snapshotView != null) {
+            _snapshotView.preserveUser(user);
+        }
+    }
+
+    private void touchWork(Work work) {
+        changes().markWork(work.getIdWork());
+        if (_searchCache != null) {
+            _searchCache.invalidate(work);
+        }
+        if (_snapshotView != null) {
+            _snapshotView.preserveWork(work);
+        }
+    }
+
+    private void touchInterests(int workId) {
+        changes().markWork(workId);
+    }
+
+    private void touchCreator(Creator creator) {
+        changes().markCreator(creator.getName());
+    }
+
+    private void touchLoan(int userId, int workId) {
+        changes().markLoan(userId, workId);
+    }
+
+    /**
+     * Called after the copies of a work changed, to keep the facets up to date.
+     */
+    private void copiesChanged(Work work) {
+        if (_facets != null) {
+            _facets.update(work);
+        }
+    }
+
+    private ChangeSet changes() {
+        if (_changes == null) {
+            _changes = new ChangeSet();
+        }
+        return _changes;
+    }
+
+    /**
+     * Starts keeping the state of users and works for a background save (copy-on-write).
+     *
+     * @param view the view being saved
+     */
+    public synchronized void beginSnapshotView(SnapshotView view) {
+        _snapshotView = view;
+    }
+
+    /**
+     * Stops keeping state for a background save.
+     *
+     * @param view the view that was saved
+     */
+    public synchronized void endSnapshotView(SnapshotView view) {
+        if (_snapshotView == view) {
+            _snapshotView = null;
+        }
+    }
+
+    /**
+     * Returns the users, works, creators and loans changed since the last save.
+     *
+     * @return the change set of the library
+     */
+    public ChangeSet getChanges() {
+        return changes();
+    }
+
     /**
      * Gets a user by ID.
      * @param id the user ID
@@ -638,6 +845,48 @@ public class Library implements Serializable {
         return creator;
     }
 
+    /**
+     * Finds a user by ID, without throwing when there is none.
+     * @param id the user ID
+     * @return the user, or empty if it doesn't exist
+     */
+    public Optional<User> findUser(int id) {
+        return Optional.ofNullable(_users.get(id));
+    }
+
+    /**
+     * Finds a work by ID, without throwing when there is none.
+     * @param id the work ID
+     * @return the work, or empty if it doesn't exist
+     */
+    public Optional<Work> findWork(int id) {
+        return Optional.ofNullable(_works.get(id));
+    }
+
+    /**
+     * Finds a creator by name, without throwing when there is none.
+     * @param name the creator name
+     * @return the creator, or empty if it doesn't exist
+     */
+    public Optional<Creator> findCreator(String name) {
+        return Optional.ofNullable(_creators.get(name));
+    }
+
+    /**
+     * Gets a creator by name, registering a new one if it doesn't exist.
+     * @param name the creator name
+     * @return the existing or new creator
+     */
+    public synchronized Creator resolveCreator(String name) {
+        Creator creator = _creators.get(name);
+        if (creator == null) {
+            creator = new Creator(name);
+            _creators.put(name, creator);
+            touchCreator(creator);
+        }
+        return creator;
+    }
+
     /**
      * Returns whether the state has changed.
      *
@@ -647,6 +896,24 @@ public class Library implements Serializable {
         return _changed;
     }
 
+    /**
+     * Returns the sequence number of the last journaled operation reflected in this library.
+     *
+     * @return the journal sequence number
+     */
+    public long getJournalSequence() {
+        return _journalSequence;
+    }
+
+    /**
+     * Sets the sequence number of the last journaled operation reflected in this library.
+     *
+     * @param journalSequence the journal sequence number
+     */
+    public void setJournalSequence(long journalSequence) {
+        _journalSequence = journalSequence;
+    }
+
     /**
      * Returns the current date value.
      *
@@ -696,12 +963,147 @@ public class Library implements Serializable {
     }
 
     /**
-     * Returns all works in the library as a list.
+     * Returns all works in the library as a list, in ID order.
      * 
      * @return a {@code List<Work>} containing all works in the library
      */
     public List<Work> getAllWorks() {
-        return new ArrayList<>(_works.values());
+        return _works.values();
+    }
+
+    /**
+     * Returns all creators known to the library.
+     *
+     * @return an unmodifiable view of the creators
+     */
+    public Collection<Creator> getAllCreators() {
+        return Collections.unmodifiableCollection(_creators.values());
+    }
+
+    /**
+     * Returns the requests that have not been returned yet.
+     *
+     * @return an unmodifiable view of the active requests
+     */
+    public List<Request> getActiveRequests() {
+        return Collections.unmodifiableList(_activeRequests);
+    }
+
+    /**
+     * Returns the availability interests (workId -> interested userIds).
+     *
+     * @return an unmodifiable view of the availability interests
+     */
+    public Map<Integer, List<Integer>> getAvailabilityInterests() {
+        return Collections.unmodifiableMap(_availabilityInterests);
+    }
+
+    /**
+     * Returns the borrowing interests (workId -> interested userIds).
+     *
+     * @return an unmodifiable view of the borrowing interests
+     */
+    public Map<Integer, List<Integer>> getBorrowingInterests() {
+        return Collections.unmodifiableMap(_borrowingInterests);
+    }
+
+    // ========== SNAPSHOT RESTORE ==========
+    // Used by the snapshot readers in bci.storage to rebuild a library
+    // without going through the business rules of the regular operations.
+
+    /**
+     * Sets the current date, as read from a snapshot.
+     *
+     * @param currentDate the current date
+     */
+    public void restoreCurrentDate(int currentDate) {
+        _currentDate = currentDate;
+    }
+
+    /**
+     * Adds an already built user, keeping its identifier.
+     * If the user already exists, its state is replaced by the state of the given one.
+     *
+     * @param user the user to add
+     */
+    public void restoreUser(User user) {
+        User existing = _users.get(user.getIdUser());
+        if (existing != null) {
+            existing.restoreState(user);
+        } else {
+            user.attach(_loanCounters);
+            _users.put(user.getIdUser(), user);
+        }
+    }
+
+    /**
+     * Adds an already built creator.
+     *
+     * @param creator the creator to add
+     */
+    public void restoreCreator(Creator creator) {
+        _creators.put(creator.getName(), creator);
+    }
+
+    /**
+     * Adds an already built work, keeping its identifier.
+     * If the work already exists, only its inventory and authors are updated (the other fields
+     * never change).
+     *
+     * @param work the work to add
+     */
+    public void restoreWork(Work work) {
+        Work existing = _works.get(work.getIdWork());
+        if (existing != null) {
+            work.attach(_inventory); // its copies
+            _works.put(work.getIdWork(), work); // and its authors, which may have changed too
+            copiesChanged(work);
+            if (_searchCache != null) _searchCache.clear();
+        } else {
+            work.attach(_inventory);
+            register(work);
+            _works.put(work.getIdWork(), work);
+            if (_searchIndex != null) _searchIndex.add(work);
+            if (_facets != null) _facets.add(work);
+            if (_autocomplete != null) _autocomplete.add(work);
+            if (_searchCache != null) _searchCache.invalidate(work);
+        }
+    }
+
+    /**
+     * Adds an active request without applying the borrowing rules.
+     *
+     * @param request the request to add
+     */
+    public void restoreRequest(Request request) {
+        _activeRequests.add(request);
+    }
+
+    /**
+     * Removes the active request of a user for a work, if there is one.
+     *
+     * @param userId the user ID
+     * @param workId the work ID
+     */
+    public void discardRequest(int userId, int workId) {
+        _activeRequests.removeIf(request -> request.getUser().getIdUser() == userId &&
+                                            request.getWork().getIdWork() == workId);
+    }
+
+    /**
+     * Sets the list of users interested in a work.
+     *
+     * @param availability true for availability interests, false for borrowing interests
+     * @param workId the work ID
+     * @param userIds the interested users, in registration order
+     */
+    public void restoreInterests(boolean availability, int workId, List<Integer> userIds) {
+        Map<Integer, List<Integer>> interestMap = availability ? _availabilityInterests : _borrowingInterests;
+        if (userIds.isEmpty()) {
+            interestMap.remove(workId);
+        } else {
+            interestMap.put(workId, new ArrayList<>(userIds));
+        }
     }
 
     /**
@@ -710,20 +1112,66 @@ public class Library implements Serializable {
      *
      * @return a list of string representations of users, sorted by name and ID
      */
-    public List<String> showUsers() {
-        return _users.values().stream()
-            .sorted(Comparator.comparing(User::getName).thenComparing(User::getIdUser))
+    public synchronized List<String> showUsers() {
+        return _users.stream()
+            .sorted(USER_ORDER)
             .map(User::toString)
             .collect(Collectors.toList());
     }
 
     /**
-     * Filters works to include only those with total copies > 0
+     * Returns a page of the users, in the order of {@link #showUsers()}. Only the users up to the
+     * end of the page are selected and sorted, and only those of the page are rendered.
+     *
+     * @param offset the number of users before the page
+     * @param limit the maximum number of users in the page
+     * @return the string representations of the users of the page
+     */
+    public synchronized List<String> showUsers(int offset, int limit) {
+        return render(TopK.page(_users.values(), offset, limit, USER_ORDER));
+    }
+
+    /**
+     * Filters works to include only those with total copies > 0, by looking their IDs up in
+     * the bitmap of the visible works.
      * @param works stream of works to filter
      * @return filtered stream
      */
     public java.util.stream.Stream<Work> filterAvailableWorks(java.util.stream.Stream<Work> works) {
-        return works.filter(work -> work.getTotalCopies() > 0);
+        return works.filter(isVisible());
+    }
+
+    /**
+     * @return a test of whether a work has copies, against the bitmap of the visible works
+     */
+    private java.util.function.Predicate<Work> isVisible() {
+        WorkBitmap visible = facets().visible();
+        return work -> visible.contains(work.getIdWork());
+    }
+
+    /**
+     * Returns the works of a creator that have copies in the library: the IDs of the works of
+     * the creator intersected with the bitmap of the visible works.
+     */
+    private List<Work> visibleWorks(Creator creator) {
+        List<Work> works = new ArrayList<>();
+        creator.getWorkIds().and(facets().visible()).forEach(id -> works.add(_works.get(id)));
+        return works;
+    }
+
+    /**
+     * Adds a work to its category and creators, which keep the IDs of their works.
+     */
+    private static void register(Work work) {
+        Category category = work.getCategory();
+        if (category != null) category.addWork(work);
+        if (work instanceof Book book) {
+            for (Creator author : book.getAuthor()) {
+                if (author != null) author.addWork(book);
+            }
+        } else if (work.getCreator() != null) {
+            work.getCreator().addWork(work);
+        }
     }
 
     /**
@@ -732,56 +1180,423 @@ public class Library implements Serializable {
      * @return a {@code List<String>} containing the string representations of the works,
      *         sorted in ascending order by their IDs.
      */
-    public List<String> showWorks() {
-        return filterAvailableWorks(_works.values().stream())
-            .sorted(Comparator.comparing(Work::getIdWork))
+    public synchronized List<String> showWorks() {
+        return visibleWorks()
             .map(Work::toString)
             .collect(Collectors.toList());
     }
 
+    /**
+     * Returns a page of the works, in the order of {@link #showWorks()}. The visible works are
+     * walked in ID order, without sorting, and only those of the page are rendered.
+     *
+     * @param offset the number of works before the page
+     * @param limit the maximum number of works in the page
+     * @return the string representations of the works of the page
+     */
+    public synchronized List<String> showWorks(int offset, int limit) {
+        return page(visibleWorks(), offset, limit);
+    }
+
     /**
      * Shows all works by a specific creator, ordered by title.
      * @param creatorName the name of the creator
      * @return list of works by the creator formatted as strings
      * @throws NoSuchCreatorException if the creator doesn't exist
      */
-    public List<String> showWorksByCreator(String creatorName) throws NoSuchCreatorException {
+    public synchronized List<String> showWorksByCreator(String creatorName) throws NoSuchCreatorException {
         Creator creator = creatorByKey(creatorName);
-        return filterAvailableWorks(creator.getWorks().stream())
-            .sorted(Comparator.comparing(work -> work.getTitle().toLowerCase(Locale.getDefault())))
+        return visibleWorks(creator).stream()
+            .sorted(TITLE_ORDER)
             .map(Work::toString)
             .collect(Collectors.toList());
     }
 
+    /**
+     * Returns a page of the works of a creator, in the order of {@link #showWorksByCreator(String)}.
+     * Only the works up to the end of the page are selected and sorted.
+     *
+     * @param creatorName the name of the creator
+     * @param offset the number of works before the page
+     * @param limit the maximum number of works in the page
+     * @return the string representations of the works of the page
+     * @throws NoSuchCreatorException if the creator doesn't exist
+     */
+    public synchronized List<String> showWorksByCreator(String creatorName, int offset, int limit)
+            throws NoSuchCreatorException {
+        Creator creator = creatorByKey(creatorName);
+        return render(TopK.page(visibleWorks(creator), offset, limit, TITLE_ORDER));
+    }
+
     /**
      * Performs a general search by term across titles and creators.
      * For books, searches through title and all authors.
      * For DVDs, searches through title and director name.
+     * Results are cached until one of the works they may show changes.
      * 
      * @param term the search term
      * @return a list of works matching the search term, sorted by ID
      */
-    public List<String> searchWorks(String term) {
+    public synchronized List<String> searchWorks(String term) {
         if (term == null || term.trim().isEmpty()) {
             return showWorks();
         }
 
-        List<Work> allWorks = getAllWorks();
-        
-        SearchByTitle titleSearch = new SearchByTitle();
-        SearchByCreator creatorSearch = new SearchByCreator();
-        
-        List<Work> combinedResults = new ArrayList<>(titleSearch.search(term, allWorks));
-        
-        creatorSearch.search(term, allWorks).stream()
-            .filter(work -> !combinedResults.contains(work))
-            .forEach(combinedResults::add);
-        
-        return filterAvailableWorks(combinedResults.stream())
-                .sorted(Comparator.comparing(Work::getIdWork))
+        List<String> cached = getSearchCache().get(term);
+        if (cached != null) {
+            return cached;
+        }
+
+        return _searchCache.put(term, render(cachedIds(term)));
+    }
+
+    /**
+     * Performs a search by whole words: finds the works that have every word of a term as a
+     * whole word of their title or creator names, ignoring case and accents. Where the term is
+     * a single word, these are the works of {@link #searchWorks(String)} in which it is not only
+     * part of a longer word. The works are found by intersecting the posting lists of the words
+     * in the token index, without checking any work.
+     *
+     * @param term the search term
+     * @return a list of works with the words of the term, sorted by ID; all of the works if the
+     *         term has no words
+     */
+    public synchronized List<String> searchWorksByWords(String term) {
+        BitSet ids = term != null ? searchIndex().searchWords(term) : null;
+        if (ids == null) {
+            return showWorks();
+        }
+        facets().visible().retainIn(ids);
+        return render(ids);
+    }
+
+    /**
+     * Performs a general search by term, like {@link #searchWorks(String)}, and also counts the
+     * works found in each facet. The counts come from the same IDs the works are rendered from,
+     * intersected with the facet bitmaps, so no work is looked at again; they are cached with
+     * the result.
+     *
+     * @param term the search term
+     * @return the works matching the search term, sorted by ID, and their facet counts
+     */
+    public synchronized SearchResult searchWorksWithFacets(String term) {
+        if (term == null || term.trim().isEmpty()) {
+            return new SearchResult(showWorks(), facets().count(facets().visible()));
+        }
+
+        List<String> cached = getSearchCache().get(term);
+        FacetCounts counts = _searchCache.getFacets(term);
+        if (cached != null && counts != null) {
+            return new SearchResult(cached, counts);
+        }
+
+        BitSet ids = cachedIds(term);
+        List<String> result = cached != null ? cached : _searchCache.put(term, render(ids));
+        counts = facets().count(ids);
+        _searchCache.putFacets(term, counts);
+        return new SearchResult(result, counts);
+    }
+
+    /**
+     * Performs a general search by term, like {@link #searchWorks(String)}, but returns only the
+     * most relevant works: matches in the title before matches in creator names, texts that
+     * start with the term before those that only contain it, and works borrowed more often
+     * first. Only the works returned are rendered.
+     *
+     * @param term the search term
+     * @param k the number of works to return
+     * @return the {@code k} most relevant works, most relevant first
+     */
+    public synchronized List<String> searchWorksRanked(String term, int k) {
+        if (term == null || term.trim().isEmpty()) {
+            return showWorks(0, k);
+        }
+        return render(RankedSearch.top(searchIds(term), _works::get, term, popularity(), k));
+    }
+
+    /**
+     * Returns the number of borrows of each work. The library keeps no history of loans, so
+     * the count starts, on first use, from the active loans.
+     */
+    private Popularity popularity() {
+        if (_popularity == null) {
+            _popularity = new Popularity();
+            for (Request request : _activeRequests) {
+                _popularity.borrowed(request.getWork().getIdWork());
+            }
+        }
+        return _popularity;
+    }
+
+    /**
+     * Performs a typo-tolerant search: finds the works that have, for each word of the term, a
+     * word within a small edit distance of it in their title or creator names. The words are
+     * looked up in a BK-tree of the indexed words, not compared with every work.
+     *
+     * @param term the search term
+     * @param maxDistance the greatest number of typos in each word, up to
+     *        {@link SearchIndex#MAX_FUZZY_DISTANCE}
+     * @return the works found, closest to the term first, then by ID
+     */
+    public synchronized List<String> searchWorksFuzzy(String term, int maxDistance) {
+        Map<Integer, Integer> found = searchIndex().fuzzySearch(term, maxDistance);
+        return found.entrySet().stream()
+            .filter(entry -> facets().visible().contains(entry.getKey()))
+            .sorted(Map.Entry.<Integer, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()))
+            .map(entry -> _works.get(entry.getKey()).toString())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Finds the IDs of the visible works whose title or creator names contain a term, from the
+     * search index or, if the term cannot be answered from it, by scanning the works.
+     */
+    private BitSet searchIds(String term) {
+        BitSet ids = searchIndex().search(term, _works::get);
+        if (ids == null) {
+            ids = new BitSet();
+            for (Work work : search(new SearchByTitleOrCreator(), term)) {
+                ids.set(work.getIdWork());
+            }
+            return ids;
+        }
+        facets().visible().retainIn(ids);
+        return ids;
+    }
+
+    /**
+     * Returns the IDs found for a term by {@link #searchIds(String)}, searching only if they are
+     * not cached yet: the pages of a result are all taken from its first search.
+     */
+    private BitSet cachedIds(String term) {
+        BitSet ids = getSearchCache().getIds(term);
+        if (ids == null) {
+            ids = searchIds(term);
+            _searchCache.putIds(term, ids);
+        }
+        return ids;
+    }
+
+    private List<String> render(BitSet ids) {
+        return ids.stream().mapToObj(_works::get)
                 .map(Work::toString)
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Returns a page of the results of {@link #searchWorks(String)}. The works are found in ID
+     * order, so only those of the page are rendered; the IDs found are cached, so the next
+     * pages skip the search, and a cached result is paged as it is.
+     *
+     * @param term the search term
+     * @param offset the number of works before the page
+     * @param limit the maximum number of works in the page
+     * @return the string representations of the works of the page
+     */
+    public synchronized List<String> searchWorks(String term, int offset, int limit) {
+        if (term == null || term.trim().isEmpty()) {
+            return showWorks(offset, limit);
+        }
+
+        List<String> cached = getSearchCache().get(term);
+        if (cached != null) {
+            return page(cached.stream(), offset, limit);
+        }
+
+        return page(cachedIds(term).stream().mapToObj(_works::get), offset, limit);
+    }
+
+    /**
+     * Skips to a page of an ordered stream and renders its elements.
+     */
+    private static List<String> page(java.util.stream.Stream<?> items, int offset, int limit) {
+        return items.skip(Math.max(0, offset))
+            .limit(Math.max(0, limit))
+            .map(Object::toString)
+            .collect(Collectors.toList());
+    }
+
+    private static List<String> render(List<?> items) {
+        return items.stream().map(Object::toString).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the cache of the results of {@link #searchWorks(String)}, creating it on first use.
+     *
+     * @return the search cache, with its hit and miss counters
+     */
+    public synchronized SearchCache getSearchCache() {
+        if (_searchCache == null) {
+            _searchCache = new SearchCache();
+        }
+        return _searchCache;
+    }
+
+    /**
+     * Replaces the cache of the results of {@link #searchWorks(String)}.
+     *
+     * @param searchCache the new, empty, cache
+     */
+    public synchronized void setSearchCache(SearchCache searchCache) {
+        _searchCache = searchCache;
+    }
+
+    /**
+     * Runs a search strategy over the works that have copies, in parallel shards.
+     *
+     * @param strategy the search strategy
+     * @param term the search term
+     * @return the works found, sorted by ID
+     */
+    public synchronized List<Work> search(Search strategy, String term) {
+        if (_parallelSearch == null) {
+            _parallelSearch = new ParallelSearch();
+        }
+        return _parallelSearch.search(strategy, term, _works.view(), isVisible());
+    }
+
+    /**
+     * Runs a catalog query. The query is planned against the search index, so only the works
+     * allowed by the index of its most selective predicate are checked, and against its most
+     * selective predicates first.
+     *
+     * @param query the query
+     * @return the works that match the query and have copies, sorted by ID
+     */
+    public synchronized List<Work> query(Query query) {
+        SearchIndex index = searchIndex();
+        Query plan = query.plan(index);
+        BitSet ids = plan.candidates(index, _works::get);
+        if (ids != null) {
+            index.facets().visible().retainIn(ids);
+        } else {
+            ids = index.facets().visible().toBitSet();
+        }
+        return ids.stream().mapToObj(_works::get)
+            .filter(plan::matches)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Sets how searches that scan the works are run.
+     *
+     * @param parallelSearch the executor of the searches
+     */
+    public synchronized void setParallelSearch(ParallelSearch parallelSearch) {
+        _parallelSearch = parallelSearch;
+    }
+
+    /**
+     * Keeps the works in a catalog store, off the heap: the works already in the library are
+     * moved there, and those added from then on are kept there. The library then keeps only the
+     * reference of the record of each work, and builds a view of a work from its record each
+     * time it is looked up.
+     *
+     * @param catalog the catalog store
+     */
+    public synchronized void setCatalogStore(CatalogStore catalog) {
+        IdTable<Work> works = new CatalogWorks(catalog, _inventory);
+        for (Work work : _works) {
+            works.put(work.getIdWork(), work);
+        }
+        _works = works;
+    }
+
+    /**
+     * Returns the facets of the works, building them on first use.
+     *
+     * @return the facets, kept up to date as works are added and their copies change
+     */
+    public synchronized FacetIndex facets() {
+        if (_facets == null) {
+            _facets = new FacetIndex();
+            for (Work work : _works) {
+                _facets.add(work);
+            }
+        }
+        return _facets;
+    }
+
+    /**
+     * Suggests completions of a prefix of a title or creator name.
+     *
+     * The suggestions are ranked by the number of times their works were borrowed. The library
+     * keeps no history of loans, so the count starts, when the suggestions are first used, from
+     * the active loans, and grows with each request from then on.
+     *
+     * @param prefix what was typed
+     * @param limit the most suggestions to give, up to {@link Autocomplete#MAX_SUGGESTIONS}
+     * @return the titles and creator names with a word that starts with the prefix, most
+     *         borrowed first
+     */
+    public synchronized List<String> complete(String prefix, int limit) {
+        if (_autocomplete == null) {
+            _autocomplete = new Autocomplete();
+            for (Creator creator : _creators.values()) {
+                _autocomplete.add(creator);
+            }
+            for (Work work : _works) {
+                _autocomplete.add(work);
+            }
+            for (Request request : _activeRequests) {
+                _autocomplete.borrowed(request.getWork());
+            }
+        }
+        return _autocomplete.complete(prefix, limit);
+    }
+
+    /**
+     * Returns the visible works (those with copies), in ID order, from their facet.
+     */
+    private java.util.stream.Stream<Work> visibleWorks() {
+        return facets().visible().stream().mapToObj(_works::get);
+    }
+
+    /**
+     * Returns the search index of the works, building it on first use.
+     */
+    private SearchIndex searchIndex() {
+        if (_searchIndex == null) {
+            _searchIndex = new SearchIndex(facets());
+            for (Work work : _works) {
+                _searchIndex.add(work);
+            }
+        }
+        return _searchIndex;
+    }
+
+    /**
+     * Adds an author to a book, creating the creator if it doesn't exist.
+     *
+     * @param book the book
+     * @param authorName the name of the author
+     */
+    public synchronized void addAuthor(Book book, String authorName) {
+        Creator author = resolveCreator(authorName);
+        touchWork(book);
+        if (_searchIndex != null) _searchIndex.remove(book);
+        book.addAuthor(author);
+        _works.put(book.getIdWork(), book); // the book may be a view of its record in a catalog store
+        if (_searchIndex != null) _searchIndex.add(book);
+        if (_autocomplete != null) _autocomplete.add(author);
+        if (_searchCache != null) _searchCache.invalidate(book);
+        _changed = true;
+    }
+
+    /**
+     * Removes an author from a book.
+     *
+     * @param book the book
+     * @param author the author to remove
+     */
+    public synchronized void removeAuthor(Book book, Creator author) {
+        touchWork(book);
+        if (_searchIndex != null) _searchIndex.remove(book);
+        book.removeAuthor(author);
+        _works.put(book.getIdWork(), book);
+        if (_searchIndex != null) _searchIndex.add(book);
+        _changed = true;
+    }
     
     /**
      * Shows user notifications and clears them after display
@@ -789,8 +1604,11 @@ public class Library implements Serializable {
      * @return list of notification messages
      * @throws NoSuchUserException if the user doesn't exist
      */
-    public List<String> showUserNotifications(int userId) throws NoSuchUserException {
+    public synchronized List<String> showUserNotifications(int userId) throws NoSuchUserException {
         User user = userByKey(userId);
+        if (user.hasNotifications()) {
+            touchUser(user);
+        }
         List<Notification> notifications = user.getAndClearNotifications();
         
         return notifications.stream()
@@ -807,9 +1625,57 @@ public class Library implements Serializable {
      *
      * @param changed {@code true} if the object has been changed; {@code false} otherwise.
      */
-    public void setChanged(boolean changed) {
+    public synchronized void setChanged(boolean changed) {
         _changed = changed;
     }
-}
 
+    @java.io.Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("_changed", _changed);
+        fields.put("_currentDate", _currentDate);
+        fields.put("_journalSequence", _journalSequence);
+        fields.put("_creators", _creators);
+        fields.put("_activeRequests", _activeRequests);
+        fields.put("_availabilityInterests", _availabilityInterests);
+        fields.put("_borrowingInterests", _borrowingInterests);
+        out.writeFields();
+        _users.write(out);
+        _works.write(out);
+    }
 
+    @java.io.Serial
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        _changed = fields.get("_changed", false);
+        _currentDate = fields.get("_currentDate", 1);
+        _journalSequence = fields.get("_journalSequence", 0L);
+        Map<Integer, User> users = (Map<Integer, User>) fields.get("_users", null);
+        Map<Integer, Work> works = (Map<Integer, Work>) fields.get("_works", null);
+        if (users != null) {
+            _users = IdTable.of(users); // saved as maps
+            _works = IdTable.of(works);
+        } else {
+            _users = IdTable.read(in, User.class);
+            _works = IdTable.read(in, Work.class);
+        }
+        _loanCounters = new LoanCounters();
+        _users.forEach(user -> user.attach(_loanCounters));
+        _inventory = new Inventory();
+        _works.forEach(work -> work.attach(_inventory));
+        _categories = new HashMap<>();
+        for (Work work : _works) {
+            Category category = work.getCategory();
+            Category shared = category != null ? _categories.putIfAbsent(category.getKey(), category) : null;
+            if (shared != null && shared != category) {
+                work.setCategory(shared); // saved before categories were shared
+            }
+            register(work);
+        }
+        _creators = (Map<String, Creator>) fields.get("_creators", new HashMap<>());
+        _activeRequests = (List<Request>) fields.get("_activeRequests", new ArrayList<>());
+        _availabilityInterests = (Map<Integer, List<Integer>>) fields.get("_availabilityInterests", new HashMap<>());
+        _borrowingInterests = (Map<Integer, List<Integer>>) fields.get("_borrowingInterests", new HashMap<>());
+    }
+}
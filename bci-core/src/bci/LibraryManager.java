@@ -1,8 +1,36 @@
 package bci;
 
 import bci.exceptions.*;
+import bci.importer.ImportPipeline;
+import bci.importer.ImportReport;
+import bci.importer.ImportStaging;
+import bci.importer.ImportStatistics;
+import bci.search.ParallelSearch;
+import bci.search.Query;
+import bci.search.SearchCache;
+import bci.search.SearchResult;
+import bci.storage.BackgroundSnapshot;
+import bci.storage.BinarySnapshot;
+import bci.storage.Journal;
+import bci.storage.JournalOperation;
+import bci.storage.Segments;
+import bci.storage.SerializedSnapshot;
+import bci.storage.SnapshotFormat;
+import bci.work.CatalogStore;
 import java.io.*;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * The façade class.
@@ -13,29 +41,227 @@ public class LibraryManager {
 
   private String _filename = "";
 
+  private SnapshotFormat _saveFormat = SnapshotFormat.SERIALIZED;
+
+  private boolean _journaling = false;
+
+  private Journal _journal;
+
+  private long _journalCompactionThreshold = 4L << 20;
+
+  private int _maxSegments = 8;
+
+  /** Each background save runs on its own (non-daemon) thread, so exiting waits for it. */
+  private static final Executor SAVE_EXECUTOR = task -> new Thread(task, "bci-save").start();
+
+  private CompletableFuture<Long> _pendingSave;
+
+  /** Error of the last background save, until reported by {@link #checkBackgroundSave()}. */
+  private IOException _saveFailure;
+
+  private int _importWorkers = 1;
+
+  private boolean _mappedImport = false;
+
+  private ImportStatistics _importStatistics;
+
+  private ParallelSearch _parallelSearch;
+
+  private ForkJoinPool _searchPool;
+
+  private boolean _offHeapCatalog = false;
+
+  private CatalogStore _catalogStore; // of the current library, if its catalog is off the heap
+
+  /** Lines in each page of the streamed listings. */
+  public static final int PAGE_SIZE = 64;
+
   /**
    * Saves the current state of the library to the associated file.
    * 
    * If there are no changes to save, the method returns immediately.
    * If the filename is not set or is blank, a {@code MissingFileAssociationException} is thrown.
-   * The method serializes the library object and writes it to the specified file.
+   * The library is written in the selected {@link SnapshotFormat}: either the serialized
+   * object graph or the binary snapshot format.
+   * When the journal is open, the changes are already recorded in it and are only forced to disk.
    * After saving, the library's changed flag is reset.
    *
    * @throws MissingFileAssociationException if the filename is not set or is blank
    * @throws IOException if an I/O error occurs during saving
    */
   public void save() throws MissingFileAssociationException, IOException {
+    awaitPendingSave();
+    if (!hasChanged()) return;
+    if (_filename == null || _filename.isBlank()) 
+      throw new MissingFileAssociationException();
+    if (_journal != null) {
+      _journal.force();
+      _library.setChanged(false);
+      return;
+    }
+    writeSnapshot();
+  }
+
+  /**
+   * Saves the current state of the library to the associated file without waiting for the write.
+   *
+   * The library is written in the selected {@link SnapshotFormat} on a background thread.
+   * A consistent view of the library is taken immediately, and requests, returns and other
+   * operations keep being served while it is written; users and works changed during the save
+   * are written as they were when it started. The segments and journal of the file are deleted
+   * once the snapshot replaces it, as in {@link #save()}.
+   * If a previous background save is still running, it is waited for first.
+   * When journaling, the save is done as in {@link #save()}, which keeps the journal open.
+   * A failure is reported by the returned future and by the next {@link #checkBackgroundSave()}.
+   *
+   * @return a future completed with the number of bytes written (0 if nothing had changed),
+   *         or completed exceptionally with the error that made the save fail
+   * @throws MissingFileAssociationException if the filename is not set or is blank
+   */
+  public CompletableFuture<Long> saveAsync() throws MissingFileAssociationException {
+    if (_filename == null || _filename.isBlank()) 
+      throw new MissingFileAssociationException();
+    awaitPendingSave();
+    try {
+      if (!hasChanged()) return CompletableFuture.completedFuture(0L);
+      if (_journaling) {
+        save();
+        return CompletableFuture.completedFuture(0L);
+      }
+      _pendingSave = BackgroundSnapshot.start(_library, _filename, _saveFormat, SAVE_EXECUTOR);
+      return _pendingSave;
+    } catch (IOException e) {
+      _pendingSave = CompletableFuture.failedFuture(e);
+      return _pendingSave;
+    }
+  }
+
+  /**
+   * @return true if a background save is still running
+   */
+  public boolean isSaving() {
+    return _pendingSave != null && !_pendingSave.isDone();
+  }
+
+  /**
+   * Waits for the last background save and reports its failure, if it failed.
+   *
+   * @throws IOException the error that made the background save fail
+   */
+  public void checkBackgroundSave() throws IOException {
+    awaitPendingSave();
+    IOException failure = _saveFailure;
+    _saveFailure = null;
+    if (failure != null) throw failure;
+  }
+
+  /**
+   * Waits for the running background save, if any, before touching the associated files.
+   * A failure is kept until {@link #checkBackgroundSave()} reports it.
+   */
+  private void awaitPendingSave() {
+    if (_pendingSave == null) return;
+    try {
+      _pendingSave.join();
+    } catch (CompletionException e) {
+      _saveFailure = e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+    } catch (CancellationException e) {
+      _saveFailure = new IOException("Background save cancelled", e);
+    }
+    _pendingSave = null;
+  }
+
+  /**
+   * Writes a full snapshot of the library to the associated file, in the selected format.
+   * The journal of that file is emptied, since the snapshot now holds all its changes.
+   *
+   * @throws IOException if an I/O error occurs during saving
+   */
+  private void writeSnapshot() throws IOException {
+    writeLibrary(_library, _filename);
+    Segments.deleteAll(_filename);
+    _library.getChanges().clear();
+    _library.setChanged(false);
+
+    if (_journal != null) {
+      _journal.reset();
+    } else {
+      Journal.delete(_filename);
+      if (_journaling) {
+        _journal = new Journal(_filename);
+        _journal.open();
+      }
+    }
+  }
+
+  /**
+   * Writes a library to a file, in the selected format.
+   */
+  private void writeLibrary(Library library, String filename) throws IOException {
+    if (_saveFormat == SnapshotFormat.BINARY) {
+      BinarySnapshot.write(library, filename);
+    } else {
+      SerializedSnapshot.write(library, filename);
+    }
+  }
+
+  /**
+   * Saves only the users, works, creators and loans changed since the last save.
+   *
+   * The changes are written as a new segment next to the associated file, so the cost depends
+   * on what changed and not on the size of the library. If the file was never fully saved, a full
+   * snapshot is written instead. When there are too many segments they are merged into the file.
+   *
+   * @throws MissingFileAssociationException if the filename is not set or is blank
+   * @throws IOException if an I/O error occurs during saving
+   */
+  public void saveIncremental() throws MissingFileAssociationException, IOException {
+    awaitPendingSave();
     if (!hasChanged()) return;
     if (_filename == null || _filename.isBlank()) 
       throw new MissingFileAssociationException();
-    try (ObjectOutputStream oos = new ObjectOutputStream(
-                                  new BufferedOutputStream(
-                                  new FileOutputStream(_filename)))) {
-      oos.writeObject(_library);
-      _library.setChanged(false);                    
+    if (_journal != null || !new File(_filename).exists()) {
+      save();
+      return;
+    }
+    Segments.writeNext(_library, _filename);
+    _library.getChanges().clear();
+    _library.setChanged(false);
+    if (Segments.count(_filename) > _maxSegments) {
+      mergeSegments();
     }
   }
 
+  /**
+   * Folds the segments of the associated file into a new version of that file.
+   *
+   * The file and its segments are read back from disk, so changes not saved yet are not included.
+   *
+   * @throws MissingFileAssociationException if the filename is not set or is blank
+   * @throws IOException if an I/O error occurs
+   */
+  public void mergeSegments() throws MissingFileAssociationException, IOException {
+    if (_filename == null || _filename.isBlank()) 
+      throw new MissingFileAssociationException();
+    awaitPendingSave();
+    if (Segments.count(_filename) == 0) return;
+    try {
+      writeLibrary(readLibrary(_filename), _filename);
+    } catch (ClassNotFoundException e) {
+      throw new IOException(e);
+    }
+    Segments.deleteAll(_filename);
+  }
+
+  /**
+   * Sets the number of segments above which an incremental save merges them into the file.
+   *
+   * @param maxSegments the maximum number of segments
+   */
+  public void setMaxSegments(int maxSegments) {
+    _maxSegments = maxSegments;
+  }
+
   /**
    * Saves the current state of the library to a new file specified by the given filename.
    * Updates the internal filename reference and delegates the actual saving process to the {@code save()} method.
@@ -45,6 +271,10 @@ public class LibraryManager {
    * @throws IOException if an I/O error occurs during the save operation
    */
   public void saveAs(String filename) throws MissingFileAssociationException, IOException {
+    awaitPendingSave();
+    if (!filename.equals(_filename)) {
+      closeJournal();
+    }
     _filename = filename;
     save();
   }
@@ -53,6 +283,9 @@ public class LibraryManager {
    * Loads a Library object from the specified file.
    * 
    * This method attempts to deserialize a Library instance from the given filename.
+   * Binary snapshots are recognized by their header and read through a memory-mapped file.
+   * The segments of incremental saves are applied to it and, if the file has a journal,
+   * its operations are replayed on top of the result.
    * If successful, it updates the internal state with the loaded library and marks it as unchanged.
    * If the file cannot be read or the class cannot be found during deserialization,
    * an UnavailableFileException is thrown.
@@ -61,43 +294,290 @@ public class LibraryManager {
    * @throws UnavailableFileException if the file cannot be loaded or deserialized
    */
   public void load(String filename) throws UnavailableFileException {
+    awaitPendingSave();
+    closeJournal();
     try {
-      try (ObjectInputStream ois = new ObjectInputStream(
-                                   new BufferedInputStream(  
-                                   new FileInputStream(filename)))) {
-        _filename = filename;
-        _library = (Library)ois.readObject();
-        _library.setChanged(false);
+      Library library = readLibrary(filename);
+      Journal journal = new Journal(filename);
+      int replayed = journal.replay(library);
+      if (_journaling) {
+        journal.open();
+        _journal = journal;
       }
+      // without a journal to append to, replayed changes exist only in memory
+      library.setChanged(replayed > 0 && !_journaling);
+      configure(library);
+      _filename = filename;
+      _library = library;
     }
     catch (IOException | ClassNotFoundException e) {
       throw new UnavailableFileException(filename);
     }
   }
 
+  /**
+   * Reads a library from a file in either format and applies the segments of that file.
+   */
+  private Library readLibrary(String filename) throws IOException, ClassNotFoundException {
+    Library library;
+    if (BinarySnapshot.isBinarySnapshot(filename)) {
+      library = BinarySnapshot.read(filename);
+    } else {
+      library = SerializedSnapshot.read(filename);
+    }
+    Segments.applyAll(library, filename);
+    return library;
+  }
+
+  /**
+   * Enables or disables the mutation journal.
+   *
+   * While enabled, every operation that changes the library is appended to a journal next to
+   * the associated file, and {@link #save()} only has to force that journal to disk.
+   * The journal starts with the next full snapshot (first save of a new file) or the next load.
+   * It is compacted into a new snapshot whenever it grows beyond the compaction threshold.
+   *
+   * @param journaling true to enable the journal
+   */
+  public void setJournaling(boolean journaling) {
+    _journaling = journaling;
+    if (!journaling) {
+      closeJournal();
+    }
+  }
+
+  /**
+   * @return true if the mutation journal is enabled
+   */
+  public boolean isJournaling() {
+    return _journaling;
+  }
+
+  /**
+   * Sets the journal size above which it is folded into a new full snapshot.
+   *
+   * @param bytes the compaction threshold, in bytes
+   */
+  public void setJournalCompactionThreshold(long bytes) {
+    _journalCompactionThreshold = bytes;
+  }
+
+  /**
+   * Records a successful operation in the journal, if it is open.
+   */
+  private void journal(JournalOperation operation, int... args) {
+    if (_journal == null) return;
+    try {
+      long sequence = _library.getJournalSequence() + 1;
+      _journal.append(sequence, operation, args);
+      _library.setJournalSequence(sequence);
+      compactJournal();
+    } catch (IOException e) {
+      journalFailed();
+    }
+  }
+
+  /**
+   * Records a successful operation with integer arguments and fields in the journal, if it is open.
+   */
+  private void journal(JournalOperation operation, int[] args, String... fields) {
+    if (_journal == null) return;
+    try {
+      long sequence = _library.getJournalSequence() + 1;
+      _journal.append(sequence, operation, args, fields);
+      _library.setJournalSequence(sequence);
+      compactJournal();
+    } catch (IOException e) {
+      journalFailed();
+    }
+  }
+
+  /**
+   * Records a successful registration in the journal, if it is open.
+   */
+  private void journalEntry(JournalOperation operation, String... fields) {
+    if (_journal == null) return;
+    try {
+      long sequence = _library.getJournalSequence() + 1;
+      _journal.appendEntry(sequence, operation, fields);
+      _library.setJournalSequence(sequence);
+      compactJournal();
+    } catch (IOException e) {
+      journalFailed();
+    }
+  }
+
+  private void compactJournal() throws IOException {
+    if (_journal.size() > _journalCompactionThreshold) {
+      writeSnapshot();
+    }
+  }
+
+  /**
+   * Stops journaling after a write error. The changes are no longer durable, so the
+   * library is marked as changed and the next save writes a full snapshot.
+   */
+  private void journalFailed() {
+    closeJournal();
+    _library.changed();
+  }
+
+  private void closeJournal() {
+    if (_journal == null) return;
+    try {
+      _journal.close();
+    } catch (IOException e) {
+      // nothing else to release
+    }
+    _journal = null;
+  }
+
+  /**
+   * Selects the format used by the next saves.
+   *
+   * @param format the snapshot format
+   */
+  public void setSaveFormat(SnapshotFormat format) {
+    _saveFormat = format;
+  }
+
+  /**
+   * @return the format used when saving
+   */
+  public SnapshotFormat getSaveFormat() {
+    return _saveFormat;
+  }
+
   /**
    * Read text input file and initializes the current library (which should be empty)
    * with the domain entities representeed in the import file.
    *
+   * The whole file is staged before anything is registered, so if some line is not valid,
+   * nothing is imported.
+   *
    * @param filename name of the text input file
    * @throws ImportFileException if some error happens during the processing of the
-   * import file.
+   * import file, with the error of the first line that is not valid.
    */
   public void importFile(String filename) throws ImportFileException {
+    ImportStaging staging = stageImport(filename);
+    List<ImportReport.Rejection> rejections = staging.getReport().getRejections();
+    if (!rejections.isEmpty()) {
+      throw new ImportFileException(filename, rejections.get(0).getError());
+    }
+    commitImport(filename, staging);
+  }
+
+  /**
+   * Imports the valid lines of a text input file, like {@link #importFile(String)}, and
+   * reports the lines that are not valid instead of failing.
+   *
+   * @param filename name of the text input file
+   * @return the number of users and works imported, and the rejected lines
+   * @throws ImportFileException if the file cannot be read
+   */
+  public ImportReport importFileWithReport(String filename) throws ImportFileException {
+    ImportStaging staging = stageImport(filename);
+    commitImport(filename, staging);
+    return staging.getReport();
+  }
+
+  /**
+   * Reads, parses and validates an import file, without changing the library.
+   */
+  private ImportStaging stageImport(String filename) throws ImportFileException {
     try {
-      _library.importFile(filename);
-    } catch (UnrecognizedEntryException | IOException | NoSuchUserException | NoSuchWorkException |
-             NoSuchCreatorException | UserRegistrationFailedException | BorrowingRuleFailedException |
-             WorkNotBorrowedByUserException | UserIsActiveException e) {
+      ImportStaging staging = new ImportStaging(new File(filename).length());
+      if (_importWorkers > 1) {
+        _importStatistics = new ImportPipeline(_importWorkers, _mappedImport).run(filename, staging);
+      } else if (_mappedImport) {
+        staging.readMapped(filename);
+      } else {
+        staging.read(filename);
+      }
+      return staging;
+    } catch (IOException e) {
       throw new ImportFileException(filename, e);
     }
   }
 
+  /**
+   * Registers a staged import in the library, in one step.
+   */
+  private void commitImport(String filename, ImportStaging staging) throws ImportFileException {
+    try {
+      _library.commitImport(staging);
+      if (_journal != null) {
+        writeSnapshot();
+      }
+    } catch (UnrecognizedEntryException | IOException e) {
+      throw new ImportFileException(filename, e);
+    }
+  }
+
+  /**
+   * Sets the number of threads that parse import files. With more than one, files are
+   * staged by an {@link ImportPipeline}, with the same result as a sequential import.
+   *
+   * @param workers the number of parse workers
+   */
+  public void setImportWorkers(int workers) {
+    _importWorkers = workers;
+  }
+
+  /**
+   * Sets the number of threads that search the works when a search cannot be answered from
+   * the search indexes. By default, searches run in the common fork/join pool.
+   *
+   * @param threads the number of threads
+   */
+  public void setSearchParallelism(int threads) {
+    if (_searchPool != null) _searchPool.shutdown();
+    _searchPool = new ForkJoinPool(Math.max(1, threads));
+    _parallelSearch = new ParallelSearch(_searchPool, ParallelSearch.DEFAULT_SHARD_SIZE);
+    _library.setParallelSearch(_parallelSearch);
+  }
+
+  /**
+   * Sets whether the works are kept off the heap, in a {@link CatalogStore} mapped from a
+   * temporary file, for catalogs too large for the heap. Enabling it moves the works of the
+   * current library; it then applies to every library loaded.
+   * Disabling it only applies to the libraries loaded from then on.
+   *
+   * @param offHeap whether to keep the works off the heap
+   * @throws IOException if the temporary file cannot be created
+   */
+  public void setOffHeapCatalog(boolean offHeap) throws IOException {
+    _offHeapCatalog = offHeap;
+    if (offHeap && _catalogStore == null) {
+      _catalogStore = CatalogStore.temporary();
+      _library.setCatalogStore(_catalogStore);
+    }
+  }
+
+  /**
+   * Sets whether import files are read by mapping them into memory, as UTF-8, instead of
+   * through a Reader. Meant for very large files.
+   *
+   * @param mapped whether to map import files
+   */
+  public void setMappedImport(boolean mapped) {
+    _mappedImport = mapped;
+  }
+
+  /**
+   * @return the throughput of each stage of the last pipelined import, or null if there was none
+   */
+  public ImportStatistics getImportStatistics() {
+    return _importStatistics;
+  }
+
     /**
      * Advances the date in the library
      */
     public void advanceDate(int days){
         _library.advanceDate(days);
+        journal(JournalOperation.ADVANCE_DATE, days);
     }
 
     /**
@@ -110,6 +590,104 @@ public class LibraryManager {
         return _library.searchWorks(term);
     }
 
+    /**
+     * Performs a search for the works that have every word of a term as a whole word.
+     *
+     * @param term the search term
+     * @return a list of works with the words of the term
+     */
+    public List<String> searchWorksByWords(String term) {
+        return _library.searchWorksByWords(term);
+    }
+
+    /**
+     * Performs a search by term in the library, also counting the works found by category,
+     * work type and availability.
+     *
+     * @param term the search term
+     * @return the works matching the search term and their facet counts
+     */
+    public SearchResult searchWorksWithFacets(String term) {
+        return _library.searchWorksWithFacets(term);
+    }
+
+    /**
+     * Performs a search by term in the library, returning only the most relevant works.
+     *
+     * @param term the search term
+     * @param k the number of works to return
+     * @return the {@code k} most relevant works, most relevant first
+     */
+    public List<String> searchWorksRanked(String term, int k) {
+        return _library.searchWorksRanked(term, k);
+    }
+
+    /**
+     * Performs a typo-tolerant search by term in the library.
+     *
+     * @param term the search term, possibly misspelled
+     * @param maxDistance the greatest number of typos in each word (1 or 2)
+     * @return the works found, closest to the term first
+     */
+    public List<String> searchWorksFuzzy(String term, int maxDistance) {
+        return _library.searchWorksFuzzy(term, maxDistance);
+    }
+
+    /**
+     * Suggests titles and creator names that complete what a patron has typed, most borrowed
+     * first.
+     *
+     * @param prefix what was typed
+     * @param limit the most suggestions to give
+     * @return the suggestions
+     */
+    public List<String> complete(String prefix, int limit) {
+        return _library.complete(prefix, limit);
+    }
+
+    /**
+     * Runs a catalog query that combines predicates on the title, creators, category, type,
+     * price and availability of the works.
+     *
+     * @param query the query
+     * @return the works that match the query, sorted by ID
+     */
+    public List<String> queryWorks(Query query) {
+        return _library.query(query).stream()
+            .map(Object::toString)
+            .collect(java.util.stream.Collectors.toList());
+    }
+
+    /**
+     * Performs a search by term in the library, returning one page of the results.
+     *
+     * @param term the search term
+     * @param offset the number of results before the page
+     * @param limit the maximum number of results in the page
+     * @return the works of the page
+     */
+    public List<String> searchWorks(String term, int offset, int limit) {
+        return _library.searchWorks(term, offset, limit);
+    }
+
+    /**
+     * Performs a search by term in the library, streaming the results a page at a time.
+     *
+     * @param term the search term
+     * @return the works matching the search term
+     */
+    public Stream<String> streamSearchWorks(String term) {
+        Library library = _library;
+        return paged(library.searchWorks(term, 0, PAGE_SIZE), offset -> library.searchWorks(term, offset, PAGE_SIZE));
+    }
+
+    /**
+     * @return the cache of the search results of the current library, with its hit and miss counters
+     */
+    public SearchCache getSearchCache() {
+        return _library.getSearchCache();
+    }
+
 
 
 
@@ -138,21 +716,27 @@ public class LibraryManager {
    * Processes a work request.
    */
   public int requestWork(int userId, int workId) throws NoSuchUserException, NoSuchWorkException, BorrowingRuleFailedException {
-    return _library.requestWork(userId, workId);
+    int limit = _library.requestWork(userId, workId);
+    journal(JournalOperation.REQUEST_WORK, userId, workId);
+    return limit;
   }
   
   /**
    * Processes a work return.
    */
   public int returnWork(int userId, int workId) throws NoSuchUserException, NoSuchWorkException, WorkNotBorrowedByUserException {
-    return _library.returnWork(userId, workId);
+    int fine = _library.returnWork(userId, workId);
+    journal(JournalOperation.RETURN_WORK, userId, workId);
+    return fine;
   }
   
   /**
    * Processes fine payment.
    */
   public boolean payFine(int userId, int amount) throws NoSuchUserException, UserIsActiveException {
-    return _library.payFine(userId, amount);
+    boolean active = _library.payFine(userId, amount);
+    journal(JournalOperation.PAY_FINE, userId, amount);
+    return active;
   }
   
   /**
@@ -161,6 +745,21 @@ public class LibraryManager {
   public java.util.List<String> showUsers() {
     return _library.showUsers();
   }
+
+  /**
+   * Shows a page of the users.
+   */
+  public java.util.List<String> showUsers(int offset, int limit) {
+    return _library.showUsers(offset, limit);
+  }
+
+  /**
+   * Streams the users, a page at a time.
+   */
+  public Stream<String> streamUsers() {
+    Library library = _library;
+    return paged(library.showUsers(0, PAGE_SIZE), offset -> library.showUsers(offset, PAGE_SIZE));
+  }
   
   /**
    * Shows all works.
@@ -168,19 +767,113 @@ public class LibraryManager {
   public java.util.List<String> showWorks() {
     return _library.showWorks();
   }
+
+  /**
+   * Shows a page of the works.
+   */
+  public java.util.List<String> showWorks(int offset, int limit) {
+    return _library.showWorks(offset, limit);
+  }
+
+  /**
+   * Streams the works, a page at a time.
+   */
+  public Stream<String> streamWorks() {
+    Library library = _library;
+    return paged(library.showWorks(0, PAGE_SIZE), offset -> library.showWorks(offset, PAGE_SIZE));
+  }
   
+  /**
+   * Shows the works of a category, such as FICTION, ordered by their IDs.
+   */
+  public java.util.List<String> showWorksByCategory(String categoryName) {
+    return _library.showWorksByCategory(categoryName);
+  }
+
   /**
    * Shows works by creator.
    */
   public java.util.List<String> showWorksByCreator(String creatorName) throws NoSuchCreatorException {
     return _library.showWorksByCreator(creatorName);
   }
+
+  /**
+   * Shows a page of the works by creator.
+   */
+  public java.util.List<String> showWorksByCreator(String creatorName, int offset, int limit)
+      throws NoSuchCreatorException {
+    return _library.showWorksByCreator(creatorName, offset, limit);
+  }
+
+  /**
+   * Streams the works by creator, a page at a time.
+   *
+   * @throws NoSuchCreatorException if the creator doesn't exist
+   * @throws IllegalStateException from the stream, if the creator is removed before the stream ends
+   */
+  public Stream<String> streamWorksByCreator(String creatorName) throws NoSuchCreatorException {
+    Library library = _library;
+    return paged(library.showWorksByCreator(creatorName, 0, PAGE_SIZE), offset -> {
+      try {
+        return library.showWorksByCreator(creatorName, offset, PAGE_SIZE);
+      } catch (NoSuchCreatorException e) {
+        throw new IllegalStateException("Creator " + creatorName + " was removed while its works were streamed", e);
+      }
+    });
+  }
+
+  /**
+   * Returns a stream over the pages of a listing. The first page is given; the others are
+   * requested, from their offset, as the stream reaches them, so only the pages consumed are
+   * ever sorted and rendered. A page shorter than {@link #PAGE_SIZE} is the last one.
+   */
+  private static Stream<String> paged(List<String> first, IntFunction<List<String>> next) {
+    Iterator<String> lines = new Iterator<>() {
+      private List<String> _page = first;
+      private int _offset = 0;
+      private int _index = 0;
+
+      @Override
+      public boolean hasNext() {
+        if (_index == _page.size() && _page.size() == PAGE_SIZE) {
+          _offset += _page.size();
+          _page = next.apply(_offset);
+          _index = 0;
+        }
+        return _index < _page.size();
+      }
+
+      @Override
+      public String next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return _page.get(_index++);
+      }
+    };
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(lines, Spliterator.ORDERED), false);
+  }
   
   /**
    * Changes work inventory.
    */
   public void changeWorkInventory(int workId, int amount) throws NoSuchWorkException {
     _library.changeWorkInventory(workId, amount);
+    journal(JournalOperation.CHANGE_WORK_INVENTORY, workId, amount);
+  }
+  
+  /**
+   * Adds an author to a book, creating the creator if it doesn't exist.
+   */
+  public void addAuthor(bci.work.workType.Book book, String authorName) {
+    _library.addAuthor(book, authorName);
+    journal(JournalOperation.ADD_AUTHOR, new int[] { book.getIdWork() }, authorName);
+  }
+
+  /**
+   * Removes an author from a book.
+   */
+  public void removeAuthor(bci.work.workType.Book book, bci.creator.Creator author) {
+    _library.removeAuthor(book, author);
+    journal(JournalOperation.REMOVE_AUTHOR, new int[] { book.getIdWork() }, author.getName());
   }
   
   /**
@@ -188,6 +881,7 @@ public class LibraryManager {
    */
   public void registerAvailabilityInterest(int userId, int workId) throws NoSuchUserException, NoSuchWorkException {
     _library.registerAvailabilityInterest(userId, workId);
+    journal(JournalOperation.AVAILABILITY_INTEREST, userId, workId);
   }
   
   /**
@@ -195,6 +889,7 @@ public class LibraryManager {
    */
   public void registerBorrowingInterest(int userId, int workId) throws NoSuchUserException, NoSuchWorkException {
     _library.registerBorrowingInterest(userId, workId);
+    journal(JournalOperation.BORROWING_INTEREST, userId, workId);
   }
   
   /**
@@ -208,14 +903,29 @@ public class LibraryManager {
    * Shows user notifications.
    */
   public java.util.List<String> showUserNotifications(int userId) throws NoSuchUserException {
-    return _library.showUserNotifications(userId);
+    java.util.List<String> notifications = _library.showUserNotifications(userId);
+    if (!notifications.isEmpty()) {
+      journal(JournalOperation.CLEAR_NOTIFICATIONS, userId);
+    }
+    return notifications;
   }
   
   /**
    * Processes user registration.
    */
   public bci.user.User processUser(String... fields) throws UserRegistrationFailedException {
-    return _library.processUser(fields);
+    bci.user.User user = _library.processUser(fields);
+    journalEntry(JournalOperation.REGISTER_USER, fields);
+    return user;
+  }
+
+  /**
+   * Processes work registration.
+   */
+  public bci.work.Work processWork(String... fields) throws NoSuchCreatorException, UnrecognizedEntryException {
+    bci.work.Work work = _library.processWork(fields);
+    journalEntry(JournalOperation.REGISTER_WORK, fields);
+    return work;
   }
 
 
@@ -244,7 +954,32 @@ public class LibraryManager {
    * @param library the library to set
    */
   public void setLibrary(Library library) {
+    try {
+      configure(library);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
     _library = library;
   }
 
+  /**
+   * Applies the search and catalog settings to a library that is about to become the current one.
+   */
+  private void configure(Library library) throws IOException {
+    if (_parallelSearch != null) library.setParallelSearch(_parallelSearch);
+    if (_catalogStore != null) {
+      awaitPendingSave(); // a background save may still read the works of the old library
+      try {
+        _catalogStore.close();
+      } catch (IOException e) {
+        // the temporary file is deleted on exit
+      }
+      _catalogStore = null;
+    }
+    if (_offHeapCatalog) {
+      _catalogStore = CatalogStore.temporary();
+      library.setCatalogStore(_catalogStore);
+    }
+  }
+
 }
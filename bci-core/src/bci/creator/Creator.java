@@ -1,50 +1,77 @@
 package bci.creator;
 
+import bci.search.SearchKey;
+import bci.search.WorkBitmap;
 import bci.work.*;
 
 import java.io.Serializable;
-import java.util.List;
-import java.util.ArrayList;
 
 
 public class Creator implements Serializable {
-    
+
     @java.io.Serial
     private static final long serialVersionUID = 202507171003L;
-    
+
     private String _name;
-    private List<Work> _works;
-    
+    private transient WorkBitmap _works; // IDs of the works; rebuilt from the works when the library is read
+    private transient String _searchKey; // the name, folded for searches
+
     public Creator(String name) {
         _name = name;
-        _works = new ArrayList<>();
+        _searchKey = SearchKey.of(name);
+        _works = new WorkBitmap();
     }
-    
-    public void addWork(Work work) { 
-        if (work != null && !_works.contains(work)) {
-            _works.add(work);
+
+    public void addWork(Work work) {
+        if (work != null) {
+            works().add(work.getIdWork());
         }
     }
-    
+
     public void removeWork(Work work) {
-        _works.remove(work);
+        if (work != null) {
+            works().remove(work.getIdWork());
+        }
     }
 
     public boolean hasWork() {
-        return !_works.isEmpty();
+        return works().cardinality() > 0;
     }
 
     // ========== GETTERS ==========
-    
+
     public String getName() {
         return _name;
     }
-    
-    public List<Work> getWorks() { 
+
+    /**
+     * @return the name, without accents and in lower case, to be compared with search keys
+     */
+    public String getSearchKey() {
+        if (_searchKey == null) {
+            _searchKey = SearchKey.of(_name);
+        }
+        return _searchKey;
+    }
+
+    /**
+     * The creator keeps the IDs of its works, not the works, which the library may only build
+     * when they are looked up.
+     *
+     * @return the IDs of the works of the creator (not to be changed)
+     */
+    public WorkBitmap getWorkIds() {
+        return works();
+    }
+
+    private WorkBitmap works() {
+        if (_works == null) {
+            _works = new WorkBitmap();
+        }
         return _works;
     }
 
-    
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
@@ -57,4 +84,4 @@ public class Creator implements Serializable {
     public String toString() {
         return _name;
     }
-}
\ No newline at end of file
+}
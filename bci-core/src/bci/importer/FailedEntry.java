@@ -0,0 +1,20 @@
+package bci.importer;
+
+/**
+ * A line that could not be parsed or is not valid. Staging it rejects the line, with its error.
+ */
+class FailedEntry extends ImportEntry {
+
+    private final Exception _error;
+    private final String _line;
+
+    FailedEntry(Exception error, String line) {
+        _error = error;
+        _line = line;
+    }
+
+    @Override
+    void stage(ImportStaging staging, long lineNumber) {
+        staging.reject(lineNumber, _line, _error);
+    }
+}
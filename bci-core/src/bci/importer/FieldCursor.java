@@ -0,0 +1,237 @@
+package bci.importer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+/**
+ * A reusable cursor over the separated fields of one line, held in a char buffer or in a
+ * buffer of UTF-8 bytes.
+ *
+ * Fields are read in order with {@link #next()}. The current field can be compared, parsed
+ * as an integer or trimmed in place; a String is only created when {@link #toString()} is
+ * called, for values that are kept. Nothing else is allocated per line.
+ *
+ * Like {@link String#split(String)}, empty fields at the end of the line are ignored.
+ * The cursor reads the buffer it was reset to, which must not change while it is in use.
+ *
+ * Over UTF-8 bytes, the characters of a field are its bytes: separators, digits and the ASCII
+ * values it is compared to are found directly, since no byte of a multi-byte UTF-8 character
+ * is an ASCII character. Only {@link #toString()} decodes the field.
+ */
+public class FieldCursor implements CharSequence {
+
+    private final char _separator;
+    private char[] _own = new char[256]; // buffer for lines given as Strings
+    private char[] _chars;
+    private ByteBuffer _bytes;
+    private byte[] _decoded = new byte[256]; // bytes of the field being decoded
+    private int _lineStart;
+    private int _lineEnd;
+    private int _end;
+    private int _next = -1; // start of the next field, or -1 after the last one
+    private int _fieldStart;
+    private int _fieldEnd;
+    private FieldCursor _subfields;
+
+    /**
+     * @param separator the character between fields
+     */
+    public FieldCursor(char separator) {
+        _separator = separator;
+    }
+
+    /**
+     * Moves the cursor to the start of a line in a buffer.
+     *
+     * @param chars the buffer
+     * @param start the index of the first character of the line
+     * @param end the index after the last character of the line
+     * @return this cursor
+     */
+    public FieldCursor reset(char[] chars, int start, int end) {
+        return reset(chars, null, start, end);
+    }
+
+    /**
+     * Moves the cursor to the start of a line of UTF-8 bytes.
+     *
+     * @param bytes the buffer, read with absolute gets
+     * @param start the index of the first byte of the line
+     * @param end the index after the last byte of the line
+     * @return this cursor
+     */
+    public FieldCursor reset(ByteBuffer bytes, int start, int end) {
+        return reset(null, bytes, start, end);
+    }
+
+    private FieldCursor reset(char[] chars, ByteBuffer bytes, int start, int end) {
+        _chars = chars;
+        _bytes = bytes;
+        _lineStart = start;
+        _lineEnd = end;
+        while (end > start && at(end - 1) == _separator) end--;
+        _end = end;
+        _next = start;
+        _fieldStart = _fieldEnd = start;
+        return this;
+    }
+
+    /**
+     * Moves the cursor to the start of a line, copied into a buffer owned by the cursor.
+     *
+     * @param line the line
+     * @return this cursor
+     */
+    public FieldCursor reset(String line) {
+        int length = line.length();
+        if (_own.length < length) _own = new char[Math.max(length, 2 * _own.length)];
+        line.getChars(0, length, _own, 0);
+        return reset(_own, 0, length);
+    }
+
+    /**
+     * @return whether there is another field
+     */
+    public boolean hasNext() {
+        return _next >= 0;
+    }
+
+    /**
+     * Moves to the next field.
+     *
+     * @return this cursor, positioned at the field
+     * @throws NoSuchElementException if the line has no more fields
+     */
+    public FieldCursor next() {
+        if (_next < 0) throw new NoSuchElementException("Missing field " + _separator);
+        int i = _next;
+        while (i < _end && at(i) != _separator) i++;
+        _fieldStart = _next;
+        _fieldEnd = i;
+        _next = i < _end ? i + 1 : -1;
+        return this;
+    }
+
+    /**
+     * Returns a cursor over the parts of the current field. The cursor is reused by
+     * later calls, so it is only valid until this cursor moves.
+     *
+     * @param separator the character between the parts
+     * @return the cursor over the parts
+     */
+    public FieldCursor subfields(char separator) {
+        if (_subfields == null || _subfields._separator != separator) _subfields = new FieldCursor(separator);
+        return _subfields.reset(_chars, _bytes, _fieldStart, _fieldEnd);
+    }
+
+    /**
+     * @return a copy of the whole line, decoded if it is in UTF-8 bytes
+     */
+    public String line() {
+        return string(_lineStart, _lineEnd);
+    }
+
+    /**
+     * Removes leading and trailing whitespace from the current field, like {@link String#trim()}.
+     *
+     * @return this cursor
+     */
+    public FieldCursor trim() {
+        while (_fieldStart < _fieldEnd && at(_fieldStart) <= ' ') _fieldStart++;
+        while (_fieldEnd > _fieldStart && at(_fieldEnd - 1) <= ' ') _fieldEnd--;
+        return this;
+    }
+
+    /**
+     * @return whether the current field is empty or only has whitespace
+     */
+    public boolean isBlank() {
+        for (int i = _fieldStart; i < _fieldEnd; i++) {
+            if (!Character.isWhitespace(at(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param value a value
+     * @return whether the current field is equal to the value
+     */
+    public boolean is(String value) {
+        int length = length();
+        if (value.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (at(_fieldStart + i) != value.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the value that the current field is equal to, ignoring case, so that known
+     * values are shared instead of copied. Other values are copied.
+     *
+     * @param values the known values
+     * @return the known value, or a copy of the field
+     */
+    public String canonical(String[] values) {
+        int length = length();
+        for (String value : values) {
+            if (value.length() == length && equalsIgnoreCase(value)) return value;
+        }
+        return toString();
+    }
+
+    private boolean equalsIgnoreCase(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char a = at(_fieldStart + i);
+            char b = value.charAt(i);
+            if (a != b && Character.toUpperCase(a) != Character.toUpperCase(b)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parses the current field as a decimal integer, like {@link Integer#parseInt(String)}.
+     *
+     * @return the value of the field
+     * @throws NumberFormatException if the field is not an integer
+     */
+    public int intValue() {
+        return Integer.parseInt(this, 0, length(), 10);
+    }
+
+    @Override
+    public int length() {
+        return _fieldEnd - _fieldStart;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return at(_fieldStart + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return string(_fieldStart + start, _fieldStart + end);
+    }
+
+    /**
+     * @return a copy of the current field, decoded if it is in UTF-8 bytes
+     */
+    @Override
+    public String toString() {
+        return string(_fieldStart, _fieldEnd);
+    }
+
+    private char at(int index) {
+        return _chars != null ? _chars[index] : (char) (_bytes.get(index) & 0xFF);
+    }
+
+    private String string(int start, int end) {
+        if (_chars != null) return new String(_chars, start, end - start);
+        int length = end - start;
+        if (_decoded.length < length) _decoded = new byte[Math.max(length, 2 * _decoded.length)];
+        _bytes.get(start, _decoded, 0, length);
+        return new String(_decoded, 0, length, StandardCharsets.UTF_8);
+    }
+}
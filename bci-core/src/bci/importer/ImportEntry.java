@@ -0,0 +1,54 @@
+package bci.importer;
+
+import bci.exceptions.UnrecognizedEntryException;
+
+/**
+ * One parsed line of an import file.
+ *
+ * Parsing and validation do not touch the library, so lines can be parsed on any thread.
+ * Parsed entries are added, in the order of the file, to an {@link ImportStaging}, which is
+ * committed to the library in one step once the whole file is read. A line that cannot be
+ * parsed becomes an entry that is rejected, with its parse error, when staged.
+ */
+public abstract class ImportEntry {
+
+    /**
+     * Parses a line of an import file.
+     *
+     * @param line the line, with fields separated by ':'
+     * @return the parsed entry
+     */
+    public static ImportEntry parse(String line) {
+        return parse(new FieldCursor(':').reset(line));
+    }
+
+    /**
+     * Parses a line of an import file from a cursor, which can be reused for the next line.
+     *
+     * @param fields a cursor at the start of the line, whose fields are separated by ':'
+     * @return the parsed entry
+     */
+    public static ImportEntry parse(FieldCursor fields) {
+        try {
+            fields.next();
+            if (fields.is("USER")) {
+                String name = fields.next().toString();
+                return UserEntry.of(name, fields.next().toString(), fields);
+            }
+            if (fields.is("BOOK") || fields.is("DVD")) {
+                return new WorkEntry(fields);
+            }
+            return new FailedEntry(new UnrecognizedEntryException(fields.toString()), fields.line());
+        } catch (RuntimeException e) {
+            return new FailedEntry(e, fields.line());
+        }
+    }
+
+    /**
+     * Adds the entry to a staged import.
+     *
+     * @param staging the staged import
+     * @param lineNumber the number of the line of the entry, from 1
+     */
+    abstract void stage(ImportStaging staging, long lineNumber);
+}
@@ -0,0 +1,207 @@
+package bci.importer;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Imports a file in three pipelined stages:
+ *
+ *   one reader thread, that reads the file in batches of lines, or splits a
+ *   {@link MappedImportFile} into regions of whole lines;
+ *   several parse workers, that turn each batch or region into {@link ImportEntry}s;
+ *   a single stage, on the calling thread, that adds the entries to an {@link ImportStaging}
+ *   in file order.
+ *
+ * Since entries are staged in file order, the staged import is the same as the one read by
+ * {@link ImportStaging#read(String)}, and so are the IDs its users and works get.
+ */
+public class ImportPipeline {
+
+    private static final int BATCH_SIZE = 1024;
+
+    /** Size of the regions of a mapped file given to each parse task. */
+    private static final long REGION_SIZE = 1 << 20;
+
+    /** Batches read ahead of the staging stage. */
+    private static final int PENDING_BATCHES = 64;
+
+    private static final ImportEntry[] END = new ImportEntry[0];
+
+    private final int _workers;
+    private final boolean _mapped;
+
+    /**
+     * @param workers the number of parse workers
+     */
+    public ImportPipeline(int workers) {
+        this(workers, false);
+    }
+
+    /**
+     * @param workers the number of parse workers
+     * @param mapped whether to read the file, as UTF-8, by mapping it into memory
+     */
+    public ImportPipeline(int workers, boolean mapped) {
+        _workers = Math.max(1, workers);
+        _mapped = mapped;
+    }
+
+    /**
+     * Stages an import file.
+     *
+     * @param filename the import file
+     * @param staging the staged import the entries of the file are added to
+     * @return the throughput of each stage
+     * @throws IOException if the file cannot be read
+     */
+    public ImportStatistics run(String filename, ImportStaging staging) throws IOException {
+        // the regions of a mapped file are mapped by the parse workers, so it stays open until the end
+        try (MappedImportFile file = _mapped ? new MappedImportFile(filename) : null) {
+            ImportStatistics statistics = new ImportStatistics(_workers);
+            BlockingQueue<CompletableFuture<ImportEntry[]>> batches = new ArrayBlockingQueue<>(PENDING_BATCHES);
+            ExecutorService parsers = Executors.newFixedThreadPool(_workers, task -> {
+                Thread thread = new Thread(task, "bci-import-parser");
+                thread.setDaemon(true);
+                return thread;
+            });
+            Runnable read = file != null ? () -> split(file, parsers, batches, statistics)
+                                         : () -> read(filename, parsers, batches, statistics);
+            return run(filename, staging, read, parsers, batches, statistics);
+        }
+    }
+
+    /**
+     * Starts the reader stage and runs the staging stage.
+     */
+    private ImportStatistics run(String filename, ImportStaging staging, Runnable read, ExecutorService parsers,
+                                 BlockingQueue<CompletableFuture<ImportEntry[]>> batches, ImportStatistics statistics)
+                                 throws IOException {
+        Thread reader = new Thread(read, "bci-import-reader");
+        reader.setDaemon(true);
+
+        long start = System.nanoTime();
+        reader.start();
+        try {
+            while (true) {
+                ImportEntry[] entries = batches.take().get();
+                if (entries == END) break;
+                statistics.addLines(entries.length);
+                long stageStart = System.nanoTime();
+                for (ImportEntry entry : entries) {
+                    staging.add(entry);
+                }
+                statistics.addStageNanos(System.nanoTime() - stageStart);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import of " + filename + " interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            if (e.getCause() instanceof Error error) throw error;
+            throw new IOException("Import of " + filename + " failed", e.getCause());
+        } finally {
+            reader.interrupt();
+            parsers.shutdownNow();
+            statistics.setWallNanos(System.nanoTime() - start);
+        }
+        return statistics;
+    }
+
+    /**
+     * The reader stage: hands batches of lines to the parse workers, and their results,
+     * in file order, to the staging stage.
+     */
+    private void read(String filename, ExecutorService parsers, BlockingQueue<CompletableFuture<ImportEntry[]>> batches,
+                      ImportStatistics statistics) {
+        try {
+            try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
+                while (true) {
+                    long readStart = System.nanoTime();
+                    List<String> lines = new ArrayList<>(BATCH_SIZE);
+                    String line;
+                    while (lines.size() < BATCH_SIZE && (line = reader.readLine()) != null) {
+                        lines.add(line);
+                    }
+                    statistics.addReadNanos(System.nanoTime() - readStart);
+                    if (lines.isEmpty()) break;
+                    batches.put(CompletableFuture.supplyAsync(() -> parse(lines, statistics), parsers));
+                }
+            } catch (IOException e) {
+                batches.put(CompletableFuture.failedFuture(e));
+                return;
+            }
+            batches.put(CompletableFuture.completedFuture(END));
+        } catch (InterruptedException e) {
+            // the staging stage stopped
+        }
+    }
+
+    /**
+     * The reader stage for a mapped file: splits it into regions of whole lines for the parse
+     * workers, and hands their results, in file order, to the staging stage.
+     */
+    private void split(MappedImportFile file, ExecutorService parsers,
+                       BlockingQueue<CompletableFuture<ImportEntry[]>> batches, ImportStatistics statistics) {
+        try {
+            try {
+                while (true) {
+                    long readStart = System.nanoTime();
+                    MappedImportFile.Region region = file.nextRegion(REGION_SIZE);
+                    statistics.addReadNanos(System.nanoTime() - readStart);
+                    if (region == null) break;
+                    batches.put(CompletableFuture.supplyAsync(() -> parse(region, statistics), parsers));
+                }
+            } catch (IOException e) {
+                batches.put(CompletableFuture.failedFuture(e));
+                return;
+            }
+            batches.put(CompletableFuture.completedFuture(END));
+        } catch (InterruptedException e) {
+            // the staging stage stopped
+        }
+    }
+
+    /**
+     * The parse stage, for one region of a mapped file.
+     */
+    private static ImportEntry[] parse(MappedImportFile.Region region, ImportStatistics statistics) {
+        long parseStart = System.nanoTime();
+        List<ImportEntry> entries = new ArrayList<>();
+        FieldCursor fields = new FieldCursor(':');
+        try {
+            while (region.next(fields)) {
+                entries.add(ImportEntry.parse(fields));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        statistics.addParseNanos(System.nanoTime() - parseStart);
+        return entries.toArray(new ImportEntry[0]);
+    }
+
+    /**
+     * The parse stage, for one batch.
+     */
+    private static ImportEntry[] parse(List<String> lines, ImportStatistics statistics) {
+        long parseStart = System.nanoTime();
+        ImportEntry[] entries = new ImportEntry[lines.size()];
+        FieldCursor fields = new FieldCursor(':');
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = ImportEntry.parse(fields.reset(lines.get(i)));
+        }
+        statistics.addParseNanos(System.nanoTime() - parseStart);
+        return entries;
+    }
+}
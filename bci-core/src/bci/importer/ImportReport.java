@@ -0,0 +1,92 @@
+package bci.importer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a staged import: how many users and works were accepted, and the lines
+ * that were rejected, with the reason.
+ */
+public class ImportReport {
+
+    /**
+     * A rejected line of an import file.
+     */
+    public static class Rejection {
+
+        private final long _lineNumber;
+        private final String _line;
+        private final Exception _error;
+
+        Rejection(long lineNumber, String line, Exception error) {
+            _lineNumber = lineNumber;
+            _line = line;
+            _error = error;
+        }
+
+        /**
+         * @return the number of the line, from 1
+         */
+        public long getLineNumber() {
+            return _lineNumber;
+        }
+
+        public String getLine() {
+            return _line;
+        }
+
+        /**
+         * @return the error that rejected the line
+         */
+        public Exception getError() {
+            return _error;
+        }
+
+        @Override
+        public String toString() {
+            return _lineNumber + ": " + _error + ": " + _line;
+        }
+    }
+
+    private final List<Rejection> _rejections = new ArrayList<>();
+    private int _acceptedUsers;
+    private int _acceptedWorks;
+
+    void acceptUser() {
+        _acceptedUsers++;
+    }
+
+    void acceptWork() {
+        _acceptedWorks++;
+    }
+
+    void reject(long lineNumber, String line, Exception error) {
+        _rejections.add(new Rejection(lineNumber, line, error));
+    }
+
+    public int getAcceptedUsers() {
+        return _acceptedUsers;
+    }
+
+    public int getAcceptedWorks() {
+        return _acceptedWorks;
+    }
+
+    /**
+     * @return the rejected lines, in the order of the file
+     */
+    public List<Rejection> getRejections() {
+        return Collections.unmodifiableList(_rejections);
+    }
+
+    public boolean hasRejections() {
+        return !_rejections.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return _acceptedUsers + " users and " + _acceptedWorks + " works accepted, "
+               + _rejections.size() + " lines rejected";
+    }
+}
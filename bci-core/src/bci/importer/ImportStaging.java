@@ -0,0 +1,120 @@
+package bci.importer;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The entries of an import file, parsed and validated, waiting to be committed to the library.
+ *
+ * Nothing reaches the library until the whole file has been staged, so a bad line can no
+ * longer leave it with part of the file imported. The valid users and works are committed
+ * in one step by {@link bci.Library#commitImport(ImportStaging)}, in the order of the file;
+ * the rejected lines are kept in an {@link ImportReport}.
+ */
+public class ImportStaging {
+
+    /** Estimated size of a line, to size the staging area from the size of the file. */
+    private static final int BYTES_PER_LINE = 64;
+
+    /** Lines the staging area is sized for at most; larger files grow it as they are read. */
+    private static final int MAX_PRESIZED_LINES = 1 << 16;
+
+    /** Estimated lines per distinct creator name, since works of the same creators share them. */
+    private static final int LINES_PER_CREATOR = 4;
+
+    private final List<UserEntry> _users;
+    private final List<WorkEntry> _works;
+    private final Map<String, String> _creatorNames;
+    private final ImportReport _report = new ImportReport();
+    private long _lines;
+
+    /**
+     * @param fileSize the size of the import file, in bytes, to size the staging area
+     */
+    public ImportStaging(long fileSize) {
+        int lines = (int) Math.min(fileSize / BYTES_PER_LINE, MAX_PRESIZED_LINES);
+        _users = new ArrayList<>(lines / 2);
+        _works = new ArrayList<>(lines / 2);
+        _creatorNames = new HashMap<>(lines / LINES_PER_CREATOR * 4 / 3 + 1);
+    }
+
+    /**
+     * Stages the next entry of the file.
+     *
+     * @param entry the entry of the next line
+     */
+    public void add(ImportEntry entry) {
+        entry.stage(this, ++_lines);
+    }
+
+    void addUser(UserEntry user) {
+        _users.add(user);
+        _report.acceptUser();
+    }
+
+    void addWork(WorkEntry work) {
+        work.shareCreatorNames(_creatorNames);
+        _works.add(work);
+        _report.acceptWork();
+    }
+
+    void reject(long lineNumber, String line, Exception error) {
+        _report.reject(lineNumber, line, error);
+    }
+
+    /**
+     * Stages a file, read with a {@link LineReader}.
+     *
+     * @param filename the import file
+     * @throws IOException if the file cannot be read
+     */
+    public void read(String filename) throws IOException {
+        try (LineReader reader = new LineReader(new FileReader(filename))) {
+            FieldCursor fields = new FieldCursor(':');
+            while (reader.next(fields)) {
+                add(ImportEntry.parse(fields));
+            }
+        }
+    }
+
+    /**
+     * Stages a UTF-8 file, read by mapping it into memory with a {@link MappedImportFile}.
+     *
+     * @param filename the import file
+     * @throws IOException if the file cannot be read
+     */
+    public void readMapped(String filename) throws IOException {
+        try (MappedImportFile file = new MappedImportFile(filename)) {
+            FieldCursor fields = new FieldCursor(':');
+            MappedImportFile.Region region;
+            while ((region = file.nextRegion(MappedImportFile.MAX_REGION_SIZE)) != null) {
+                while (region.next(fields)) {
+                    add(ImportEntry.parse(fields));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the valid users, in the order of the file
+     */
+    public List<UserEntry> getUsers() {
+        return Collections.unmodifiableList(_users);
+    }
+
+    /**
+     * @return the valid works, in the order of the file
+     */
+    public List<WorkEntry> getWorks() {
+        return Collections.unmodifiableList(_works);
+    }
+
+    public ImportReport getReport() {
+        return _report;
+    }
+}
@@ -0,0 +1,83 @@
+package bci.importer;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput of each stage of an {@link ImportPipeline} run.
+ *
+ * Times are the time each stage spent working (for the parse stage, added over all workers),
+ * so the throughput of a stage is the number of lines divided by its time.
+ */
+public class ImportStatistics {
+
+    private final int _workers;
+    private long _lines;
+    private long _readNanos;
+    private final LongAdder _parseNanos = new LongAdder();
+    private long _stageNanos;
+    private long _wallNanos;
+
+    ImportStatistics(int workers) {
+        _workers = workers;
+    }
+
+    void addLines(long lines) {
+        _lines += lines;
+    }
+
+    void addReadNanos(long nanos) {
+        _readNanos += nanos;
+    }
+
+    void addParseNanos(long nanos) {
+        _parseNanos.add(nanos);
+    }
+
+    void addStageNanos(long nanos) {
+        _stageNanos += nanos;
+    }
+
+    void setWallNanos(long nanos) {
+        _wallNanos = nanos;
+    }
+
+    public int getWorkers() {
+        return _workers;
+    }
+
+    public long getLines() {
+        return _lines;
+    }
+
+    public long getReadNanos() {
+        return _readNanos;
+    }
+
+    public long getParseNanos() {
+        return _parseNanos.sum();
+    }
+
+    public long getStageNanos() {
+        return _stageNanos;
+    }
+
+    public long getWallNanos() {
+        return _wallNanos;
+    }
+
+    /**
+     * @return the number of lines per second a stage processes, given its time
+     */
+    public static double linesPerSecond(long lines, long nanos) {
+        return nanos == 0 ? 0 : lines * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d lines in %d ms: read %.0f lines/s, parse %.0f lines/s per worker (%d workers), stage %.0f lines/s",
+                             _lines, _wallNanos / 1_000_000,
+                             linesPerSecond(_lines, _readNanos),
+                             linesPerSecond(_lines, getParseNanos()), _workers,
+                             linesPerSecond(_lines, _stageNanos));
+    }
+}
@@ -0,0 +1,88 @@
+package bci.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Reads lines into a reusable char buffer and hands them to a {@link FieldCursor}, instead of
+ * creating a String for each line like {@link java.io.BufferedReader#readLine()}.
+ *
+ * Lines end with '\n', '\r' or "\r\n". A line is only valid until the next call to
+ * {@link #next(FieldCursor)}, which may overwrite the buffer.
+ */
+public class LineReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader _reader;
+    private char[] _buffer = new char[BUFFER_SIZE];
+    private int _start; // start of the next line
+    private int _limit; // end of the characters read
+    private boolean _eof;
+
+    /**
+     * @param reader the reader of the text
+     */
+    public LineReader(Reader reader) {
+        _reader = reader;
+    }
+
+    /**
+     * Moves a cursor to the next line.
+     *
+     * @param cursor the cursor
+     * @return false if there are no more lines
+     * @throws IOException if the text cannot be read
+     */
+    public boolean next(FieldCursor cursor) throws IOException {
+        int scan = _start;
+        while (true) {
+            for (; scan < _limit; scan++) {
+                char c = _buffer[scan];
+                if (c == '\n' || c == '\r') {
+                    if (c == '\r' && scan + 1 == _limit && !_eof) break; // a '\n' may follow
+                    cursor.reset(_buffer, _start, scan);
+                    _start = scan + 1;
+                    if (c == '\r' && _start < _limit && _buffer[_start] == '\n') _start++;
+                    return true;
+                }
+            }
+            if (_eof) {
+                if (_start == _limit) return false;
+                cursor.reset(_buffer, _start, _limit);
+                _start = _limit;
+                return true;
+            }
+            scan -= _start;
+            fill();
+        }
+    }
+
+    /**
+     * Moves the unread characters to the start of the buffer, growing it for long lines,
+     * and reads more after them.
+     */
+    private void fill() throws IOException {
+        int remaining = _limit - _start;
+        if (remaining == _buffer.length) {
+            _buffer = Arrays.copyOf(_buffer, 2 * _buffer.length);
+        } else {
+            System.arraycopy(_buffer, _start, _buffer, 0, remaining);
+        }
+        _start = 0;
+        _limit = remaining;
+        int read = _reader.read(_buffer, _limit, _buffer.length - _limit);
+        if (read < 0) {
+            _eof = true;
+        } else {
+            _limit += read;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        _reader.close();
+    }
+}
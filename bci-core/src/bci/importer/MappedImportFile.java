@@ -0,0 +1,139 @@
+package bci.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An import file in UTF-8, read by mapping it into memory instead of decoding it through a
+ * Reader. Lines are found by scanning the bytes for '\n', and their fields are read in place
+ * with a {@link FieldCursor}, which only decodes the fields that are kept.
+ *
+ * The file is split into {@link Region}s that end at line boundaries, each mapped on its own,
+ * so files larger than one mapping can be read, and regions can be parsed in parallel.
+ */
+public class MappedImportFile implements Closeable {
+
+    /** The largest region, which must fit in one mapping. */
+    public static final long MAX_REGION_SIZE = 1L << 30;
+
+    private static final int SCAN_SIZE = 1 << 16;
+
+    private final FileChannel _channel;
+    private final long _size;
+    private long _position; // start of the next region
+    private final ByteBuffer _scan = ByteBuffer.allocate(SCAN_SIZE);
+
+    /**
+     * @param filename the import file
+     * @throws IOException if the file cannot be opened
+     */
+    public MappedImportFile(String filename) throws IOException {
+        _channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ);
+        _size = _channel.size();
+    }
+
+    /**
+     * @return the size of the file, in bytes
+     */
+    public long size() {
+        return _size;
+    }
+
+    /**
+     * Splits off the next region of the file. The region has at least the given size, up to
+     * the end of the line where it falls, unless the file ends before.
+     *
+     * @param size the size of the region, at most {@link #MAX_REGION_SIZE}
+     * @return the region, or null at the end of the file
+     * @throws IOException if the file cannot be read, or a line is longer than a region
+     */
+    public synchronized Region nextRegion(long size) throws IOException {
+        if (_position >= _size) return null;
+        long start = _position;
+        long end = lineEnd(Math.min(start + Math.min(size, MAX_REGION_SIZE) - 1, _size));
+        if (end - start > MAX_REGION_SIZE) throw new IOException("Line longer than " + MAX_REGION_SIZE + " bytes at " + start);
+        _position = end;
+        return new Region(start, end);
+    }
+
+    /**
+     * @return the position after the first '\n' at or after a position, or the end of the file
+     */
+    private long lineEnd(long position) throws IOException {
+        while (position < _size) {
+            _scan.clear();
+            int read = _channel.read(_scan, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (_scan.get(i) == '\n') return position + i + 1;
+            }
+            position += read;
+        }
+        return _size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        _channel.close();
+    }
+
+    /**
+     * A part of the file made of whole lines, mapped when its first line is read.
+     * Each region is read by one thread.
+     */
+    public class Region {
+
+        private final long _start;
+        private final long _end;
+        private MappedByteBuffer _buffer;
+        private int _next; // start of the next line in the buffer
+
+        private Region(long start, long end) {
+            _start = start;
+            _end = end;
+        }
+
+        /**
+         * @return the position of the region in the file
+         */
+        public long start() {
+            return _start;
+        }
+
+        /**
+         * @return the position after the region in the file
+         */
+        public long end() {
+            return _end;
+        }
+
+        /**
+         * Moves a cursor to the next line of the region. Lines end with '\n', '\r' or "\r\n",
+         * as for {@link java.io.BufferedReader#readLine()}.
+         *
+         * @param cursor the cursor
+         * @return false if there are no more lines
+         * @throws IOException if the region cannot be mapped
+         */
+        public boolean next(FieldCursor cursor) throws IOException {
+            if (_buffer == null) _buffer = _channel.map(FileChannel.MapMode.READ_ONLY, _start, _end - _start);
+            int limit = _buffer.limit();
+            if (_next >= limit) return false;
+            int i = _next;
+            while (i < limit) {
+                byte b = _buffer.get(i);
+                if (b == '\n' || b == '\r') break;
+                i++;
+            }
+            cursor.reset(_buffer, _next, i);
+            if (i < limit && _buffer.get(i) == '\r' && i + 1 < limit && _buffer.get(i + 1) == '\n') i++;
+            _next = i + 1;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package bci.importer;
+
+import bci.exceptions.UserRegistrationFailedException;
+
+/**
+ * A USER line: name and email.
+ */
+public class UserEntry extends ImportEntry {
+
+    private final String _name;
+    private final String _email;
+
+    UserEntry(String name, String email) {
+        _name = name;
+        _email = email;
+    }
+
+    /**
+     * Validates the fields of a user line before it reaches the library.
+     */
+    static ImportEntry of(String name, String email, FieldCursor line) {
+        if (name.isBlank() || email.isBlank()) {
+            return new FailedEntry(new UserRegistrationFailedException(name, email), line.line());
+        }
+        return new UserEntry(name, email);
+    }
+
+    public String getName() {
+        return _name;
+    }
+
+    public String getEmail() {
+        return _email;
+    }
+
+    @Override
+    void stage(ImportStaging staging, long lineNumber) {
+        staging.addUser(this);
+    }
+}
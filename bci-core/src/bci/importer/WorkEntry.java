@@ -0,0 +1,89 @@
+package bci.importer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A BOOK or DVD line: type, title, creators, price, category, ISBN/IGAC and quantity.
+ */
+public class WorkEntry extends ImportEntry {
+
+    private final String _workType;
+    private final String _title;
+    private final List<String> _creatorNames = new ArrayList<>();
+    private final int _price;
+    private final String _categoryName;
+    private final String _additionalInfo;
+    private final int _quantity;
+
+    private static final String[] WORK_TYPES = {"BOOK", "DVD"};
+    private static final String[] CATEGORY_NAMES = {"FICTION", "SCITECH", "REFERENCE"};
+
+    /**
+     * @param fields a cursor at the type field of the line
+     */
+    WorkEntry(FieldCursor fields) {
+        _workType = fields.canonical(WORK_TYPES);
+        _title = fields.next().toString();
+        FieldCursor creators = fields.next().subfields(',');
+        while (creators.hasNext()) {
+            _creatorNames.add(creators.next().trim().toString());
+        }
+        _price = fields.next().intValue();
+        _categoryName = fields.next().canonical(CATEGORY_NAMES);
+        _additionalInfo = fields.next().toString();
+        _quantity = fields.next().intValue();
+    }
+
+    public String getWorkType() {
+        return _workType;
+    }
+
+    public String getTitle() {
+        return _title;
+    }
+
+    /**
+     * @return the names of the creators, trimmed
+     */
+    public List<String> getCreatorNames() {
+        return Collections.unmodifiableList(_creatorNames);
+    }
+
+    public int getPrice() {
+        return _price;
+    }
+
+    public String getCategoryName() {
+        return _categoryName;
+    }
+
+    public String getAdditionalInfo() {
+        return _additionalInfo;
+    }
+
+    public int getQuantity() {
+        return _quantity;
+    }
+
+    /**
+     * Replaces the creator names by the equal names already seen in the import, so that each
+     * name is kept once.
+     *
+     * @param names the names seen, by themselves
+     */
+    void shareCreatorNames(Map<String, String> names) {
+        for (int i = 0; i < _creatorNames.size(); i++) {
+            String name = _creatorNames.get(i);
+            String shared = names.putIfAbsent(name, name);
+            if (shared != null) _creatorNames.set(i, shared);
+        }
+    }
+
+    @Override
+    void stage(ImportStaging staging, long lineNumber) {
+        staging.addWork(this);
+    }
+}
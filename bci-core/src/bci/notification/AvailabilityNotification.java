@@ -14,7 +14,17 @@ public class AvailabilityNotification extends Notification {
         super(timestamp);
         _onTimeNotification = work.toString();
     }
+
+    public AvailabilityNotification(int timestamp, String workDescription) {
+        super(timestamp);
+        _onTimeNotification = workDescription;
+    }
     
+    @Override
+    public String getWorkDescription() {
+        return _onTimeNotification;
+    }
+
     @Override
     public String getNotificationMessage() {
         return "DISPONIBILIDADE: " + _onTimeNotification;
@@ -14,7 +14,17 @@ public class BorrowingNotification extends Notification {
         super(timestamp);
         _onTimeNotification = work.toString();
     }
+
+    public BorrowingNotification(int timestamp, String workDescription) {
+        super(timestamp);
+        _onTimeNotification = workDescription;
+    }
     
+    @Override
+    public String getWorkDescription() {
+        return _onTimeNotification;
+    }
+
     @Override
     public String getNotificationMessage() {
         return "REQUISIÇÃO: " + _onTimeNotification;
@@ -19,4 +19,6 @@ public abstract class Notification implements Serializable {
     }
     
     public abstract String getNotificationMessage();
+
+    public abstract String getWorkDescription();
 }
\ No newline at end of file
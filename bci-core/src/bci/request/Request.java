@@ -35,6 +35,14 @@ public class Request implements Serializable {
         this._requestLimit = requestDate + calculateRequestDuration();
         this._devolutionDate = 0; 
     }
+
+    public Request(User user, Work work, int requestDate, int requestLimit) {
+        this._user = user;
+        this._work = work;
+        this._requestDate = requestDate;
+        this._requestLimit = requestLimit;
+        this._devolutionDate = 0;
+    }
     
     public int calculateRequestDuration() {
         int totalCopies = _work.getTotalCopies();
@@ -0,0 +1,90 @@
+package bci.search;
+
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import bci.work.Work;
+
+/**
+ * A query for the works that match all of its queries. Once planned, the most selective
+ * queries are checked first, so most works fail on the first check.
+ */
+class AndQuery extends CompositeQuery {
+
+    AndQuery(List<Query> queries) {
+        super(queries);
+    }
+
+    @Override
+    CompositeQuery with(List<Query> queries) {
+        return new AndQuery(queries);
+    }
+
+    @Override
+    Comparator<Double> checkOrder() {
+        return Comparator.naturalOrder();
+    }
+
+    @Override
+    public boolean matches(Work work) {
+        for (Query query : queries()) {
+            if (!query.matches(work)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Estimates the matches as if the queries were independent.
+     */
+    @Override
+    public double estimate(SearchIndex index) {
+        double estimate = index.size();
+        if (estimate == 0) return 0;
+        for (Query query : queries()) {
+            estimate *= query.estimate(index) / index.size();
+        }
+        return estimate;
+    }
+
+    /**
+     * The works that match all the queries are among the candidates of any of them. The facets
+     * of the queries are exact, and cheap to intersect, so all of them are; of the other queries,
+     * only the first (once planned, the most selective) that has candidates is looked up, and
+     * only if no facet is more selective than it.
+     */
+    @Override
+    public BitSet candidates(SearchIndex index, IntFunction<Work> works) {
+        WorkBitmap facets = null;
+        BitSet ids = null;
+        for (Query query : queries()) {
+            WorkBitmap facet = query.facet(index);
+            if (facet != null) {
+                facets = facets == null ? facet : facets.and(facet);
+            } else if (ids == null && facets == null) {
+                ids = query.candidates(index, works);
+            }
+        }
+        if (facets == null) return ids;
+        if (ids == null) return facets.toBitSet();
+        facets.retainIn(ids);
+        return ids;
+    }
+
+    @Override
+    WorkBitmap facet(SearchIndex index) {
+        WorkBitmap facets = null;
+        for (Query query : queries()) {
+            WorkBitmap facet = query.facet(index);
+            if (facet == null) return null;
+            facets = facets == null ? facet : facets.and(facet);
+        }
+        return facets;
+    }
+
+    @Override
+    public String toString() {
+        return toString("AND");
+    }
+}
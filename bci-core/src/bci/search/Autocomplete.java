@@ -0,0 +1,205 @@
+package bci.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import bci.creator.Creator;
+import bci.work.Work;
+import bci.work.workType.Book;
+
+/**
+ * Type-ahead suggestions of titles and creator names, ranked by how often they were borrowed.
+ *
+ * Each suggestion is stored in a trie under its {@link SearchKey} from the start of each of
+ * its words, so "sara" completes "José Saramago". Every node keeps its best
+ * {@value #MAX_SUGGESTIONS} suggestions, so completing a prefix walks the prefix and copies the
+ * list of its node, however many suggestions it has. Popularity only grows, so a borrow only has
+ * to move its suggestions up the lists of the nodes on their paths.
+ */
+public class Autocomplete {
+
+    /** The most suggestions given for a prefix. */
+    public static final int MAX_SUGGESTIONS = 8;
+
+    private static final Comparator<Suggestion> RANKING = Comparator
+            .comparingLong((Suggestion suggestion) -> -suggestion._popularity)
+            .thenComparing(suggestion -> suggestion._key)
+            .thenComparing(suggestion -> suggestion._text);
+
+    private final Node _root = new Node();
+    private final Map<String, Suggestion> _titles = new HashMap<>();
+    private final Map<String, Suggestion> _creators = new HashMap<>();
+
+    /**
+     * Adds the title and creators of a work, if they are not suggested yet.
+     *
+     * @param work the work
+     */
+    public void add(Work work) {
+        suggestion(_titles, work.getTitle());
+        forEachCreator(work, creator -> suggestion(_creators, creator.getName()));
+    }
+
+    /**
+     * Adds the name of a creator, if it is not suggested yet.
+     *
+     * @param creator the creator
+     */
+    public void add(Creator creator) {
+        suggestion(_creators, creator.getName());
+    }
+
+    /**
+     * Counts a borrow of a work for its title and creators.
+     *
+     * @param work the work borrowed
+     */
+    public void borrowed(Work work) {
+        promote(suggestion(_titles, work.getTitle()));
+        forEachCreator(work, creator -> promote(suggestion(_creators, creator.getName())));
+    }
+
+    /**
+     * Completes a prefix.
+     *
+     * @param prefix what was typed, ignoring case and accents
+     * @param limit the most suggestions to give, up to {@value #MAX_SUGGESTIONS}
+     * @return the titles and creator names with a word that starts with the prefix, most
+     *         borrowed first
+     */
+    public List<String> complete(String prefix, int limit) {
+        String key = SearchKey.of(prefix.strip());
+        List<String> completions = new ArrayList<>();
+        if (key.isEmpty()) return completions;
+        Node node = _root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node == null) return completions;
+        for (int i = 0; i < node._size && completions.size() < limit; i++) {
+            completions.add(node._top[i]._text);
+        }
+        return completions;
+    }
+
+    private Suggestion suggestion(Map<String, Suggestion> suggestions, String text) {
+        Suggestion suggestion = suggestions.get(text);
+        if (suggestion == null) {
+            suggestion = new Suggestion(text);
+            suggestions.put(text, suggestion);
+            insert(suggestion);
+        }
+        return suggestion;
+    }
+
+    private void insert(Suggestion suggestion) {
+        String key = suggestion._key;
+        for (int start = 0; start < key.length(); start++) {
+            if (start > 0 && Character.isLetterOrDigit(key.charAt(start - 1))) continue;
+            if (!Character.isLetterOrDigit(key.charAt(start))) continue;
+            Node node = _root;
+            for (int i = start; i < key.length(); i++) {
+                node = node.childOrNew(key.charAt(i));
+                node.offer(suggestion);
+            }
+        }
+    }
+
+    private void promote(Suggestion suggestion) {
+        suggestion._popularity++;
+        String key = suggestion._key;
+        for (int start = 0; start < key.length(); start++) {
+            if (start > 0 && Character.isLetterOrDigit(key.charAt(start - 1))) continue;
+            if (!Character.isLetterOrDigit(key.charAt(start))) continue;
+            Node node = _root;
+            for (int i = start; i < key.length(); i++) {
+                node = node.child(key.charAt(i));
+                node.offer(suggestion);
+            }
+        }
+    }
+
+    private static void forEachCreator(Work work, Consumer<Creator> consumer) {
+        if (work instanceof Book book) {
+            for (Creator author : book.getAuthor()) {
+                consumer.accept(author);
+            }
+        } else if (work.getCreator() != null) {
+            consumer.accept(work.getCreator());
+        }
+    }
+
+    /** A title or creator name, and how many times its works were borrowed. */
+    private static final class Suggestion {
+        private final String _text;
+        private final String _key;
+        private long _popularity;
+
+        Suggestion(String text) {
+            _text = text;
+            _key = SearchKey.of(text);
+        }
+    }
+
+    /** A prefix: its children, by their next character, and its best suggestions. */
+    private static final class Node {
+        private char[] _chars = new char[0];
+        private Node[] _children = new Node[0];
+        private Suggestion[] _top = new Suggestion[1];
+        private int _size;
+
+        Node child(char c) {
+            int at = Arrays.binarySearch(_chars, c);
+            return at >= 0 ? _children[at] : null;
+        }
+
+        Node childOrNew(char c) {
+            int at = Arrays.binarySearch(_chars, c);
+            if (at >= 0) return _children[at];
+            at = -at - 1;
+            Node child = new Node();
+            _chars = insert(_chars, at, c);
+            Node[] children = Arrays.copyOf(_children, _children.length + 1);
+            System.arraycopy(children, at, children, at + 1, children.length - at - 1);
+            children[at] = child;
+            _children = children;
+            return child;
+        }
+
+        /**
+         * Puts a suggestion in its place in the best suggestions, if it is one of them, after it
+         * was added or became more popular.
+         */
+        void offer(Suggestion suggestion) {
+            int at = 0;
+            while (at < _size && _top[at] != suggestion) at++;
+            if (at == _size) {
+                if (_size == MAX_SUGGESTIONS) {
+                    if (RANKING.compare(suggestion, _top[_size - 1]) >= 0) return;
+                    _size--;
+                }
+                if (_size == _top.length) _top = Arrays.copyOf(_top, Math.min(MAX_SUGGESTIONS, 2 * _size));
+                at = _size++;
+                _top[at] = suggestion;
+            }
+            while (at > 0 && RANKING.compare(_top[at], _top[at - 1]) < 0) {
+                Suggestion swap = _top[at - 1];
+                _top[at - 1] = _top[at];
+                _top[at] = swap;
+                at--;
+            }
+        }
+
+        private static char[] insert(char[] chars, int at, char c) {
+            char[] inserted = Arrays.copyOf(chars, chars.length + 1);
+            System.arraycopy(inserted, at, inserted, at + 1, inserted.length - at - 1);
+            inserted[at] = c;
+            return inserted;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package bci.search;
+
+import java.util.BitSet;
+import java.util.function.IntFunction;
+
+import bci.work.Work;
+
+/**
+ * A query for the works with copies available to borrow, a facet kept up to date with every
+ * request and return.
+ */
+class AvailabilityQuery extends Query {
+
+    @Override
+    public boolean matches(Work work) {
+        return work.getAvailableCopies() > 0;
+    }
+
+    @Override
+    public double estimate(SearchIndex index) {
+        return index.facets().available().cardinality();
+    }
+
+    @Override
+    public BitSet candidates(SearchIndex index, IntFunction<Work> works) {
+        return facet(index).toBitSet();
+    }
+
+    @Override
+    WorkBitmap facet(SearchIndex index) {
+        return index.facets().available();
+    }
+
+    @Override
+    public String toString() {
+        return "available";
+    }
+}
@@ -0,0 +1,123 @@
+package bci.search;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A BK-tree of words, to find the words within an edit (Levenshtein) distance of another.
+ *
+ * Each child of a node is at some distance from it; since the edit distance is a metric, the
+ * words within distance {@code k} of a query at distance {@code d} from a node can only be under
+ * its children at distances {@code d - k} to {@code d + k}, so for small {@code k} most of the
+ * tree is never visited. Words cannot be removed; callers skip the ones no longer in use.
+ */
+final class BKTree {
+
+    private Node _root;
+    private int _size;
+
+    /**
+     * Adds a word, if it is not in the tree yet.
+     *
+     * @param word the word
+     */
+    void add(String word) {
+        if (_root == null) {
+            _root = new Node(word);
+            _size++;
+            return;
+        }
+        Node node = _root;
+        while (true) {
+            int distance = distance(word, node._word);
+            if (distance == 0) return;
+            Node child = node.child(distance);
+            if (child == null) {
+                node.setChild(distance, new Node(word));
+                _size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Gives each word within a distance of another, with its distance, to a consumer.
+     *
+     * @param word the word to look for
+     * @param maxDistance the greatest distance
+     * @param consumer the consumer of the words found and their distances
+     */
+    void search(String word, int maxDistance, ObjIntConsumer<String> consumer) {
+        if (_root == null) return;
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(_root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = distance(word, node._word);
+            if (distance <= maxDistance) consumer.accept(node._word, distance);
+            int from = Math.max(1, distance - maxDistance);
+            int to = Math.min(node._children.length - 1, distance + maxDistance);
+            for (int d = from; d <= to; d++) {
+                if (node._children[d] != null) pending.push(node._children[d]);
+            }
+        }
+    }
+
+    /**
+     * @return the number of words in the tree
+     */
+    int size() {
+        return _size;
+    }
+
+    /**
+     * @return the Levenshtein distance between two words: the fewest characters to insert,
+     *         delete or replace to turn one into the other
+     */
+    static int distance(String a, String b) {
+        if (a.length() < b.length()) {
+            String swap = a;
+            a = b;
+            b = swap;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int replace = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(replace, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /** A word and its children, by their distance to it. */
+    private static final class Node {
+        private final String _word;
+        private Node[] _children = new Node[0];
+
+        Node(String word) {
+            _word = word;
+        }
+
+        Node child(int distance) {
+            return distance < _children.length ? _children[distance] : null;
+        }
+
+        void setChild(int distance, Node child) {
+            if (distance >= _children.length) _children = Arrays.copyOf(_children, distance + 1);
+            _children[distance] = child;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package bci.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A query that combines others. Planning a composite plans each of its queries and orders them
+ * by their estimated number of matches.
+ */
+abstract class CompositeQuery extends Query {
+
+    private final List<Query> _queries;
+
+    CompositeQuery(List<Query> queries) {
+        _queries = List.copyOf(queries);
+    }
+
+    List<Query> queries() {
+        return _queries;
+    }
+
+    /**
+     * Builds a composite of the same kind over other queries.
+     *
+     * @param queries the queries, in the order they are to be checked
+     * @return the new composite
+     */
+    abstract CompositeQuery with(List<Query> queries);
+
+    /**
+     * @return the order the queries are checked in, from their estimated number of matches
+     */
+    abstract Comparator<Double> checkOrder();
+
+    @Override
+    public Query plan(SearchIndex index) {
+        List<Query> planned = new ArrayList<>(_queries.size());
+        List<Double> estimates = new ArrayList<>(_queries.size());
+        for (Query query : _queries) {
+            Query plan = query.plan(index);
+            planned.add(plan);
+            estimates.add(plan.estimate(index));
+        }
+        List<Integer> order = new ArrayList<>(planned.size());
+        for (int i = 0; i < planned.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparing(estimates::get, checkOrder()));
+
+        List<Query> ordered = new ArrayList<>(planned.size());
+        for (int i : order) {
+            ordered.add(planned.get(i));
+        }
+        return with(ordered);
+    }
+
+    String toString(String operator) {
+        return _queries.stream().map(Query::toString).collect(Collectors.joining(" " + operator + " ", "(", ")"));
+    }
+}
@@ -0,0 +1,64 @@
+package bci.search;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The number of works of a search result in each facet: each category, each work type, and
+ * whether they have copies available to borrow.
+ */
+public class FacetCounts {
+
+    private final int _total;
+    private final Map<String, Integer> _categories;
+    private final Map<String, Integer> _workTypes;
+    private final int _available;
+
+    FacetCounts(int total, Map<String, Integer> categories, Map<String, Integer> workTypes, int available) {
+        _total = total;
+        _categories = Collections.unmodifiableMap(categories);
+        _workTypes = Collections.unmodifiableMap(workTypes);
+        _available = available;
+    }
+
+    /**
+     * @return the number of works of the result
+     */
+    public int getTotal() {
+        return _total;
+    }
+
+    /**
+     * @return the number of works of each category, by category name, for the categories
+     *         with works in the result
+     */
+    public Map<String, Integer> getCategories() {
+        return _categories;
+    }
+
+    /**
+     * @return the number of works of each type, by type, for the types with works in the result
+     */
+    public Map<String, Integer> getWorkTypes() {
+        return _workTypes;
+    }
+
+    /**
+     * @return the number of works with copies available to borrow
+     */
+    public int getAvailable() {
+        return _available;
+    }
+
+    /**
+     * @return the number of works with no copy available to borrow
+     */
+    public int getUnavailable() {
+        return _total - _available;
+    }
+
+    @Override
+    public String toString() {
+        return _total + " " + _categories + " " + _workTypes + " available " + _available;
+    }
+}
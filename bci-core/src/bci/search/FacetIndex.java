@@ -0,0 +1,126 @@
+package bci.search;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+import bci.work.Work;
+import bci.work.workCategory.Category;
+
+/**
+ * Facets of the works, as {@link WorkBitmap}s of their IDs: one for each category and each
+ * work type, one for the visible works (with copies in the library) and one for the works with
+ * copies available to borrow.
+ *
+ * Category and type never change; the two others are kept up to date by {@link #update(Work)},
+ * which the library calls whenever the copies of a work change. Filtering by facets, and
+ * combining them, is then an AND or OR of bitmaps, instead of a look at every work. The bitmaps
+ * returned are read-only views of the index: they must not be changed.
+ */
+public class FacetIndex {
+
+    private final Map<String, WorkBitmap> _categories = new TreeMap<>(); // by category name
+    private final Map<String, WorkBitmap> _workTypes = new TreeMap<>(); // by work type
+    private final WorkBitmap _visible = new WorkBitmap();
+    private final WorkBitmap _available = new WorkBitmap();
+
+    /**
+     * Adds a new work to the facets.
+     *
+     * @param work the work
+     */
+    public void add(Work work) {
+        int id = work.getIdWork();
+        _categories.computeIfAbsent(work.getCategoryName(), name -> new WorkBitmap()).add(id);
+        _workTypes.computeIfAbsent(work.getWorkType(), type -> new WorkBitmap()).add(id);
+        update(work);
+    }
+
+    /**
+     * Updates the facets that depend on the copies of a work.
+     *
+     * @param work the work, after its copies changed
+     */
+    public void update(Work work) {
+        _visible.set(work.getIdWork(), work.getTotalCopies() > 0);
+        _available.set(work.getIdWork(), work.getAvailableCopies() > 0);
+    }
+
+    /**
+     * @param term a term
+     * @return the works whose category name contains the term, ignoring case and accents
+     */
+    public WorkBitmap category(String term) {
+        return union(_categories, SearchKey.of(term));
+    }
+
+    /**
+     * @param category a category
+     * @return the works in the category (not to be changed)
+     */
+    public WorkBitmap category(Category category) {
+        WorkBitmap works = _categories.get(category.getName());
+        return works != null ? works : new WorkBitmap();
+    }
+
+    /**
+     * @param term a term
+     * @return the works whose type contains the term, ignoring case and accents
+     */
+    public WorkBitmap workType(String term) {
+        return union(_workTypes, SearchKey.of(term));
+    }
+
+    /**
+     * @return the works that have copies in the library (the ones that are listed)
+     */
+    public WorkBitmap visible() {
+        return _visible;
+    }
+
+    /**
+     * @return the works that have copies available to borrow
+     */
+    public WorkBitmap available() {
+        return _available;
+    }
+
+    /**
+     * Counts the works of a result in each facet, from the cardinalities of the intersections
+     * of the result with the facets, without looking at any work.
+     *
+     * @param ids the IDs of the works of the result
+     * @return the number of works of the result in each facet
+     */
+    public FacetCounts count(BitSet ids) {
+        return count(WorkBitmap.of(ids));
+    }
+
+    /**
+     * Counts the works of a result in each facet.
+     *
+     * @param result the works of the result
+     * @return the number of works of the result in each facet
+     */
+    public FacetCounts count(WorkBitmap result) {
+        return new FacetCounts(result.cardinality(), count(result, _categories), count(result, _workTypes),
+                               result.andCardinality(_available));
+    }
+
+    private static Map<String, Integer> count(WorkBitmap result, Map<String, WorkBitmap> facets) {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Map.Entry<String, WorkBitmap> entry : facets.entrySet()) {
+            int count = result.andCardinality(entry.getValue());
+            if (count > 0) counts.put(entry.getKey(), count);
+        }
+        return counts;
+    }
+
+    private static WorkBitmap union(Map<String, WorkBitmap> facets, String key) {
+        WorkBitmap union = new WorkBitmap();
+        for (Map.Entry<String, WorkBitmap> entry : facets.entrySet()) {
+            if (SearchKey.of(entry.getKey()).contains(key)) union = union.or(entry.getValue());
+        }
+        return union;
+    }
+}
@@ -0,0 +1,81 @@
+package bci.search;
+
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import bci.work.Work;
+
+/**
+ * A query for the works that match any of its queries. Once planned, the queries most likely
+ * to match are checked first, so most matching works pass on the first check.
+ */
+class OrQuery extends CompositeQuery {
+
+    OrQuery(List<Query> queries) {
+        super(queries);
+    }
+
+    @Override
+    CompositeQuery with(List<Query> queries) {
+        return new OrQuery(queries);
+    }
+
+    @Override
+    Comparator<Double> checkOrder() {
+        return Comparator.reverseOrder();
+    }
+
+    @Override
+    public boolean matches(Work work) {
+        for (Query query : queries()) {
+            if (query.matches(work)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Estimates the matches as if the queries were independent.
+     */
+    @Override
+    public double estimate(SearchIndex index) {
+        if (index.size() == 0) return 0;
+        double missed = 1;
+        for (Query query : queries()) {
+            missed *= 1 - query.estimate(index) / index.size();
+        }
+        return index.size() * (1 - missed);
+    }
+
+    /**
+     * The works that match any of the queries are the candidates of all of them, joined;
+     * if one of the queries has no candidates from the indexes, every work must be checked.
+     */
+    @Override
+    public BitSet candidates(SearchIndex index, IntFunction<Work> works) {
+        BitSet ids = new BitSet();
+        for (Query query : queries()) {
+            BitSet candidates = query.candidates(index, works);
+            if (candidates == null) return null;
+            ids.or(candidates);
+        }
+        return ids;
+    }
+
+    @Override
+    WorkBitmap facet(SearchIndex index) {
+        WorkBitmap facets = new WorkBitmap();
+        for (Query query : queries()) {
+            WorkBitmap facet = query.facet(index);
+            if (facet == null) return null;
+            facets = facets.or(facet);
+        }
+        return facets;
+    }
+
+    @Override
+    public String toString() {
+        return toString("OR");
+    }
+}
@@ -0,0 +1,122 @@
+package bci.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+
+import bci.work.Work;
+
+/**
+ * Runs a {@link Search} strategy over the catalog in parallel, with fork/join.
+ *
+ * The works, in ID order, are split into shards of a fixed size; each shard is searched, and
+ * filtered, on its own, and the results of the shards are joined in shard order, so they stay
+ * in ID order without being sorted. Catalogs of one shard or less are searched sequentially.
+ */
+public class ParallelSearch {
+
+    /** Works in a shard. */
+    public static final int DEFAULT_SHARD_SIZE = 4096;
+
+    private final ForkJoinPool _pool;
+    private final int _shardSize;
+
+    /**
+     * Searches in the common fork/join pool.
+     */
+    public ParallelSearch() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SHARD_SIZE);
+    }
+
+    /**
+     * @param pool the pool that searches the shards
+     * @param shardSize the number of works in a shard
+     */
+    public ParallelSearch(ForkJoinPool pool, int shardSize) {
+        _pool = pool;
+        _shardSize = Math.max(1, shardSize);
+    }
+
+    /**
+     * Finds the works that match a term and a filter.
+     *
+     * @param strategy the search strategy
+     * @param term the search term
+     * @param works the works to search, in ID order, with random access
+     * @param filter the condition the results must also meet
+     * @return the works found, in ID order
+     */
+    public List<Work> search(Search strategy, String term, List<Work> works, Predicate<? super Work> filter) {
+        int shards = (works.size() + _shardSize - 1) / _shardSize;
+        if (shards <= 1) {
+            return searchShard(strategy, term, works, filter);
+        }
+
+        // one slot per shard, each set by the task of its shard
+        List<List<Work>> results = new ArrayList<>(Collections.nCopies(shards, null));
+        _pool.invoke(new ShardSearch(strategy, term, works, filter, results, 0, shards));
+
+        int size = 0;
+        for (List<Work> result : results) {
+            size += result.size();
+        }
+        List<Work> found = new ArrayList<>(size);
+        for (List<Work> result : results) {
+            found.addAll(result);
+        }
+        return found;
+    }
+
+    private static List<Work> searchShard(Search strategy, String term, List<Work> works,
+                                          Predicate<? super Work> filter) {
+        List<Work> found = new ArrayList<>();
+        for (Work work : strategy.search(term, works)) {
+            if (filter.test(work)) found.add(work);
+        }
+        return found;
+    }
+
+    /**
+     * Searches a range of shards, splitting it in half until there is one shard.
+     */
+    private class ShardSearch extends RecursiveAction {
+
+        @java.io.Serial
+        private static final long serialVersionUID = 202507171003L;
+
+        private final Search _strategy;
+        private final String _term;
+        private final List<Work> _works;
+        private final Predicate<? super Work> _filter;
+        private final List<List<Work>> _results;
+        private final int _from;
+        private final int _to;
+
+        ShardSearch(Search strategy, String term, List<Work> works, Predicate<? super Work> filter,
+                    List<List<Work>> results, int from, int to) {
+            _strategy = strategy;
+            _term = term;
+            _works = works;
+            _filter = filter;
+            _results = results;
+            _from = from;
+            _to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (_to - _from == 1) {
+                int start = _from * _shardSize;
+                int end = Math.min(start + _shardSize, _works.size());
+                _results.set(_from, searchShard(_strategy, _term, _works.subList(start, end), _filter));
+                return;
+            }
+            int middle = (_from + _to) >>> 1;
+            invokeAll(new ShardSearch(_strategy, _term, _works, _filter, _results, _from, middle),
+                      new ShardSearch(_strategy, _term, _works, _filter, _results, middle, _to));
+        }
+    }
+}
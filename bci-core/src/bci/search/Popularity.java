@@ -0,0 +1,31 @@
+package bci.search;
+
+import java.util.Arrays;
+
+/**
+ * How many times each work was borrowed, by work ID.
+ */
+public class Popularity {
+
+    private int[] _borrows = new int[16];
+
+    /**
+     * Counts a borrow of a work.
+     *
+     * @param workId the ID of the work
+     */
+    public void borrowed(int workId) {
+        if (workId >= _borrows.length) {
+            _borrows = Arrays.copyOf(_borrows, Math.max(workId + 1, 2 * _borrows.length));
+        }
+        _borrows[workId]++;
+    }
+
+    /**
+     * @param workId the ID of a work
+     * @return the number of times the work was borrowed
+     */
+    public int get(int workId) {
+        return workId >= 0 && workId < _borrows.length ? _borrows[workId] : 0;
+    }
+}
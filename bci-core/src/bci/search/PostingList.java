@@ -0,0 +1,82 @@
+package bci.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * The IDs of the works that have a key in an index, in increasing order.
+ */
+class PostingList {
+
+    private int[] _ids = new int[2];
+    private int _size;
+
+    void add(int id) {
+        if (_size > 0 && _ids[_size - 1] >= id) {
+            int at = Arrays.binarySearch(_ids, 0, _size, id);
+            if (at >= 0) return;
+            insert(-at - 1, id);
+            return;
+        }
+        insert(_size, id);
+    }
+
+    private void insert(int at, int id) {
+        if (_size == _ids.length) _ids = Arrays.copyOf(_ids, 2 * _size);
+        System.arraycopy(_ids, at, _ids, at + 1, _size - at);
+        _ids[at] = id;
+        _size++;
+    }
+
+    void remove(int id) {
+        int at = Arrays.binarySearch(_ids, 0, _size, id);
+        if (at < 0) return;
+        System.arraycopy(_ids, at + 1, _ids, at, _size - at - 1);
+        _size--;
+    }
+
+    int size() {
+        return _size;
+    }
+
+    boolean isEmpty() {
+        return _size == 0;
+    }
+
+    void addTo(BitSet ids) {
+        for (int i = 0; i < _size; i++) {
+            ids.set(_ids[i]);
+        }
+    }
+
+    void forEach(IntConsumer consumer) {
+        for (int i = 0; i < _size; i++) {
+            consumer.accept(_ids[i]);
+        }
+    }
+
+    /**
+     * @return a copy of the IDs
+     */
+    int[] toArray() {
+        return Arrays.copyOf(_ids, _size);
+    }
+
+    /**
+     * Keeps, of some sorted IDs, those that are also in this list.
+     *
+     * @param ids sorted IDs
+     * @param count the number of IDs
+     * @return the number of IDs kept, at the start of the array
+     */
+    int retain(int[] ids, int count) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < _size; i++) {
+            while (j < _size && _ids[j] < ids[i]) j++;
+            if (j < _size && _ids[j] == ids[i]) ids[kept++] = ids[i];
+        }
+        return kept;
+    }
+}
@@ -0,0 +1,56 @@
+package bci.search;
+
+import java.util.BitSet;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import bci.work.Work;
+
+/**
+ * Index of the works by price, which never changes. Prices are kept in order, so a range of
+ * prices is a range of postings, and the sizes of the postings are the exact number of works
+ * in the range, which the query planner uses as the selectivity of a price range.
+ */
+class PriceIndex {
+
+    private final NavigableMap<Integer, PostingList> _prices = new TreeMap<>();
+
+    void add(Work work) {
+        _prices.computeIfAbsent(work.getPrice(), price -> new PostingList()).add(work.getIdWork());
+    }
+
+    void remove(Work work) {
+        PostingList postings = _prices.get(work.getPrice());
+        if (postings == null) return;
+        postings.remove(work.getIdWork());
+        if (postings.isEmpty()) _prices.remove(work.getPrice());
+    }
+
+    /**
+     * @param min the lowest price
+     * @param max the highest price
+     * @return the IDs of the works with a price in the range
+     */
+    BitSet search(int min, int max) {
+        BitSet ids = new BitSet();
+        if (min > max) return ids;
+        for (PostingList postings : _prices.subMap(min, true, max, true).values()) {
+            postings.addTo(ids);
+        }
+        return ids;
+    }
+
+    /**
+     * @param min the lowest price
+     * @param max the highest price
+     * @return the number of works with a price in the range
+     */
+    int count(int min, int max) {
+        if (min > max) return 0;
+        int count = 0;
+        for (PostingList postings : _prices.subMap(min, true, max, true).values()) {
+            count += postings.size();
+        }
+        return count;
+    }
+}
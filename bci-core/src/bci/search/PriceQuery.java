@@ -0,0 +1,40 @@
+package bci.search;
+
+import java.util.BitSet;
+import java.util.function.IntFunction;
+
+import bci.work.Work;
+
+/**
+ * A query for the works with a price in a range.
+ */
+class PriceQuery extends Query {
+
+    private final int _min;
+    private final int _max;
+
+    PriceQuery(int min, int max) {
+        _min = min;
+        _max = max;
+    }
+
+    @Override
+    public boolean matches(Work work) {
+        return work.getPrice() >= _min && work.getPrice() <= _max;
+    }
+
+    @Override
+    public double estimate(SearchIndex index) {
+        return index.prices().count(_min, _max);
+    }
+
+    @Override
+    public BitSet candidates(SearchIndex index, IntFunction<Work> works) {
+        return index.prices().search(_min, _max);
+    }
+
+    @Override
+    public String toString() {
+        return "price in [" + _min + ", " + _max + "]";
+    }
+}
@@ -0,0 +1,148 @@
+package bci.search;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import bci.work.Work;
+
+/**
+ * A catalog query: predicates on the title, creators, category, type, price and availability
+ * of the works, combined with AND and OR.
+ *
+ * Before it is run, a query is planned against the {@link SearchIndex}: the number of works each
+ * predicate may match is estimated from the indexes, and the predicates of each AND are ordered
+ * from the most selective to the least (those of each OR, from the most likely to match). The
+ * works to check are then taken from the index of the most selective predicate that has one,
+ * narrowed by the facets ({@link FacetIndex}) the query requires, and only they are checked,
+ * against the predicates in that order.
+ */
+public abstract class Query {
+
+    Query() {
+    }
+
+    /**
+     * @param term a term
+     * @return a query for the works whose title contains the term, ignoring case and accents
+     */
+    public static Query title(String term) {
+        return new TermQuery(TermQuery.Field.TITLE, term);
+    }
+
+    /**
+     * @param term a term
+     * @return a query for the works with a creator whose name contains the term
+     */
+    public static Query creator(String term) {
+        return new TermQuery(TermQuery.Field.CREATOR, term);
+    }
+
+    /**
+     * @param term a term
+     * @return a query for the works whose title or creator names contain the term
+     */
+    public static Query titleOrCreator(String term) {
+        return new TermQuery(TermQuery.Field.TITLE_OR_CREATOR, term);
+    }
+
+    /**
+     * @param term a term
+     * @return a query for the works that have every word of the term as a whole word of their
+     *         title or creator names
+     */
+    public static Query words(String term) {
+        return new TermQuery(TermQuery.Field.WORDS, term);
+    }
+
+    /**
+     * @param term a term
+     * @return a query for the works whose category name contains the term
+     */
+    public static Query category(String term) {
+        return new TermQuery(TermQuery.Field.CATEGORY, term);
+    }
+
+    /**
+     * @param term a term
+     * @return a query for the works whose type contains the term
+     */
+    public static Query workType(String term) {
+        return new TermQuery(TermQuery.Field.WORK_TYPE, term);
+    }
+
+    /**
+     * @param min the lowest price
+     * @param max the highest price
+     * @return a query for the works with a price in the range, inclusive
+     */
+    public static Query priceBetween(int min, int max) {
+        return new PriceQuery(min, max);
+    }
+
+    /**
+     * @return a query for the works with copies available to borrow
+     */
+    public static Query available() {
+        return new AvailabilityQuery();
+    }
+
+    /**
+     * @param queries the queries
+     * @return a query for the works that match all of the queries
+     */
+    public static Query and(Query... queries) {
+        return new AndQuery(List.of(queries));
+    }
+
+    /**
+     * @param queries the queries
+     * @return a query for the works that match any of the queries
+     */
+    public static Query or(Query... queries) {
+        return new OrQuery(List.of(queries));
+    }
+
+    /**
+     * @param work a work
+     * @return whether the work matches the query
+     */
+    public abstract boolean matches(Work work);
+
+    /**
+     * Estimates the number of works that match the query.
+     *
+     * @param index the indexes of the works
+     * @return the estimated number of works, at most the number indexed
+     */
+    public abstract double estimate(SearchIndex index);
+
+    /**
+     * Returns the IDs of the works that may match the query, from the indexes.
+     *
+     * @param index the indexes of the works
+     * @param works the works, by ID
+     * @return the IDs of all the works that may match, or null if every work must be checked
+     */
+    public abstract BitSet candidates(SearchIndex index, IntFunction<Work> works);
+
+    /**
+     * Returns the works that match the query, if the query is on facets only.
+     *
+     * @param index the indexes of the works
+     * @return the exact set of works that match, or null if the query is not on facets
+     */
+    WorkBitmap facet(SearchIndex index) {
+        return null;
+    }
+
+    /**
+     * Plans the query: orders its predicates by their estimated selectivity.
+     *
+     * @param index the indexes of the works
+     * @return the planned query, which matches the same works
+     */
+    public Query plan(SearchIndex index) {
+        return this;
+    }
+}
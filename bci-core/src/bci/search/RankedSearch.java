@@ -0,0 +1,118 @@
+package bci.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import bci.creator.Creator;
+import bci.work.Work;
+import bci.work.workType.Book;
+
+/**
+ * Ranks the works found by a search by relevance to the term, keeping only the best.
+ *
+ * A match in the title scores above a match in a creator name; a text that starts with the
+ * term, above one where a word starts with it, above one that only contains it; and works
+ * borrowed more often score higher. Works are scored as they are found and only the best
+ * {@code k} are kept, in a bounded heap ({@link TopK}), so a broad term costs O(n log k) and
+ * only the {@code k} works returned are ever rendered.
+ */
+public final class RankedSearch {
+
+    private static final double TITLE = 100;
+    private static final double CREATOR = 50;
+    private static final double STARTS = 40;
+    private static final double WORD_STARTS = 20;
+    private static final double POPULARITY = 10;
+
+    private static final Comparator<Scored> RANKING = Comparator
+            .comparingDouble((Scored scored) -> -scored._score)
+            .thenComparingInt(scored -> scored._work.getIdWork());
+
+    private RankedSearch() {
+    }
+
+    /**
+     * @param ids the IDs of the works found
+     * @param works the works, by ID
+     * @param term the search term
+     * @param popularity how many times each work was borrowed
+     * @param k the number of works to keep
+     * @return the {@code k} most relevant works, most relevant first, then by ID
+     */
+    public static List<Work> top(BitSet ids, IntFunction<Work> works, String term, Popularity popularity, int k) {
+        String key = SearchKey.of(term);
+        Iterable<Scored> scored = () -> new Iterator<>() {
+            private int _next = ids.nextSetBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return _next >= 0;
+            }
+
+            @Override
+            public Scored next() {
+                Work work = works.apply(_next);
+                Scored result = new Scored(work, score(work, key, popularity.get(_next)));
+                _next = ids.nextSetBit(_next + 1);
+                return result;
+            }
+        };
+        List<Work> top = new ArrayList<>();
+        for (Scored best : TopK.smallest(scored, k, RANKING)) {
+            top.add(best._work);
+        }
+        return top;
+    }
+
+    /**
+     * @param work a work found
+     * @param key the key of the search term
+     * @param borrows the number of times the work was borrowed
+     * @return the relevance of the work to the term
+     */
+    static double score(Work work, String key, int borrows) {
+        double score = Math.max(TITLE + position(work.getSearchKey(), key), creatorScore(work, key));
+        return score + POPULARITY * Math.log1p(borrows);
+    }
+
+    private static double creatorScore(Work work, String key) {
+        double best = Double.NEGATIVE_INFINITY;
+        if (work instanceof Book book) {
+            for (Creator author : book.getAuthor()) {
+                best = Math.max(best, CREATOR + position(author.getSearchKey(), key));
+            }
+        } else if (work.getCreator() != null) {
+            best = CREATOR + position(work.getCreator().getSearchKey(), key);
+        }
+        return best;
+    }
+
+    /**
+     * @return the bonus for where a text contains the term, or minus infinity if it does not
+     */
+    private static double position(String text, String key) {
+        int at = text.indexOf(key);
+        if (at < 0) return Double.NEGATIVE_INFINITY;
+        if (at == 0) return STARTS;
+        while (at > 0) {
+            if (!Character.isLetterOrDigit(text.charAt(at - 1))) return WORD_STARTS;
+            at = text.indexOf(key, at + 1);
+        }
+        return 0;
+    }
+
+    /** A work and its score. */
+    private static final class Scored {
+        private final Work _work;
+        private final double _score;
+
+        Scored(Work work, double score) {
+            _work = work;
+            _score = score;
+        }
+    }
+}
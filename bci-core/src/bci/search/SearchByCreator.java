@@ -12,18 +12,19 @@ public class SearchByCreator implements Search {
     @Override
     public List<Work> search(String term, List<Work> works) {
         List<Work> results = new ArrayList<>();
+        String key = SearchKey.of(term);
         
         for (Work work : works) {
             if (work instanceof Book) {
                 Book book = (Book) work;
                 for (Creator author : book.getAuthor()) {
-                    if (author.getName().toLowerCase().contains(term.toLowerCase())) {
+                    if (author.getSearchKey().contains(key)) {
                         results.add(work);
                         break;
                     }
                 }
             } else {
-                if (work.getCreator().getName().toLowerCase().contains(term.toLowerCase())) {
+                if (work.getCreator().getSearchKey().contains(key)) {
                     results.add(work);
                 }
             }
@@ -10,9 +10,10 @@ public class SearchByTitle implements Search {
     @Override
     public List<Work> search(String term, List<Work> works) {
         List<Work> results = new ArrayList<>();
+        String key = SearchKey.of(term);
         
         for (Work work : works) {
-            if (work.getTitle().toLowerCase().contains(term.toLowerCase())) {
+            if (work.getSearchKey().contains(key)) {
                 results.add(work);
             }
         }
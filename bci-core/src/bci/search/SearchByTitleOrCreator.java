@@ -5,18 +5,19 @@ import java.util.ArrayList;
 
 import bci.work.Work;
 
-public class SearchByCategory implements Search {
+public class SearchByTitleOrCreator implements Search {
     
     @Override
     public List<Work> search(String term, List<Work> works) {
         List<Work> results = new ArrayList<>();
+        String key = SearchKey.of(term);
         
         for (Work work : works) {
-            if (work.getCategory().getName().toLowerCase().contains(term.toLowerCase())) {
+            if (WorkText.contains(work, key)) {
                 results.add(work);
             }
         }
         
         return results;
     }
-}
\ No newline at end of file
+}
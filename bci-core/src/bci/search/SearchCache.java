@@ -0,0 +1,181 @@
+package bci.search;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import bci.work.Work;
+
+/**
+ * Cache of the results of the general search, as the IDs of the works found, as they are shown
+ * and as their {@link FacetCounts}, by the {@link SearchKey} of the term, with
+ * least-recently-used eviction. The IDs are kept so that the pages of a result are taken from
+ * one search, however many of them are read.
+ *
+ * A result only shows works whose title or creator names contain its term, so when a work
+ * changes only the results whose key occurs in its texts are invalidated; every other result
+ * stays valid. The cache is not thread-safe: the library uses it while holding its lock.
+ */
+public class SearchCache {
+
+    /** Results kept by default. */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final Map<String, Entry> _results;
+    private long _hits;
+    private long _misses;
+    private long _invalidations;
+
+    /**
+     * Keeps up to {@link #DEFAULT_CAPACITY} results.
+     */
+    public SearchCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the number of results kept
+     */
+    public SearchCache(int capacity) {
+        int limit = Math.max(1, capacity);
+        _results = new LinkedHashMap<>(16, 0.75f, true) {
+            @java.io.Serial
+            private static final long serialVersionUID = 202507171003L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > limit;
+            }
+        };
+    }
+
+    /**
+     * @param term the search term
+     * @return the cached result of the term, or null if it is not cached
+     */
+    public List<String> get(String term) {
+        Entry entry = _results.get(SearchKey.of(term));
+        if (entry == null) {
+            _misses++;
+            return null;
+        }
+        if (entry._lines != null) _hits++;
+        return entry._lines;
+    }
+
+    /**
+     * @param term the search term
+     * @return the IDs of the works found for the term (not to be changed), or null if they are
+     *         not cached
+     */
+    public BitSet getIds(String term) {
+        Entry entry = _results.get(SearchKey.of(term));
+        if (entry == null || entry._ids == null) return null;
+        if (entry._lines == null) _hits++;
+        return entry._ids;
+    }
+
+    /**
+     * @param term the search term
+     * @return the cached facet counts of the result of the term, or null if they are not cached
+     */
+    public FacetCounts getFacets(String term) {
+        Entry entry = _results.get(SearchKey.of(term));
+        return entry != null ? entry._facets : null;
+    }
+
+    /**
+     * Caches the IDs of the works found for a term, before they are rendered.
+     *
+     * @param term the search term
+     * @param ids the IDs of the works found, no longer changed by the caller
+     */
+    public void putIds(String term, BitSet ids) {
+        _results.computeIfAbsent(SearchKey.of(term), key -> new Entry())._ids = ids;
+    }
+
+    /**
+     * Caches the result of a term.
+     *
+     * @param term the search term
+     * @param result the works found, as they are shown
+     * @return the cached (unmodifiable) result
+     */
+    public List<String> put(String term, List<String> result) {
+        List<String> cached = List.copyOf(result);
+        _results.computeIfAbsent(SearchKey.of(term), key -> new Entry())._lines = cached;
+        return cached;
+    }
+
+    /**
+     * Caches the facet counts of the cached result of a term.
+     *
+     * @param term the search term
+     * @param facets the facet counts of the result
+     */
+    public void putFacets(String term, FacetCounts facets) {
+        Entry entry = _results.get(SearchKey.of(term));
+        if (entry != null) entry._facets = facets;
+    }
+
+    /**
+     * Invalidates the results that may show a work: those whose term occurs in its title or
+     * creator names, as they are now.
+     *
+     * @param work the work that changed, or was added
+     */
+    public void invalidate(Work work) {
+        Iterator<String> keys = _results.keySet().iterator();
+        while (keys.hasNext()) {
+            if (WorkText.contains(work, keys.next())) {
+                keys.remove();
+                _invalidations++;
+            }
+        }
+    }
+
+    /**
+     * Invalidates every result.
+     */
+    public void clear() {
+        _invalidations += _results.size();
+        _results.clear();
+    }
+
+    /**
+     * @return the number of results cached
+     */
+    public int size() {
+        return _results.size();
+    }
+
+    /**
+     * @return the number of searches answered from the cache
+     */
+    public long getHits() {
+        return _hits;
+    }
+
+    /**
+     * @return the number of searches that were not cached
+     */
+    public long getMisses() {
+        return _misses;
+    }
+
+    /**
+     * @return the number of results invalidated by changes to the works
+     */
+    public long getInvalidations() {
+        return _invalidations;
+    }
+
+    /** A cached result. */
+    private static final class Entry {
+        private BitSet _ids; // found by the first search of the term
+        private List<String> _lines; // rendered on the first search of the whole result
+        private FacetCounts _facets; // counted on the first faceted search
+    }
+}
@@ -0,0 +1,139 @@
+package bci.search;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import bci.work.Work;
+
+/**
+ * The indexes of the general search over titles and creator names.
+ *
+ * Substrings of the texts are answered from the {@link TrigramIndex}, which also indexes the
+ * shorter substrings; only an empty key needs a scan of the works. Whole words are answered from
+ * the posting lists of the {@link TokenIndex}, which also finds the words close to a misspelled
+ * one, for fuzzy searches.
+ * Works are also indexed by price and, through the {@link FacetIndex}, by category, type and
+ * copies, for {@link Query}s, and the indexes give the number of works each predicate of a query
+ * may match.
+ */
+public class SearchIndex {
+
+    /** The greatest edit distance of a fuzzy search. */
+    public static final int MAX_FUZZY_DISTANCE = 2;
+
+    private final TokenIndex _tokens = new TokenIndex();
+    private final TrigramIndex _trigrams = new TrigramIndex();
+    private final PriceIndex _prices = new PriceIndex();
+    private final FacetIndex _facets;
+    private int _size;
+
+    /**
+     * @param facets the facets of the works, which are kept up to date by the library
+     */
+    public SearchIndex(FacetIndex facets) {
+        _facets = facets;
+    }
+
+    /**
+     * Indexes the title and creators of a work.
+     *
+     * @param work the work
+     */
+    public void add(Work work) {
+        _tokens.add(work);
+        _trigrams.add(work);
+        _prices.add(work);
+        _size++;
+    }
+
+    /**
+     * Removes the title and creators of a work from the indexes, as they are now.
+     *
+     * @param work the work
+     */
+    public void remove(Work work) {
+        _tokens.remove(work);
+        _trigrams.remove(work);
+        _prices.remove(work);
+        _size--;
+    }
+
+    /**
+     * Finds the works whose title or creator names contain a term, ignoring case.
+     *
+     * @param term the search term
+     * @param works the works, by ID
+     * @return the IDs of the works, or null if the term cannot be answered from the indexes
+     */
+    public BitSet search(String term, IntFunction<Work> works) {
+        if (TrigramIndex.isIndexable(term)) return _trigrams.search(term, works);
+        return null;
+    }
+
+    /**
+     * Finds the works that have every word of a term as a whole word of their title or creator
+     * names, ignoring case and accents.
+     *
+     * @param term the search term
+     * @return the IDs of the works, or null if the term has no words
+     */
+    public BitSet searchWords(String term) {
+        return _tokens.search(term);
+    }
+
+    /**
+     * Estimates how many works have every word of a term in their title or creator names.
+     *
+     * @param term the search term
+     * @return an upper bound of the number of works, or the number of works indexed if the term
+     *         has no words
+     */
+    public int estimateWords(String term) {
+        int estimate = _tokens.estimate(term);
+        return estimate >= 0 ? estimate : _size;
+    }
+
+    /**
+     * Finds the works with tokens, in their title or creator names, within a small edit distance
+     * of those of a term.
+     *
+     * @param term the search term
+     * @param maxDistance the greatest edit distance allowed for each token, up to
+     *        {@link #MAX_FUZZY_DISTANCE}
+     * @return the IDs of the works found, with their distance to the term
+     */
+    public Map<Integer, Integer> fuzzySearch(String term, int maxDistance) {
+        return _tokens.fuzzySearch(term, Math.max(0, Math.min(MAX_FUZZY_DISTANCE, maxDistance)));
+    }
+
+    /**
+     * Estimates how many works have a term in their title or creator names.
+     *
+     * @param term the search term
+     * @return an upper bound of the number of works, or the number of works indexed if the term
+     *         cannot be answered from the indexes
+     */
+    public int estimate(String term) {
+        if (TrigramIndex.isIndexable(term)) return _trigrams.estimate(term);
+        return _size;
+    }
+
+    /**
+     * @return the number of works indexed
+     */
+    public int size() {
+        return _size;
+    }
+
+    PriceIndex prices() {
+        return _prices;
+    }
+
+    /**
+     * @return the facets of the works
+     */
+    public FacetIndex facets() {
+        return _facets;
+    }
+}
@@ -0,0 +1,44 @@
+package bci.search;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Search keys: texts folded so that searches ignore case and accents ("Ficção" and "ficcao"
+ * have the same key).
+ *
+ * A key is the text decomposed (Unicode NFD), without its combining marks, in lower case.
+ * Keys of Portuguese texts are then Latin-1, which Strings store in one byte per character.
+ */
+public final class SearchKey {
+
+    private SearchKey() {
+    }
+
+    /**
+     * @param text a text
+     * @return the search key of the text
+     */
+    public static String of(String text) {
+        if (text == null) return null;
+        if (isFolded(text)) return text;
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder key = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) key.append(c);
+        }
+        return key.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return whether a text is already its own key: ASCII without capitals
+     */
+    private static boolean isFolded(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80 || (c >= 'A' && c <= 'Z')) return false;
+        }
+        return true;
+    }
+}
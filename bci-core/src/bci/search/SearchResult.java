@@ -0,0 +1,35 @@
+package bci.search;
+
+import java.util.List;
+
+/**
+ * The works found by a search, as they are shown, with their {@link FacetCounts}.
+ */
+public class SearchResult {
+
+    private final List<String> _works;
+    private final FacetCounts _facets;
+
+    /**
+     * @param works the works found, as they are shown
+     * @param facets the number of works found in each facet
+     */
+    public SearchResult(List<String> works, FacetCounts facets) {
+        _works = works;
+        _facets = facets;
+    }
+
+    /**
+     * @return the works found, as they are shown
+     */
+    public List<String> getWorks() {
+        return _works;
+    }
+
+    /**
+     * @return the number of works found in each facet
+     */
+    public FacetCounts getFacets() {
+        return _facets;
+    }
+}
@@ -0,0 +1,80 @@
+package bci.search;
+
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+import bci.work.Work;
+
+/**
+ * A query for the works with a text that contains a term, ignoring case and accents, or, for
+ * {@link Field#WORDS}, that has the words of the term as whole words.
+ */
+class TermQuery extends Query {
+
+    /** The texts of a work a term can be looked for in. */
+    enum Field {
+        TITLE, CREATOR, TITLE_OR_CREATOR, WORDS, CATEGORY, WORK_TYPE
+    }
+
+    private final Field _field;
+    private final String _term;
+    private final String _key;
+    private final Map<String, String> _nameKeys = new ConcurrentHashMap<>(); // only a few categories and types
+
+    TermQuery(Field field, String term) {
+        _field = field;
+        _term = term;
+        _key = SearchKey.of(term);
+    }
+
+    @Override
+    public boolean matches(Work work) {
+        return switch (_field) {
+            case TITLE -> work.getSearchKey().contains(_key);
+            case CREATOR -> WorkText.creatorContains(work, _key);
+            case TITLE_OR_CREATOR -> WorkText.contains(work, _key);
+            case WORDS -> TokenIndex.hasTokens(work, _term);
+            case CATEGORY -> _nameKeys.computeIfAbsent(work.getCategoryName(), SearchKey::of).contains(_key);
+            case WORK_TYPE -> _nameKeys.computeIfAbsent(work.getWorkType(), SearchKey::of).contains(_key);
+        };
+    }
+
+    @Override
+    public double estimate(SearchIndex index) {
+        return switch (_field) {
+            case TITLE, CREATOR, TITLE_OR_CREATOR -> index.estimate(_term);
+            case WORDS -> index.estimateWords(_term);
+            case CATEGORY, WORK_TYPE -> facet(index).cardinality();
+        };
+    }
+
+    /**
+     * The title and creator names share one index, so the candidates of a title or a creator
+     * term are the works that have the term in either.
+     */
+    @Override
+    public BitSet candidates(SearchIndex index, IntFunction<Work> works) {
+        return switch (_field) {
+            case TITLE, CREATOR, TITLE_OR_CREATOR -> index.search(_term, works);
+            case WORDS -> index.searchWords(_term);
+            case CATEGORY, WORK_TYPE -> facet(index).toBitSet();
+        };
+    }
+
+    @Override
+    WorkBitmap facet(SearchIndex index) {
+        return switch (_field) {
+            case TITLE, CREATOR, TITLE_OR_CREATOR, WORDS -> null;
+            case CATEGORY -> index.facets().category(_term);
+            case WORK_TYPE -> index.facets().workType(_term);
+        };
+    }
+
+    @Override
+    public String toString() {
+        return _field.name().toLowerCase(Locale.ROOT) + " ~ \"" + _term + "\"";
+    }
+}
@@ -0,0 +1,193 @@
+package bci.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import bci.work.Work;
+
+/**
+ * Inverted index of the tokens of the titles and creator names of the works.
+ *
+ * Texts are folded into {@link SearchKey}s, as {@link SearchByTitle} and {@link SearchByCreator}
+ * compare them, and split into tokens, the runs of letters and digits. Tokens are looked up whole,
+ * for whole-word searches, by intersecting their posting lists; substrings of tokens are left to
+ * the {@link TrigramIndex}.
+ *
+ * The tokens are also kept in a {@link BKTree}, so the tokens within a small edit distance of
+ * a misspelled one are found without comparing it with every token.
+ */
+public class TokenIndex {
+
+    /** The fewest characters a token must have to be matched with one typo, and with two. */
+    private static final int ONE_TYPO_LENGTH = 3;
+    private static final int TWO_TYPOS_LENGTH = 6;
+
+    private final Map<String, PostingList> _postings = new HashMap<>();
+    private final BKTree _tokens = new BKTree(); // tokens removed from the postings stay here
+
+    /**
+     * Indexes the title and creators of a work.
+     *
+     * @param work the work
+     */
+    public void add(Work work) {
+        int id = work.getIdWork();
+        forEachToken(work, token -> _postings.computeIfAbsent(token, key -> {
+            _tokens.add(key);
+            return new PostingList();
+        }).add(id));
+    }
+
+    /**
+     * Removes the title and creators of a work from the index, as they are now.
+     *
+     * @param work the work
+     */
+    public void remove(Work work) {
+        int id = work.getIdWork();
+        forEachToken(work, token -> {
+            PostingList postings = _postings.get(token);
+            if (postings == null) return;
+            postings.remove(id);
+            if (postings.isEmpty()) _postings.remove(token);
+        });
+    }
+
+    /**
+     * Finds the works that have every token of a term as a whole token of their title or creator
+     * names, by intersecting the posting lists of the tokens, rarest first. No work is checked.
+     *
+     * @param term the search term
+     * @return the IDs of the works found, or null if the term has no tokens
+     */
+    public BitSet search(String term) {
+        List<PostingList> lists = new ArrayList<>();
+        for (String token : tokens(term)) {
+            PostingList postings = _postings.get(token);
+            if (postings == null) return new BitSet();
+            if (!lists.contains(postings)) lists.add(postings);
+        }
+        if (lists.isEmpty()) return null;
+        lists.sort(Comparator.comparingInt(PostingList::size));
+
+        int[] candidates = lists.get(0).toArray();
+        int count = candidates.length;
+        for (int i = 1; i < lists.size() && count > 0; i++) {
+            count = lists.get(i).retain(candidates, count);
+        }
+        BitSet ids = new BitSet();
+        for (int i = 0; i < count; i++) {
+            ids.set(candidates[i]);
+        }
+        return ids;
+    }
+
+    /**
+     * Estimates, without checking any work, how many works have every token of a term: no more
+     * than have its rarest token.
+     *
+     * @param term the search term
+     * @return an upper bound of the number of works, or -1 if the term has no tokens
+     */
+    public int estimate(String term) {
+        int estimate = -1;
+        for (String token : tokens(term)) {
+            PostingList postings = _postings.get(token);
+            int size = postings != null ? postings.size() : 0;
+            estimate = estimate < 0 ? size : Math.min(estimate, size);
+        }
+        return estimate;
+    }
+
+    /**
+     * @param work a work
+     * @param term a search term
+     * @return whether the work has every token of the term as a whole token of its texts
+     */
+    static boolean hasTokens(Work work, String term) {
+        List<String> terms = tokens(term);
+        if (terms.isEmpty()) return false;
+        Set<String> tokens = new HashSet<>();
+        forEachToken(work, tokens::add);
+        return tokens.containsAll(terms);
+    }
+
+    /**
+     * Finds the works that have, for each token of a term, a token within a small edit distance
+     * of it in their title or creator names. The distance allowed grows with the length of the
+     * token: none below {@value #ONE_TYPO_LENGTH} characters, one below
+     * {@value #TWO_TYPOS_LENGTH}, and up to {@code maxDistance} from there.
+     *
+     * @param term the search term
+     * @param maxDistance the greatest edit distance allowed for each token
+     * @return the IDs of the works found, each with the sum of the distances of its closest
+     *         tokens to those of the term; empty if the term has no tokens
+     */
+    public Map<Integer, Integer> fuzzySearch(String term, int maxDistance) {
+        List<String> terms = tokens(term);
+        Map<Integer, Integer> found = null;
+        for (String token : terms) {
+            int allowed = token.length() < ONE_TYPO_LENGTH ? 0
+                : token.length() < TWO_TYPOS_LENGTH ? Math.min(1, maxDistance) : maxDistance;
+            Map<Integer, Integer> closest = new HashMap<>();
+            _tokens.search(token, allowed, (match, distance) -> {
+                PostingList postings = _postings.get(match);
+                if (postings == null) return;
+                postings.forEach(id -> closest.merge(id, distance, Math::min));
+            });
+            if (found == null) {
+                found = closest;
+            } else {
+                Map<Integer, Integer> both = new HashMap<>();
+                for (Map.Entry<Integer, Integer> entry : found.entrySet()) {
+                    Integer distance = closest.get(entry.getKey());
+                    if (distance != null) both.put(entry.getKey(), entry.getValue() + distance);
+                }
+                found = both;
+            }
+            if (found.isEmpty()) break;
+        }
+        return found != null ? found : new HashMap<>();
+    }
+
+    /**
+     * @return the number of distinct tokens
+     */
+    public int size() {
+        return _postings.size();
+    }
+
+    private static void forEachToken(Work work, Consumer<String> consumer) {
+        WorkText.forEachText(work, text -> tokens(text, consumer));
+    }
+
+    private static List<String> tokens(String term) {
+        List<String> tokens = new ArrayList<>();
+        tokens(SearchKey.of(term), tokens::add);
+        return tokens;
+    }
+
+    private static void tokens(String text, Consumer<String> consumer) {
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean tokenChar = i < text.length() && isTokenChar(text.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                consumer.accept(text.substring(start, i));
+                start = -1;
+            }
+        }
+    }
+
+    private static boolean isTokenChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+}
@@ -0,0 +1,89 @@
+package bci.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Selection of the first elements of a collection in some order, without sorting all of it.
+ *
+ * The first {@code k} of {@code n} elements are kept in a bounded heap, in O(n log k) time and
+ * O(k) space, and only they are sorted. Equal elements keep the order of the collection, as in a
+ * stable sort, so a page of the selection is the same page of the fully sorted collection.
+ */
+public final class TopK {
+
+    private TopK() {
+    }
+
+    /**
+     * @param items the elements, which may be produced as they are iterated
+     * @param k the number of elements to select
+     * @param order the order of the elements
+     * @return the first {@code k} elements (or all, if there are fewer), sorted
+     */
+    public static <T> List<T> smallest(Iterable<? extends T> items, int k, Comparator<? super T> order) {
+        if (k <= 0) return new ArrayList<>();
+        if (items instanceof Collection<? extends T> collection && k >= collection.size()) {
+            List<T> all = new ArrayList<>(collection);
+            all.sort(order);
+            return all;
+        }
+
+        Comparator<Ranked<T>> ranking = Comparator.<Ranked<T>, T>comparing(Ranked::item, order)
+                .thenComparingLong(Ranked::position);
+        PriorityQueue<Ranked<T>> heap = new PriorityQueue<>(Math.min(k, 1024), ranking.reversed());
+        long position = 0;
+        for (T item : items) {
+            Ranked<T> ranked = new Ranked<>(item, position++);
+            if (heap.size() < k) {
+                heap.add(ranked);
+            } else if (ranking.compare(ranked, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(ranked);
+            }
+        }
+
+        List<Ranked<T>> selected = new ArrayList<>(heap);
+        selected.sort(ranking);
+        List<T> first = new ArrayList<>(selected.size());
+        for (Ranked<T> ranked : selected) {
+            first.add(ranked.item());
+        }
+        return first;
+    }
+
+    /**
+     * @param items the elements
+     * @param offset the number of elements to skip
+     * @param limit the maximum number of elements of the page
+     * @param order the order of the elements
+     * @return the elements from {@code offset}, at most {@code limit}, in order
+     */
+    public static <T> List<T> page(Collection<? extends T> items, int offset, int limit, Comparator<? super T> order) {
+        int end = (int) Math.min(Integer.MAX_VALUE, (long) Math.max(0, offset) + Math.max(0, limit));
+        List<T> first = smallest(items, end, order);
+        return first.size() <= offset ? new ArrayList<>() : first.subList(Math.max(0, offset), first.size());
+    }
+
+    /** An element and its position in the collection. */
+    private static final class Ranked<T> {
+        private final T _item;
+        private final long _position;
+
+        Ranked(T item, long position) {
+            _item = item;
+            _position = position;
+        }
+
+        T item() {
+            return _item;
+        }
+
+        long position() {
+            return _position;
+        }
+    }
+}
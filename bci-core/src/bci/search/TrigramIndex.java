@@ -0,0 +1,155 @@
+package bci.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.LongConsumer;
+
+import bci.work.Work;
+
+/**
+ * Inverted index of the trigrams (the substrings of three characters) of the {@link SearchKey}s
+ * of the titles and creator names of the works.
+ *
+ * Every trigram of a term occurs in any text that contains the term, so the works that have all
+ * of them are the only candidates; their posting lists are intersected, smallest first, and the
+ * few candidates left are checked with {@link String#contains}, as the searches do.
+ *
+ * The substrings of one and two characters are indexed too, padded to a trigram, so a term
+ * shorter than a trigram is answered by the postings of its own key, with nothing to check.
+ */
+public class TrigramIndex {
+
+    private static final int GRAM = 3;
+
+    /** Pads the keys of shorter substrings; a noncharacter, so it is never in a text. */
+    private static final char PAD = '\uffff';
+
+    private final Map<Long, PostingList> _postings = new HashMap<>();
+
+    /**
+     * Indexes the title and creators of a work.
+     *
+     * @param work the work
+     */
+    public void add(Work work) {
+        int id = work.getIdWork();
+        forEachTrigram(work, key -> _postings.computeIfAbsent(key, k -> new PostingList()).add(id));
+    }
+
+    /**
+     * Removes the title and creators of a work from the index, as they are now.
+     *
+     * @param work the work
+     */
+    public void remove(Work work) {
+        int id = work.getIdWork();
+        forEachTrigram(work, key -> {
+            PostingList postings = _postings.get(key);
+            if (postings == null) return;
+            postings.remove(id);
+            if (postings.isEmpty()) _postings.remove(key);
+        });
+    }
+
+    /**
+     * @param term the search term
+     * @return whether the key of the term is not empty
+     */
+    public static boolean isIndexable(String term) {
+        return !SearchKey.of(term).isEmpty();
+    }
+
+    /**
+     * Finds the works whose title or creator names contain a term, ignoring case and accents.
+     *
+     * @param term an indexable term
+     * @param works the works, by ID, to check the candidates
+     * @return the IDs of the works
+     */
+    public BitSet search(String term, IntFunction<Work> works) {
+        String key = SearchKey.of(term);
+        BitSet ids = new BitSet();
+        if (key.length() < GRAM) {
+            PostingList postings = _postings.get(gram(key, 0, key.length()));
+            if (postings != null) postings.addTo(ids);
+            return ids;
+        }
+        List<PostingList> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= key.length(); i++) {
+            PostingList postings = _postings.get(trigram(key, i));
+            if (postings == null) return ids;
+            if (!lists.contains(postings)) lists.add(postings);
+        }
+        lists.sort(Comparator.comparingInt(PostingList::size));
+
+        int[] candidates = lists.get(0).toArray();
+        int count = candidates.length;
+        for (int i = 1; i < lists.size() && count > 0; i++) {
+            count = lists.get(i).retain(candidates, count);
+        }
+        for (int i = 0; i < count; i++) {
+            Work work = works.apply(candidates[i]);
+            if (work != null && WorkText.contains(work, key)) {
+                ids.set(candidates[i]);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Estimates, without checking any work, how many works contain a term: no more than have
+     * its rarest trigram.
+     *
+     * @param term an indexable term
+     * @return an upper bound of the number of works that contain the term
+     */
+    public int estimate(String term) {
+        String key = SearchKey.of(term);
+        if (key.length() < GRAM) {
+            PostingList postings = _postings.get(gram(key, 0, key.length()));
+            return postings != null ? postings.size() : 0;
+        }
+        int estimate = Integer.MAX_VALUE;
+        for (int i = 0; i + GRAM <= key.length(); i++) {
+            PostingList postings = _postings.get(trigram(key, i));
+            if (postings == null) return 0;
+            estimate = Math.min(estimate, postings.size());
+        }
+        return estimate;
+    }
+
+    /**
+     * @return the number of distinct keys, trigrams and shorter substrings
+     */
+    public int size() {
+        return _postings.size();
+    }
+
+    private static void forEachTrigram(Work work, LongConsumer consumer) {
+        WorkText.forEachText(work, text -> {
+            for (int i = 0; i < text.length(); i++) {
+                for (int length = 1; length <= GRAM && i + length <= text.length(); length++) {
+                    consumer.accept(gram(text, i, length));
+                }
+            }
+        });
+    }
+
+    private static long trigram(String text, int at) {
+        return gram(text, at, GRAM);
+    }
+
+    /**
+     * @return the key of the substring of up to {@value #GRAM} characters at a position
+     */
+    private static long gram(String text, int at, int length) {
+        char second = length > 1 ? text.charAt(at + 1) : PAD;
+        char third = length > 2 ? text.charAt(at + 2) : PAD;
+        return (long) text.charAt(at) << 32 | (long) second << 16 | third;
+    }
+}
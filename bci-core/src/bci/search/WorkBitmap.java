@@ -0,0 +1,509 @@
+package bci.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * A compressed set of work IDs, in the style of a roaring bitmap.
+ *
+ * IDs are split by their high 16 bits into chunks of 65536; each chunk present has a container
+ * for its low 16 bits: a sorted array while it holds up to {@value #ARRAY_MAX} IDs (2 bytes per
+ * ID), a plain bitmap of 8 KB beyond that. Sparse sets stay small, dense ones cost one bit per
+ * ID, and AND and OR work a container at a time, with the best algorithm for each pair.
+ */
+public final class WorkBitmap {
+
+    /** The most IDs an array container holds; past this a bitmap is smaller. */
+    static final int ARRAY_MAX = 4096;
+
+    private int[] _keys = new int[0];
+    private Container[] _containers = new Container[0];
+    private int _size;
+
+    /**
+     * Adds an ID to the set.
+     *
+     * @param id a work ID, not negative
+     */
+    public void add(int id) {
+        int key = id >>> 16;
+        int at = _size > 0 && _keys[_size - 1] == key ? _size - 1 : find(key);
+        if (at < 0) {
+            at = -at - 1;
+            insert(at, key, new ArrayContainer());
+        }
+        _containers[at] = _containers[at].add((char) id);
+    }
+
+    /**
+     * Removes an ID from the set.
+     *
+     * @param id a work ID
+     */
+    public void remove(int id) {
+        int at = find(id >>> 16);
+        if (at < 0) return;
+        Container container = _containers[at].remove((char) id);
+        if (container.cardinality() == 0) {
+            System.arraycopy(_keys, at + 1, _keys, at, _size - at - 1);
+            System.arraycopy(_containers, at + 1, _containers, at, _size - at - 1);
+            _containers[--_size] = null;
+        } else {
+            _containers[at] = container;
+        }
+    }
+
+    /**
+     * Adds or removes an ID.
+     *
+     * @param id a work ID
+     * @param present whether the ID is to be in the set
+     */
+    public void set(int id, boolean present) {
+        if (present) add(id); else remove(id);
+    }
+
+    /**
+     * @param id a work ID
+     * @return whether the ID is in the set
+     */
+    public boolean contains(int id) {
+        int at = find(id >>> 16);
+        return at >= 0 && _containers[at].contains((char) id);
+    }
+
+    /**
+     * @return the number of IDs in the set
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < _size; i++) {
+            cardinality += _containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    /**
+     * @param other another set
+     * @return a new set with the IDs in both sets
+     */
+    public WorkBitmap and(WorkBitmap other) {
+        WorkBitmap result = new WorkBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < _size && j < other._size) {
+            if (_keys[i] < other._keys[j]) {
+                i++;
+            } else if (_keys[i] > other._keys[j]) {
+                j++;
+            } else {
+                Container container = _containers[i].and(other._containers[j]);
+                if (container.cardinality() > 0) result.append(_keys[i], container);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param other another set
+     * @return the number of IDs in both sets, without building their intersection
+     */
+    public int andCardinality(WorkBitmap other) {
+        int cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < _size && j < other._size) {
+            if (_keys[i] < other._keys[j]) {
+                i++;
+            } else if (_keys[i] > other._keys[j]) {
+                j++;
+            } else {
+                cardinality += _containers[i].andCardinality(other._containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * @param ids a set of IDs
+     * @return a new compressed set with the same IDs
+     */
+    public static WorkBitmap of(BitSet ids) {
+        WorkBitmap bitmap = new WorkBitmap();
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            bitmap.add(id);
+        }
+        return bitmap;
+    }
+
+    /**
+     * @param other another set
+     * @return a new set with the IDs in either set
+     */
+    public WorkBitmap or(WorkBitmap other) {
+        WorkBitmap result = new WorkBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < _size || j < other._size) {
+            if (j == other._size || (i < _size && _keys[i] < other._keys[j])) {
+                result.append(_keys[i], _containers[i].copy());
+                i++;
+            } else if (i == _size || _keys[i] > other._keys[j]) {
+                result.append(other._keys[j], other._containers[j].copy());
+                j++;
+            } else {
+                result.append(_keys[i], _containers[i].or(other._containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Keeps, in a set of IDs, only those also in this set.
+     *
+     * @param ids the IDs to filter
+     */
+    public void retainIn(BitSet ids) {
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            if (!contains(id)) ids.clear(id);
+        }
+    }
+
+    /**
+     * @return the IDs of this set, as a {@link BitSet}
+     */
+    public BitSet toBitSet() {
+        BitSet ids = new BitSet();
+        forEach(ids::set);
+        return ids;
+    }
+
+    /**
+     * Gives each ID, in increasing order, to a consumer.
+     *
+     * @param consumer the consumer of the IDs
+     */
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < _size; i++) {
+            _containers[i].forEach(_keys[i] << 16, consumer);
+        }
+    }
+
+    /**
+     * @return the IDs, in increasing order
+     */
+    public IntStream stream() {
+        IntStream.Builder ids = IntStream.builder();
+        forEach(ids::add);
+        return ids.build();
+    }
+
+    /**
+     * @return the number of chunks kept as bitmaps rather than as sorted arrays
+     */
+    int bitmapContainers() {
+        int count = 0;
+        for (int i = 0; i < _size; i++) {
+            if (_containers[i] instanceof BitmapContainer) count++;
+        }
+        return count;
+    }
+
+    private int find(int key) {
+        return Arrays.binarySearch(_keys, 0, _size, key);
+    }
+
+    private void insert(int at, int key, Container container) {
+        if (_size == _keys.length) {
+            int capacity = Math.max(4, 2 * _size);
+            _keys = Arrays.copyOf(_keys, capacity);
+            _containers = Arrays.copyOf(_containers, capacity);
+        }
+        System.arraycopy(_keys, at, _keys, at + 1, _size - at);
+        System.arraycopy(_containers, at, _containers, at + 1, _size - at);
+        _keys[at] = key;
+        _containers[at] = container;
+        _size++;
+    }
+
+    private void append(int key, Container container) {
+        insert(_size, key, container);
+    }
+
+    /** The low 16 bits of the IDs of a chunk. */
+    private abstract static class Container {
+
+        /** @return this container, or the one that replaces it, with the value */
+        abstract Container add(char value);
+
+        /** @return this container, or the one that replaces it, without the value */
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract Container and(Container other);
+
+        abstract int andCardinality(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container copy();
+
+        abstract void forEach(int high, IntConsumer consumer);
+    }
+
+    /** A sparse chunk: its values, sorted. */
+    private static final class ArrayContainer extends Container {
+
+        private char[] _values;
+        private int _cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            _values = values;
+            _cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            int at = _cardinality == 0 || _values[_cardinality - 1] < value
+                ? -_cardinality - 1 // IDs mostly come in increasing order
+                : Arrays.binarySearch(_values, 0, _cardinality, value);
+            if (at >= 0) return this;
+            if (_cardinality == ARRAY_MAX) {
+                BitmapContainer bitmap = toBitmap();
+                bitmap.add(value);
+                return bitmap;
+            }
+            at = -at - 1;
+            if (_cardinality == _values.length) {
+                _values = Arrays.copyOf(_values, Math.min(ARRAY_MAX, Math.max(4, 2 * _cardinality)));
+            }
+            System.arraycopy(_values, at, _values, at + 1, _cardinality - at);
+            _values[at] = value;
+            _cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int at = Arrays.binarySearch(_values, 0, _cardinality, value);
+            if (at < 0) return this;
+            System.arraycopy(_values, at + 1, _values, at, _cardinality - at - 1);
+            _cardinality--;
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(_values, 0, _cardinality, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return _cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] values = new char[_cardinality];
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                int j = 0;
+                for (int i = 0; i < _cardinality && j < array._cardinality; i++) {
+                    while (j < array._cardinality && array._values[j] < _values[i]) j++;
+                    if (j < array._cardinality && array._values[j] == _values[i]) values[count++] = _values[i];
+                }
+            } else {
+                for (int i = 0; i < _cardinality; i++) {
+                    if (other.contains(_values[i])) values[count++] = _values[i];
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            int cardinality = 0;
+            if (other instanceof ArrayContainer array) {
+                int j = 0;
+                for (int i = 0; i < _cardinality && j < array._cardinality; i++) {
+                    while (j < array._cardinality && array._values[j] < _values[i]) j++;
+                    if (j < array._cardinality && array._values[j] == _values[i]) cardinality++;
+                }
+            } else {
+                for (int i = 0; i < _cardinality; i++) {
+                    if (other.contains(_values[i])) cardinality++;
+                }
+            }
+            return cardinality;
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) return other.or(this);
+            ArrayContainer array = (ArrayContainer) other;
+            char[] values = new char[_cardinality + array._cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < _cardinality || j < array._cardinality) {
+                char next;
+                if (j == array._cardinality || (i < _cardinality && _values[i] < array._values[j])) {
+                    next = _values[i++];
+                } else if (i == _cardinality || _values[i] > array._values[j]) {
+                    next = array._values[j++];
+                } else {
+                    next = _values[i++];
+                    j++;
+                }
+                values[count++] = next;
+            }
+            ArrayContainer union = new ArrayContainer(values, count);
+            return count > ARRAY_MAX ? union.toBitmap() : union;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(_values, Math.max(1, _cardinality)), _cardinality);
+        }
+
+        @Override
+        void forEach(int high, IntConsumer consumer) {
+            for (int i = 0; i < _cardinality; i++) {
+                consumer.accept(high | _values[i]);
+            }
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < _cardinality; i++) {
+                bitmap.add(_values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    /** A dense chunk: one bit for each of its 65536 values. */
+    private static final class BitmapContainer extends Container {
+
+        private final long[] _words;
+        private int _cardinality;
+
+        BitmapContainer() {
+            this(new long[1024], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            _words = words;
+            _cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            long bit = 1L << value;
+            if ((_words[value >>> 6] & bit) == 0) {
+                _words[value >>> 6] |= bit;
+                _cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long bit = 1L << value;
+            if ((_words[value >>> 6] & bit) != 0) {
+                _words[value >>> 6] &= ~bit;
+                _cardinality--;
+                if (_cardinality <= ARRAY_MAX) return toArray();
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (_words[value >>> 6] & 1L << value) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return _cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) return other.and(this);
+            BitmapContainer bitmap = (BitmapContainer) other;
+            long[] words = new long[_words.length];
+            int cardinality = 0;
+            for (int i = 0; i < words.length; i++) {
+                words[i] = _words[i] & bitmap._words[i];
+                cardinality += Long.bitCount(words[i]);
+            }
+            BitmapContainer intersection = new BitmapContainer(words, cardinality);
+            return cardinality <= ARRAY_MAX ? intersection.toArray() : intersection;
+        }
+
+        @Override
+        int andCardinality(Container other) {
+            if (other instanceof ArrayContainer) return other.andCardinality(this);
+            BitmapContainer bitmap = (BitmapContainer) other;
+            int cardinality = 0;
+            for (int i = 0; i < _words.length; i++) {
+                cardinality += Long.bitCount(_words[i] & bitmap._words[i]);
+            }
+            return cardinality;
+        }
+
+        @Override
+        Container or(Container other) {
+            BitmapContainer union = (BitmapContainer) copy();
+            if (other instanceof BitmapContainer bitmap) {
+                union._cardinality = 0;
+                for (int i = 0; i < union._words.length; i++) {
+                    union._words[i] |= bitmap._words[i];
+                    union._cardinality += Long.bitCount(union._words[i]);
+                }
+            } else {
+                other.forEach(0, value -> union.add((char) value));
+            }
+            return union;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(_words.clone(), _cardinality);
+        }
+
+        @Override
+        void forEach(int high, IntConsumer consumer) {
+            for (int i = 0; i < _words.length; i++) {
+                long word = _words[i];
+                while (word != 0) {
+                    consumer.accept(high | i << 6 | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[_cardinality];
+            int[] count = {0};
+            forEach(0, value -> values[count[0]++] = (char) value);
+            return new ArrayContainer(values, _cardinality);
+        }
+    }
+}
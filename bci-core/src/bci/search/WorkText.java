@@ -0,0 +1,59 @@
+package bci.search;
+
+import java.util.function.Consumer;
+
+import bci.creator.Creator;
+import bci.work.Work;
+import bci.work.workType.Book;
+
+/**
+ * The texts of a work that the general search looks in: the title and, as in
+ * {@link SearchByCreator}, the authors of a book or the director of a DVD. Texts are
+ * given as their {@link SearchKey}s, as the searches compare them.
+ */
+final class WorkText {
+
+    private WorkText() {
+    }
+
+    /**
+     * Gives the key of each text of a work to a consumer.
+     *
+     * @param work the work
+     * @param consumer the consumer of the texts
+     */
+    static void forEachText(Work work, Consumer<String> consumer) {
+        consumer.accept(work.getSearchKey());
+        if (work instanceof Book book) {
+            for (Creator author : book.getAuthor()) {
+                consumer.accept(author.getSearchKey());
+            }
+        } else if (work.getCreator() != null) {
+            consumer.accept(work.getCreator().getSearchKey());
+        }
+    }
+
+    /**
+     * @param work the work
+     * @param key the key of a term
+     * @return whether one of the texts of the work contains the term
+     */
+    static boolean contains(Work work, String key) {
+        return work.getSearchKey().contains(key) || creatorContains(work, key);
+    }
+
+    /**
+     * @param work the work
+     * @param key the key of a term
+     * @return whether the name of one of the creators of the work contains the term
+     */
+    static boolean creatorContains(Work work, String key) {
+        if (work instanceof Book book) {
+            for (Creator author : book.getAuthor()) {
+                if (author.getSearchKey().contains(key)) return true;
+            }
+            return false;
+        }
+        return work.getCreator() != null && work.getCreator().getSearchKey().contains(key);
+    }
+}
@@ -0,0 +1,200 @@
+package bci.storage;
+
+import bci.Library;
+import bci.creator.Creator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Writes a snapshot of a library on another thread, while the library keeps being used.
+ *
+ * The snapshot is the {@link SnapshotView} taken when the save starts. Users and works are encoded
+ * in batches, each one while holding the library's lock, so an operation waits at most for one
+ * batch. A serialized snapshot walks an object graph, which the view does not have: the view is
+ * first written in the binary format, read back into a library of its own and that copy is
+ * serialized, all without the lock. The file is written next to the destination and renamed over
+ * it when complete, and the segments and the journal of the destination are then deleted, since
+ * the snapshot contains them.
+ */
+public final class BackgroundSnapshot {
+
+    private static final int BATCH_SIZE = 1024;
+
+    private static final String TEMPORARY_SUFFIX = ".saving";
+
+    private static final String VIEW_SUFFIX = ".view"; // binary copy of the view, to serialize
+
+    private BackgroundSnapshot() {
+    }
+
+    /**
+     * Starts writing a snapshot of the library in the given format.
+     *
+     * A view of the library is taken immediately and the library is marked as unchanged; if the
+     * save fails, it is marked as changed again and its change set gets back the changes that
+     * were in the view.
+     *
+     * @param library the library to save
+     * @param filename the destination file
+     * @param format the snapshot format
+     * @param executor runs the write
+     * @return a future completed with the number of bytes written, or with the error of the save
+     * @throws IOException if the view cannot be taken
+     */
+    public static CompletableFuture<Long> start(Library library, String filename, SnapshotFormat format,
+                                                Executor executor) throws IOException {
+        SnapshotView view;
+        synchronized (library) {
+            view = new SnapshotView(library);
+            library.beginSnapshotView(view);
+            library.getChanges().clear();
+            library.setChanged(false);
+        }
+        return unwrap(CompletableFuture.supplyAsync(() -> {
+            try {
+                return format == SnapshotFormat.SERIALIZED ? writeSerialized(library, view, filename)
+                                                           : write(library, view, filename);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor).whenComplete((bytes, error) -> {
+            synchronized (library) {
+                library.endSnapshotView(view);
+                if (error != null) {
+                    library.getChanges().addAll(view._changes);
+                    library.setChanged(true);
+                }
+            }
+        }));
+    }
+
+    /**
+     * Completes the future of a save with the I/O error itself, instead of its unchecked wrapper.
+     */
+    private static CompletableFuture<Long> unwrap(CompletableFuture<Long> save) {
+        return save.handle((bytes, error) -> {
+            if (error == null) return bytes;
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            throw new CompletionException(cause instanceof UncheckedIOException ? cause.getCause() : cause);
+        });
+    }
+
+    /**
+     * Writes a serialized snapshot of a view: the view is written in the binary format and read
+     * back, and the library read, which no other thread sees, is serialized.
+     */
+    private static long writeSerialized(Library library, SnapshotView view, String filename) throws IOException {
+        Path binary = Path.of(filename + VIEW_SUFFIX);
+        Path temporary = Path.of(filename + TEMPORARY_SUFFIX);
+        long size;
+        try {
+            writeView(library, view, binary);
+            size = SerializedSnapshot.write(BinarySnapshot.read(binary.toString()), temporary.toString());
+        } finally {
+            Files.deleteIfExists(binary);
+        }
+        Files.move(temporary, Path.of(filename), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        deleteObsolete(filename);
+        return size;
+    }
+
+    /**
+     * Deletes the segments and the journal of a file just replaced by a full snapshot.
+     */
+    private static void deleteObsolete(String filename) throws IOException {
+        Segments.deleteAll(filename);
+        Journal.delete(filename);
+    }
+
+    private static long write(Library library, SnapshotView view, String filename) throws IOException {
+        Path temporary = Path.of(filename + TEMPORARY_SUFFIX);
+        long size = writeView(library, view, temporary);
+        Files.move(temporary, Path.of(filename), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        deleteObsolete(filename);
+        return size;
+    }
+
+    /**
+     * Writes a view in the binary format, taking the library's lock for one batch at a time.
+     */
+    private static long writeView(Library library, SnapshotView view, Path file) throws IOException {
+        long size;
+        try (DataOutputStream out = new DataOutputStream(
+                                    new BufferedOutputStream(
+                                    new FileOutputStream(file.toFile()), SnapshotWriter.BUFFER_SIZE))) {
+            out.writeInt(BinarySnapshot.MAGIC);
+            out.writeShort(BinarySnapshot.VERSION);
+            out.writeInt(view._currentDate);
+            out.writeLong(view._journalSequence);
+            out.writeInt(view._creators.size());
+            out.writeInt(view._userCount);
+            out.writeInt(view._workCount);
+            out.writeInt(view._requests.size());
+            out.writeInt(view._availabilityInterests.size());
+            out.writeInt(view._borrowingInterests.size());
+
+            for (Creator creator : view._creators) {
+                byte[] name = creator.getName().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(Integer.BYTES + name.length);
+                out.writeInt(name.length);
+                out.write(name);
+            }
+            byte[][] batch = new byte[BATCH_SIZE][];
+            for (int first = 1; first <= view._userCount; first += BATCH_SIZE) {
+                int count = Math.min(BATCH_SIZE, view._userCount - first + 1);
+                synchronized (library) {
+                    for (int i = 0; i < count; i++) {
+                        batch[i] = view.userRecord(library, first + i);
+                    }
+                }
+                writeRecords(batch, count, out);
+            }
+            for (int first = 1; first <= view._workCount; first += BATCH_SIZE) {
+                int count = Math.min(BATCH_SIZE, view._workCount - first + 1);
+                synchronized (library) {
+                    for (int i = 0; i < count; i++) {
+                        batch[i] = view.workRecord(library, first + i);
+                    }
+                }
+                writeRecords(batch, count, out);
+            }
+            for (byte[] request : view._requests) {
+                out.writeInt(request.length);
+                out.write(request);
+            }
+            writeInterests(view._availabilityInterests, out);
+            writeInterests(view._borrowingInterests, out);
+            size = out.size();
+        }
+        return size;
+    }
+
+    private static void writeRecords(byte[][] records, int count, DataOutputStream out) throws IOException {
+        for (int i = 0; i < count; i++) {
+            out.writeInt(records[i].length);
+            out.write(records[i]);
+            records[i] = null;
+        }
+    }
+
+    private static void writeInterests(Map<Integer, List<Integer>> interests, DataOutputStream out) throws IOException {
+        for (Map.Entry<Integer, List<Integer>> entry : interests.entrySet()) {
+            out.writeInt(Integer.BYTES * (2 + entry.getValue().size()));
+            out.writeInt(entry.getKey());
+            SnapshotWriter.writeIds(out, entry.getValue());
+        }
+    }
+}
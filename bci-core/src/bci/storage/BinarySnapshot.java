@@ -0,0 +1,121 @@
+package bci.storage;
+
+import bci.Library;
+import bci.user.User;
+import bci.user.behaviorInterface.*;
+import bci.work.workCategory.*;
+
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Compact, versioned binary snapshot of a {@link Library}.
+ *
+ * Layout of a snapshot file:
+ *
+ *   header: magic, version, current date, journal sequence and the number of records of each section
+ *   creators, users, works, active requests, availability interests, borrowing interests
+ *
+ * Every record is written as an int length followed by that many bytes of payload, made only of
+ * primitive values and length-prefixed UTF-8 strings. Works reference their creators by the position
+ * of the creator in the creators section, so names are stored only once.
+ */
+public final class BinarySnapshot {
+
+    /** "BCIS" */
+    static final int MAGIC = 0x42434953;
+
+    static final short VERSION = 2;
+
+    /** Version 1 had no journal sequence in the header. */
+    static final short VERSION_WITHOUT_JOURNAL = 1;
+
+    static final byte CATEGORY_NONE = 0;
+    static final byte CATEGORY_FICTION = 1;
+    static final byte CATEGORY_SCITECH = 2;
+    static final byte CATEGORY_REFERENCE = 3;
+
+    static final byte BEHAVIOR_NORMAL = 0;
+    static final byte BEHAVIOR_DUTIFUL = 1;
+    static final byte BEHAVIOR_OVERDUE = 2;
+
+    static final byte WORK_BOOK = 0;
+    static final byte WORK_DVD = 1;
+
+    static final byte NOTIFICATION_AVAILABILITY = 0;
+    static final byte NOTIFICATION_BORROWING = 1;
+
+    private BinarySnapshot() {
+    }
+
+    /**
+     * Writes the library to the given file in the binary format.
+     *
+     * @param library the library to save
+     * @param filename the destination file
+     * @return the number of bytes written
+     * @throws IOException if an I/O error occurs
+     */
+    public static long write(Library library, String filename) throws IOException {
+        return new SnapshotWriter(library).write(filename);
+    }
+
+    /**
+     * Reads a library from a file in the binary format.
+     *
+     * @param filename the snapshot file
+     * @return the restored library, marked as unchanged
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static Library read(String filename) throws IOException {
+        try (SnapshotReader reader = new SnapshotReader(new Library(), filename)) {
+            return reader.read();
+        }
+    }
+
+    /**
+     * Checks whether a file starts with the binary snapshot magic number.
+     *
+     * @param filename the file to check
+     * @return true if the file is a binary snapshot
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isBinarySnapshot(String filename) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(filename))) {
+            return in.available() >= Integer.BYTES && in.readInt() == MAGIC;
+        }
+    }
+
+    static byte categoryCode(Category category) {
+        if (category instanceof Fiction) return CATEGORY_FICTION;
+        if (category instanceof Technical) return CATEGORY_SCITECH;
+        if (category instanceof Reference) return CATEGORY_REFERENCE;
+        return CATEGORY_NONE;
+    }
+
+    static String categoryKey(byte code) {
+        return switch (code) {
+            case CATEGORY_FICTION -> "FICTION";
+            case CATEGORY_SCITECH -> "SCITECH";
+            case CATEGORY_REFERENCE -> "REFERENCE";
+            default -> "";
+        };
+    }
+
+    static byte behaviorCode(User user) {
+        return switch (user.getBehavior()) {
+            case "CUMPRIDOR" -> BEHAVIOR_DUTIFUL;
+            case "FALTOSO" -> BEHAVIOR_OVERDUE;
+            default -> BEHAVIOR_NORMAL;
+        };
+    }
+
+    static UserBehavior behavior(byte code) {
+        return switch (code) {
+            case BEHAVIOR_DUTIFUL -> new Dutiful();
+            case BEHAVIOR_OVERDUE -> new Overdue();
+            default -> new Normal();
+        };
+    }
+}
@@ -0,0 +1,92 @@
+package bci.storage;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The entities of a library that changed since its last save.
+ *
+ * Users and works are kept by identifier, creators by name and loans by the pair
+ * (user, work) that identifies an active request.
+ */
+public class ChangeSet {
+
+    private final Set<Integer> _users = new HashSet<>();
+    private final Set<Integer> _works = new HashSet<>();
+    private final Set<String> _creators = new HashSet<>();
+    private final Set<Long> _loans = new HashSet<>();
+
+    public void markUser(int userId) {
+        _users.add(userId);
+    }
+
+    public void markWork(int workId) {
+        _works.add(workId);
+    }
+
+    public void markCreator(String name) {
+        _creators.add(name);
+    }
+
+    public void markLoan(int userId, int workId) {
+        _loans.add(loanKey(userId, workId));
+    }
+
+    /**
+     * Adds every change of another change set to this one.
+     */
+    public void addAll(ChangeSet other) {
+        _users.addAll(other._users);
+        _works.addAll(other._works);
+        _creators.addAll(other._creators);
+        _loans.addAll(other._loans);
+    }
+
+    /**
+     * @return a copy of this change set
+     */
+    public ChangeSet copy() {
+        ChangeSet copy = new ChangeSet();
+        copy.addAll(this);
+        return copy;
+    }
+
+    public boolean isEmpty() {
+        return _users.isEmpty() && _works.isEmpty() && _creators.isEmpty() && _loans.isEmpty();
+    }
+
+    public void clear() {
+        _users.clear();
+        _works.clear();
+        _creators.clear();
+        _loans.clear();
+    }
+
+    public Set<Integer> getUsers() {
+        return _users;
+    }
+
+    public Set<Integer> getWorks() {
+        return _works;
+    }
+
+    public Set<String> getCreators() {
+        return _creators;
+    }
+
+    public Set<Long> getLoans() {
+        return _loans;
+    }
+
+    public static long loanKey(int userId, int workId) {
+        return ((long) userId << 32) | (workId & 0xFFFFFFFFL);
+    }
+
+    public static int loanUser(long loanKey) {
+        return (int) (loanKey >>> 32);
+    }
+
+    public static int loanWork(long loanKey) {
+        return (int) loanKey;
+    }
+}
@@ -0,0 +1,243 @@
+package bci.storage;
+
+import bci.Library;
+import bci.exceptions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the mutations applied to a library since its last full snapshot.
+ *
+ * The journal lives next to the snapshot file (same name with a {@code .journal} suffix).
+ * Each record holds a sequence number, the {@link JournalOperation} and its arguments, and is
+ * protected by a CRC so that a record torn by a crash is detected and dropped on replay.
+ *
+ * Sequence numbers are also kept by the library itself and saved with every snapshot, so
+ * replaying only applies the records that the snapshot does not already contain.
+ */
+public class Journal implements Closeable {
+
+    /** "BCIJ" */
+    private static final int MAGIC = 0x4243494A;
+
+    private static final short VERSION = 1;
+
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES;
+
+    private static final String SUFFIX = ".journal";
+
+    private final Path _path;
+    private FileChannel _channel;
+    private long _validLength;
+    private final ByteArrayOutputStream _record = new ByteArrayOutputStream(128);
+    private final DataOutputStream _recordOut = new DataOutputStream(_record);
+    private final CRC32 _crc = new CRC32();
+
+    /**
+     * @param snapshotFilename the snapshot file this journal belongs to
+     */
+    public Journal(String snapshotFilename) {
+        _path = Path.of(snapshotFilename + SUFFIX);
+    }
+
+    /**
+     * Deletes the journal of a snapshot, if there is one.
+     *
+     * @param snapshotFilename the snapshot file
+     * @throws IOException if the journal exists but cannot be deleted
+     */
+    public static void delete(String snapshotFilename) throws IOException {
+        Files.deleteIfExists(Path.of(snapshotFilename + SUFFIX));
+    }
+
+    /**
+     * Replays the journal on top of a library loaded from the matching snapshot.
+     *
+     * Records already contained in the snapshot (sequence not above the library's) are skipped.
+     * Reading stops at the first torn or corrupted record, which is discarded when the journal is opened.
+     *
+     * @param library the library to update
+     * @return the number of records applied
+     * @throws IOException if the journal cannot be read or a record cannot be applied
+     */
+    public int replay(Library library) throws IOException {
+        _validLength = 0;
+        if (!Files.exists(_path) || Files.size(_path) < HEADER_SIZE) return 0;
+
+        int applied = 0;
+        try (MappedRecordReader in = new MappedRecordReader(_path.toString())) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                throw new StreamCorruptedException("Not a library journal: " + _path);
+            }
+            _validLength = in.position();
+            while (in.hasMore()) {
+                ByteBuffer record;
+                try {
+                    record = in.nextRecord();
+                } catch (EOFException e) {
+                    break;
+                }
+                int crc = record.getInt();
+                _crc.reset();
+                _crc.update(record.duplicate());
+                if ((int) _crc.getValue() != crc) break;
+
+                long sequence = record.getLong();
+                JournalOperation operation = JournalOperation.values()[record.get()];
+                int[] args = new int[record.get()];
+                for (int i = 0; i < args.length; i++) {
+                    args[i] = record.getInt();
+                }
+                String[] fields = new String[record.get()];
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i] = in.readString(record);
+                }
+
+                if (sequence > library.getJournalSequence()) {
+                    apply(library, operation, args, fields, sequence);
+                    library.setJournalSequence(sequence);
+                    applied++;
+                }
+                _validLength = in.position();
+            }
+        }
+        return applied;
+    }
+
+    private void apply(Library library, JournalOperation operation, int[] args, String[] fields, long sequence)
+            throws IOException {
+        try {
+            operation.apply(library, args, fields);
+        } catch (NoSuchUserException | NoSuchWorkException | NoSuchCreatorException | UnrecognizedEntryException |
+                 BorrowingRuleFailedException | WorkNotBorrowedByUserException | UserIsActiveException |
+                 UserRegistrationFailedException e) {
+            throw new IOException("Journal record " + sequence + " does not match the snapshot", e);
+        }
+    }
+
+    /**
+     * Opens the journal for appending, after the last valid record found by {@link #replay(Library)}.
+     * A journal that was not replayed is started from scratch.
+     *
+     * @throws IOException if the journal cannot be opened
+     */
+    public void open() throws IOException {
+        _channel = FileChannel.open(_path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (_validLength < HEADER_SIZE) {
+            reset();
+        } else {
+            _channel.truncate(_validLength);
+            _channel.position(_validLength);
+        }
+    }
+
+    /**
+     * Discards every record, after their changes were written to a full snapshot.
+     *
+     * @throws IOException if the journal cannot be truncated
+     */
+    public void reset() throws IOException {
+        _channel.truncate(0);
+        _channel.position(0);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).flip();
+        write(header);
+        _validLength = HEADER_SIZE;
+    }
+
+    /**
+     * Appends an operation with integer arguments.
+     *
+     * @param sequence the sequence number of the operation
+     * @param operation the operation
+     * @param args the operation arguments
+     * @throws IOException if the record cannot be written
+     */
+    public void append(long sequence, JournalOperation operation, int... args) throws IOException {
+        append(sequence, operation, args, new String[0]);
+    }
+
+    /**
+     * Appends a registration with the fields of its entry.
+     *
+     * @param sequence the sequence number of the operation
+     * @param operation the operation
+     * @param fields the entry fields
+     * @throws IOException if the record cannot be written
+     */
+    public void appendEntry(long sequence, JournalOperation operation, String... fields) throws IOException {
+        append(sequence, operation, new int[0], fields);
+    }
+
+    /**
+     * Appends an operation with integer arguments and fields.
+     *
+     * @param sequence the sequence number of the operation
+     * @param operation the operation
+     * @param args the operation arguments
+     * @param fields the operation fields
+     * @throws IOException if the record cannot be written
+     */
+    public void append(long sequence, JournalOperation operation, int[] args, String[] fields) throws IOException {
+        _record.reset();
+        _recordOut.writeLong(sequence);
+        _recordOut.writeByte(operation.ordinal());
+        _recordOut.writeByte(args.length);
+        for (int arg : args) {
+            _recordOut.writeInt(arg);
+        }
+        _recordOut.writeByte(fields.length);
+        for (String field : fields) {
+            SnapshotWriter.writeString(_recordOut, field);
+        }
+
+        byte[] payload = _record.toByteArray();
+        _crc.reset();
+        _crc.update(payload);
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Integer.BYTES + payload.length);
+        buffer.putInt(Integer.BYTES + payload.length).putInt((int) _crc.getValue()).put(payload).flip();
+        write(buffer);
+        _validLength += buffer.limit();
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            _channel.write(buffer);
+        }
+    }
+
+    /**
+     * Forces the appended records to the storage device.
+     *
+     * @throws IOException if the records cannot be forced
+     */
+    public void force() throws IOException {
+        _channel.force(false);
+    }
+
+    /**
+     * @return the current size of the journal, in bytes
+     */
+    public long size() {
+        return _validLength;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (_channel != null) {
+            _channel.close();
+            _channel = null;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package bci.storage;
+
+import bci.Library;
+import bci.exceptions.*;
+import bci.work.workType.Book;
+
+/**
+ * The library mutations that can be recorded in a {@link Journal}.
+ *
+ * Each operation knows how to replay itself on a library, from the integer arguments
+ * or the entry fields that were recorded with it.
+ */
+public enum JournalOperation {
+
+    REQUEST_WORK {
+        @Override
+        void apply(Library library, int[] args, String[] fields) throws NoSuchUserException, NoSuchWorkException,
+                                                                       BorrowingRuleFailedException {
+            library.requestWork(args[0], args[1]);
+        }
+    },
+    RETURN_WORK {
+        @Override
+        void apply(Library library, int[] args, String[] fields) throws NoSuchUserException, NoSuchWorkException,
+                                                                       WorkNotBorrowedByUserException {
+            library.returnWork(args[0], args[1]);
+        }
+    },
+    PAY_FINE {
+        @Override
+        void apply(Library library, int[] args, String[] fields) throws NoSuchUserException, UserIsActiveException {
+            library.payFine(args[0], args[1]);
+        }
+    },
+    ADVANCE_DATE {
+        @Override
+        void apply(Library library, int[] args, String[] fields) {
+            library.advanceDate(args[0]);
+        }
+    },
+    CHANGE_WORK_INVENTORY {
+        @Override
+        void apply(Library library, int[] args, String[] fields) {
+            library.changeWorkInventory(args[0], args[1]);
+        }
+    },
+    REGISTER_USER {
+        @Override
+        void apply(Library library, int[] args, String[] fields) throws UserRegistrationFailedException {
+            library.processUser(fields);
+        }
+    },
+    REGISTER_WORK {
+        @Override
+        void apply(Library library, int[] args, String[] fields) throws NoSuchCreatorException,
+                                                                       UnrecognizedEntryException {
+            library.processWork(fields);
+        }
+    },
+    AVAILABILITY_INTEREST {
+        @Override
+        void apply(Library library, int[] args, String[] fields) {
+            library.registerAvailabilityInterest(args[0], args[1]);
+        }
+    },
+    BORROWING_INTEREST {
+        @Override
+        void apply(Library library, int[] args, String[] fields) {
+            library.registerBorrowingInterest(args[0], args[1]);
+        }
+    },
+    CLEAR_NOTIFICATIONS {
+        @Override
+        void apply(Library library, int[] args, String[] fields) throws NoSuchUserException {
+            library.showUserNotifications(args[0]);
+        }
+    },
+    ADD_AUTHOR {
+        @Override
+        void apply(Library library, int[] args, String[] fields) throws NoSuchWorkException {
+            library.addAuthor(book(library, args[0]), fields[0]);
+        }
+    },
+    REMOVE_AUTHOR {
+        @Override
+        void apply(Library library, int[] args, String[] fields) throws NoSuchWorkException, NoSuchCreatorException {
+            library.removeAuthor(book(library, args[0]), library.creatorByKey(fields[0]));
+        }
+    };
+
+    private static Book book(Library library, int workId) throws NoSuchWorkException {
+        if (library.workByKey(workId) instanceof Book book) return book;
+        throw new NoSuchWorkException(workId);
+    }
+
+    /**
+     * Applies the recorded operation to a library.
+     *
+     * @param library the library being rebuilt
+     * @param args the integer arguments of the operation
+     * @param fields the entry fields of the operation (registrations only)
+     */
+    abstract void apply(Library library, int[] args, String[] fields) throws NoSuchUserException, NoSuchWorkException,
+                                                                            NoSuchCreatorException, UnrecognizedEntryException,
+                                                                            BorrowingRuleFailedException,
+                                                                            WorkNotBorrowedByUserException, UserIsActiveException,
+                                                                            UserRegistrationFailedException;
+}
@@ -0,0 +1,95 @@
+package bci.storage;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads length-prefixed records from a file through a memory-mapped {@link FileChannel}.
+ *
+ * The file is mapped in windows, so files larger than a single mapping can be read. A record is
+ * always handed out whole, as a buffer positioned at its first byte and limited to its payload.
+ */
+class MappedRecordReader implements Closeable {
+
+    private static final long WINDOW_SIZE = 64L << 20;
+
+    private final FileChannel _channel;
+    private final long _size;
+    private long _windowStart;
+    private MappedByteBuffer _window;
+    private byte[] _scratch = new byte[256];
+
+    MappedRecordReader(String filename) throws IOException {
+        _channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ);
+        _size = _channel.size();
+    }
+
+    int readInt() throws IOException {
+        ensure(Integer.BYTES);
+        return _window.getInt();
+    }
+
+    long readLong() throws IOException {
+        ensure(Long.BYTES);
+        return _window.getLong();
+    }
+
+    short readShort() throws IOException {
+        ensure(Short.BYTES);
+        return _window.getShort();
+    }
+
+    boolean hasMore() {
+        return position() < _size;
+    }
+
+    long position() {
+        return _window == null ? 0 : _windowStart + _window.position();
+    }
+
+    /**
+     * Returns the next record as a buffer limited to its payload.
+     */
+    ByteBuffer nextRecord() throws IOException {
+        int length = readInt();
+        if (length < 0) throw new IOException("Invalid record length " + length + " at " + position());
+        ensure(length);
+        ByteBuffer record = _window.slice();
+        record.limit(length);
+        _window.position(_window.position() + length);
+        return record;
+    }
+
+    /**
+     * Decodes a length-prefixed UTF-8 string from a record.
+     */
+    String readString(ByteBuffer record) {
+        int length = record.getInt();
+        if (_scratch.length < length) {
+            _scratch = new byte[Math.max(length, _scratch.length * 2)];
+        }
+        record.get(_scratch, 0, length);
+        return new String(_scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (_window != null && _window.remaining() >= bytes) return;
+        long position = position();
+        if (position + bytes > _size) throw new EOFException();
+        long length = Math.min(_size - position, Math.max(WINDOW_SIZE, bytes));
+        _window = _channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        _windowStart = position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        _channel.close();
+    }
+}
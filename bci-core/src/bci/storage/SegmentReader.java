@@ -0,0 +1,105 @@
+package bci.storage;
+
+import bci.Library;
+import bci.creator.Creator;
+import bci.work.Work;
+import bci.work.workType.Book;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies a segment (see {@link Segments}) to a library.
+ *
+ * Users and works already in the library are updated in place, so that the requests
+ * that refer to them stay valid.
+ */
+class SegmentReader extends SnapshotReader {
+
+    SegmentReader(Library library, String filename) throws IOException {
+        super(library, filename);
+    }
+
+    void apply() throws IOException {
+        if (_in.readInt() != Segments.MAGIC || _in.readShort() != Segments.VERSION) {
+            throw new StreamCorruptedException("Not a library segment: " + _filename);
+        }
+        _library.restoreCurrentDate(_in.readInt());
+        _library.setJournalSequence(_in.readLong());
+
+        while (_in.hasMore()) {
+            ByteBuffer record = _in.nextRecord();
+            byte type = record.get();
+            switch (type) {
+                case Segments.CREATOR -> creator(_in.readString(record));
+                case Segments.USER -> _library.restoreUser(decodeUser(record));
+                case Segments.WORK -> _library.restoreWork(decodeWork(record));
+                case Segments.AVAILABILITY_INTEREST -> _library.restoreInterests(true, record.getInt(), readIds(record));
+                case Segments.BORROWING_INTEREST -> _library.restoreInterests(false, record.getInt(), readIds(record));
+                case Segments.LOAN -> {
+                    record.mark();
+                    _library.discardRequest(record.getInt(), record.getInt());
+                    record.reset();
+                    _library.restoreRequest(decodeRequest(record));
+                }
+                case Segments.LOAN_END -> _library.discardRequest(record.getInt(), record.getInt());
+                default -> throw new StreamCorruptedException("Unknown segment record " + type);
+            }
+        }
+    }
+
+    @Override
+    Work decodeWork(ByteBuffer record) throws IOException {
+        record.mark();
+        record.get();
+        Work existing = _library.getWork(record.getInt());
+        record.reset();
+        if (existing == null) {
+            return super.decodeWork(record);
+        }
+        // only the inventory and the authors of an existing work can change: skip to them
+        record.position(record.position() + 1 + Integer.BYTES);
+        skipString(record);
+        record.getInt();
+        record.get();
+        skipString(record);
+        existing.setTotalCopies(record.getInt());
+        existing.setAvailableCopies(record.getInt());
+        List<Creator> creators = readCreators(record);
+        if (existing instanceof Book book) {
+            for (Creator author : book.getAuthor()) {
+                if (!creators.contains(author)) book.removeAuthor(author);
+            }
+            for (Creator author : creators) {
+                book.addAuthor(author);
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    List<Creator> readCreators(ByteBuffer record) {
+        int count = record.getInt();
+        List<Creator> creators = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            creators.add(creator(_in.readString(record)));
+        }
+        return creators;
+    }
+
+    private Creator creator(String name) {
+        return _library.findCreator(name).orElseGet(() -> {
+            Creator creator = new Creator(name);
+            _library.restoreCreator(creator);
+            return creator;
+        });
+    }
+
+    private static void skipString(ByteBuffer record) {
+        int length = record.getInt();
+        record.position(record.position() + length);
+    }
+}
@@ -0,0 +1,106 @@
+package bci.storage;
+
+import bci.Library;
+import bci.creator.Creator;
+import bci.request.Request;
+import bci.user.User;
+import bci.work.Work;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes the changed entities of a library as a segment (see {@link Segments}).
+ *
+ * Records reuse the encodings of {@link SnapshotWriter}, except that works refer to their
+ * creators by name, since a segment has no creators section of its own.
+ */
+class SegmentWriter extends SnapshotWriter {
+
+    private static final List<Integer> NONE = List.of();
+
+    SegmentWriter(Library library) {
+        super(library);
+    }
+
+    @Override
+    long write(String filename) throws IOException {
+        ChangeSet changes = _library.getChanges();
+        try (DataOutputStream out = new DataOutputStream(
+                                    new BufferedOutputStream(
+                                    new FileOutputStream(filename), BUFFER_SIZE))) {
+            out.writeInt(Segments.MAGIC);
+            out.writeShort(Segments.VERSION);
+            out.writeInt(_library.getCurrentDate());
+            out.writeLong(_library.getJournalSequence());
+
+            for (String name : changes.getCreators()) {
+                _recordOut.writeByte(Segments.CREATOR);
+                writeString(_recordOut, name);
+                flushRecord(out);
+            }
+            for (int userId : changes.getUsers()) {
+                User user = _library.getUser(userId);
+                if (user == null) continue;
+                _recordOut.writeByte(Segments.USER);
+                encodeUser(user, _recordOut);
+                flushRecord(out);
+            }
+            for (int workId : changes.getWorks()) {
+                Work work = _library.getWork(workId);
+                if (work != null) {
+                    _recordOut.writeByte(Segments.WORK);
+                    encodeWork(work, _recordOut);
+                    flushRecord(out);
+                }
+                writeInterests(Segments.AVAILABILITY_INTEREST, workId,
+                               _library.getAvailabilityInterests().getOrDefault(workId, NONE), out);
+                writeInterests(Segments.BORROWING_INTEREST, workId,
+                               _library.getBorrowingInterests().getOrDefault(workId, NONE), out);
+            }
+            writeLoans(changes, out);
+            return out.size();
+        }
+    }
+
+    /**
+     * Writes the changed loans that are active, in request order, then the ones that ended.
+     */
+    private void writeLoans(ChangeSet changes, DataOutputStream out) throws IOException {
+        Set<Long> ended = new HashSet<>(changes.getLoans());
+        for (Request request : _library.getActiveRequests()) {
+            long key = ChangeSet.loanKey(request.getUser().getIdUser(), request.getWork().getIdWork());
+            if (ended.remove(key)) {
+                _recordOut.writeByte(Segments.LOAN);
+                encodeRequest(request, _recordOut);
+                flushRecord(out);
+            }
+        }
+        for (long key : ended) {
+            _recordOut.writeByte(Segments.LOAN_END);
+            _recordOut.writeInt(ChangeSet.loanUser(key));
+            _recordOut.writeInt(ChangeSet.loanWork(key));
+            flushRecord(out);
+        }
+    }
+
+    private void writeInterests(byte type, int workId, List<Integer> userIds, DataOutputStream out) throws IOException {
+        _recordOut.writeByte(type);
+        _recordOut.writeInt(workId);
+        writeIds(_recordOut, userIds);
+        flushRecord(out);
+    }
+
+    @Override
+    void writeCreators(List<Creator> creators, DataOutputStream out) throws IOException {
+        out.writeInt(creators.size());
+        for (Creator creator : creators) {
+            writeString(out, creator.getName());
+        }
+    }
+}
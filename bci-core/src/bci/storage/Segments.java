@@ -0,0 +1,99 @@
+package bci.storage;
+
+import bci.Library;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Incremental saves of a library, kept as numbered segment files next to its base file.
+ *
+ * A segment holds only the users, works, creators and loans that changed since the previous
+ * save (see {@link ChangeSet}). Loading applies the segments in order on top of the base file;
+ * merging folds them back into a new base file.
+ *
+ * Segment layout: magic, version, current date, journal sequence, then records made of an
+ * int length and a payload that starts with the record type.
+ */
+public final class Segments {
+
+    /** "BCIG" */
+    static final int MAGIC = 0x42434947;
+
+    static final short VERSION = 1;
+
+    static final byte CREATOR = 1;
+    static final byte USER = 2;
+    static final byte WORK = 3;
+    static final byte AVAILABILITY_INTEREST = 4;
+    static final byte BORROWING_INTEREST = 5;
+    static final byte LOAN = 6;
+    static final byte LOAN_END = 7;
+
+    private static final String SUFFIX = ".seg";
+
+    private Segments() {
+    }
+
+    /**
+     * Writes the changes of a library as the next segment of a base file.
+     *
+     * @param library the library
+     * @param baseFilename the base file
+     * @return the number of bytes written
+     * @throws IOException if an I/O error occurs
+     */
+    public static long writeNext(Library library, String baseFilename) throws IOException {
+        return new SegmentWriter(library).write(segmentName(baseFilename, count(baseFilename) + 1));
+    }
+
+    /**
+     * Applies every segment of a base file, in order, to the library read from that file.
+     *
+     * @param library the library read from the base file
+     * @param baseFilename the base file
+     * @return the number of segments applied
+     * @throws IOException if a segment cannot be read
+     */
+    public static int applyAll(Library library, String baseFilename) throws IOException {
+        int count = count(baseFilename);
+        for (int n = 1; n <= count; n++) {
+            try (SegmentReader reader = new SegmentReader(library, segmentName(baseFilename, n))) {
+                reader.apply();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts the segments of a base file.
+     *
+     * @param baseFilename the base file
+     * @return the number of segments
+     */
+    public static int count(String baseFilename) {
+        int count = 0;
+        while (new File(segmentName(baseFilename, count + 1)).exists()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Deletes every segment of a base file.
+     *
+     * @param baseFilename the base file
+     * @throws IOException if a segment cannot be deleted
+     */
+    public static void deleteAll(String baseFilename) throws IOException {
+        for (int n = count(baseFilename); n > 0; n--) {
+            Files.delete(Path.of(segmentName(baseFilename, n)));
+        }
+    }
+
+    static String segmentName(String baseFilename, int n) {
+        return baseFilename + SUFFIX + n;
+    }
+}
@@ -0,0 +1,56 @@
+package bci.storage;
+
+import bci.Library;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The original snapshot format of a {@link Library}: its whole object graph, written with Java
+ * serialization.
+ */
+public final class SerializedSnapshot {
+
+    private SerializedSnapshot() {
+    }
+
+    /**
+     * Writes the library to the given file with Java serialization.
+     *
+     * @param library the library to save
+     * @param filename the destination file
+     * @return the number of bytes written
+     * @throws IOException if an I/O error occurs
+     */
+    public static long write(Library library, String filename) throws IOException {
+        try (ObjectOutputStream oos = new ObjectOutputStream(
+                                      new BufferedOutputStream(
+                                      new FileOutputStream(filename)))) {
+            oos.writeObject(library);
+        }
+        return Files.size(Path.of(filename));
+    }
+
+    /**
+     * Reads a library written with Java serialization.
+     *
+     * @param filename the snapshot file
+     * @return the library
+     * @throws IOException if the file cannot be read
+     * @throws ClassNotFoundException if the file holds a class that is not known
+     */
+    public static Library read(String filename) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(
+                                     new BufferedInputStream(
+                                     new FileInputStream(filename)))) {
+            return (Library) ois.readObject();
+        }
+    }
+}
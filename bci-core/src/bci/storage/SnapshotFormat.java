@@ -0,0 +1,13 @@
+package bci.storage;
+
+/**
+ * The on-disk formats that {@link bci.LibraryManager} can use when saving a library.
+ *
+ * {@link #SERIALIZED} writes the whole object graph with Java serialization (the original format).
+ * {@link #BINARY} writes the versioned record format of {@link BinarySnapshot}.
+ * Loading detects the format of the file, so both can be read whatever is selected for saving.
+ */
+public enum SnapshotFormat {
+    SERIALIZED,
+    BINARY
+}
@@ -0,0 +1,177 @@
+package bci.storage;
+
+import bci.Library;
+import bci.creator.Creator;
+import bci.exceptions.UnrecognizedEntryException;
+import bci.notification.AvailabilityNotification;
+import bci.notification.BorrowingNotification;
+import bci.request.Request;
+import bci.user.User;
+import bci.work.Work;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a {@link Library} written in the format described in {@link BinarySnapshot}.
+ */
+class SnapshotReader implements Closeable {
+
+    protected final Library _library;
+    protected final String _filename;
+    protected final MappedRecordReader _in;
+    private Creator[] _creators;
+
+    /**
+     * Opens a file to read into a library.
+     *
+     * @param library the library to fill
+     * @param filename the file to read
+     * @throws IOException if the file cannot be opened
+     */
+    SnapshotReader(Library library, String filename) throws IOException {
+        _library = library;
+        _filename = filename;
+        _in = new MappedRecordReader(filename);
+    }
+
+    Library read() throws IOException {
+        if (_in.readInt() != BinarySnapshot.MAGIC) {
+            throw new StreamCorruptedException("Not a library snapshot: " + _filename);
+        }
+        short version = _in.readShort();
+        if (version != BinarySnapshot.VERSION && version != BinarySnapshot.VERSION_WITHOUT_JOURNAL) {
+            throw new StreamCorruptedException("Unsupported snapshot version " + version);
+        }
+        _library.restoreCurrentDate(_in.readInt());
+        if (version != BinarySnapshot.VERSION_WITHOUT_JOURNAL) {
+            _library.setJournalSequence(_in.readLong());
+        }
+        int creatorCount = _in.readInt();
+        int userCount = _in.readInt();
+        int workCount = _in.readInt();
+        int requestCount = _in.readInt();
+        int availabilityCount = _in.readInt();
+        int borrowingCount = _in.readInt();
+
+        _creators = new Creator[creatorCount];
+        for (int i = 0; i < creatorCount; i++) {
+            _creators[i] = new Creator(_in.readString(_in.nextRecord()));
+            _library.restoreCreator(_creators[i]);
+        }
+        for (int i = 0; i < userCount; i++) {
+            _library.restoreUser(decodeUser(_in.nextRecord()));
+        }
+        for (int i = 0; i < workCount; i++) {
+            _library.restoreWork(decodeWork(_in.nextRecord()));
+        }
+        for (int i = 0; i < requestCount; i++) {
+            _library.restoreRequest(decodeRequest(_in.nextRecord()));
+        }
+        readInterests(true, availabilityCount);
+        readInterests(false, borrowingCount);
+        _library.setChanged(false);
+        return _library;
+    }
+
+    User decodeUser(ByteBuffer record) {
+        User user = new User(record.getInt(), _in.readString(record), _in.readString(record));
+        if (record.get() != 0) {
+            user.suspend();
+        }
+        user.setBehavior(BinarySnapshot.behavior(record.get()));
+        user.setConsecutiveLate(record.getInt());
+        user.setConsecutiveOnTime(record.getInt());
+        user.setFines(record.getInt());
+        user.setCurrentRequests(record.getInt());
+        for (int workId : readIds(record)) {
+            user.addInterestWork(workId);
+        }
+        for (int workId : readIds(record)) {
+            user.addRequestedWork(workId);
+        }
+        int notifications = record.getInt();
+        for (int i = 0; i < notifications; i++) {
+            byte type = record.get();
+            int timestamp = record.getInt();
+            String description = _in.readString(record);
+            user.addNotification(type == BinarySnapshot.NOTIFICATION_AVAILABILITY
+                                 ? new AvailabilityNotification(timestamp, description)
+                                 : new BorrowingNotification(timestamp, description));
+        }
+        return user;
+    }
+
+    Work decodeWork(ByteBuffer record) throws IOException {
+        byte type = record.get();
+        int id = record.getInt();
+        String title = _in.readString(record);
+        int price = record.getInt();
+        String categoryKey = BinarySnapshot.categoryKey(record.get());
+        String additionalInfo = _in.readString(record);
+        int totalCopies = record.getInt();
+        int availableCopies = record.getInt();
+        List<Creator> creators = readCreators(record);
+
+        Work work;
+        try {
+            work = _library.createWork(type == BinarySnapshot.WORK_BOOK ? "BOOK" : "DVD", id, title, price,
+                                       _library.getCategoryByName(categoryKey), additionalInfo, creators, 1);
+        } catch (UnrecognizedEntryException e) {
+            throw new StreamCorruptedException("Invalid work record " + id);
+        }
+        work.setTotalCopies(totalCopies);
+        work.setAvailableCopies(availableCopies);
+        return work;
+    }
+
+    /**
+     * Reads the creators of a work, given as positions in the creators section.
+     */
+    List<Creator> readCreators(ByteBuffer record) {
+        int creatorCount = record.getInt();
+        List<Creator> creators = new ArrayList<>(creatorCount);
+        for (int i = 0; i < creatorCount; i++) {
+            creators.add(_creators[record.getInt()]);
+        }
+        return creators;
+    }
+
+    Request decodeRequest(ByteBuffer record) throws IOException {
+        int userId = record.getInt();
+        int workId = record.getInt();
+        User user = _library.getUser(userId);
+        Work work = _library.getWork(workId);
+        if (user == null || work == null) {
+            throw new StreamCorruptedException("Request of user " + userId + " for work " + workId +
+                                               " refers to a missing user or work");
+        }
+        return new Request(user, work, record.getInt(), record.getInt());
+    }
+
+    private void readInterests(boolean availability, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            ByteBuffer record = _in.nextRecord();
+            int workId = record.getInt();
+            _library.restoreInterests(availability, workId, readIds(record));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        _in.close();
+    }
+
+    static List<Integer> readIds(ByteBuffer record) {
+        int count = record.getInt();
+        List<Integer> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(record.getInt());
+        }
+        return ids;
+    }
+}
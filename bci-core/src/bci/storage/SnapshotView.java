@@ -0,0 +1,116 @@
+package bci.storage;
+
+import bci.Library;
+import bci.creator.Creator;
+import bci.request.Request;
+import bci.user.User;
+import bci.work.Work;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A consistent point-in-time view of a library, taken when a background save starts.
+ *
+ * Taking the view only copies what is small or cheap to copy (counters, the creators, the active
+ * requests and the interest maps). Users and works are read from the live library while the save
+ * runs; the library calls {@link #preserveUser(User)} and {@link #preserveWork(Work)} before it
+ * modifies one of them, and the view keeps the encoded state of the entity at the time of the
+ * view if it was not written yet (copy-on-write). Entities created after the view are not part of it.
+ *
+ * All methods must be called while holding the library's lock.
+ */
+public class SnapshotView {
+
+    final int _currentDate;
+    final long _journalSequence;
+    final int _userCount;
+    final int _workCount;
+    final List<Creator> _creators;
+    final List<byte[]> _requests = new ArrayList<>();
+    final Map<Integer, List<Integer>> _availabilityInterests = new LinkedHashMap<>();
+    final Map<Integer, List<Integer>> _borrowingInterests = new LinkedHashMap<>();
+    final ChangeSet _changes;
+
+    private final SnapshotWriter _encoder;
+    private final Map<Integer, byte[]> _userImages = new HashMap<>();
+    private final Map<Integer, byte[]> _workImages = new HashMap<>();
+    private final BitSet _usersWritten = new BitSet();
+    private final BitSet _worksWritten = new BitSet();
+
+    SnapshotView(Library library) throws IOException {
+        _currentDate = library.getCurrentDate();
+        _journalSequence = library.getJournalSequence();
+        _userCount = library.getCurrentUserID() - 1;
+        _workCount = library.getCurrentWorkID() - 1;
+        _creators = new ArrayList<>(library.getAllCreators());
+        _encoder = new SnapshotWriter(library);
+        _encoder.indexCreators(_creators);
+        for (Request request : library.getActiveRequests()) {
+            _requests.add(_encoder.requestRecord(request));
+        }
+        copyInterests(library.getAvailabilityInterests(), _availabilityInterests);
+        copyInterests(library.getBorrowingInterests(), _borrowingInterests);
+        _changes = library.getChanges().copy();
+    }
+
+    private static void copyInterests(Map<Integer, List<Integer>> from, Map<Integer, List<Integer>> to) {
+        for (Map.Entry<Integer, List<Integer>> entry : from.entrySet()) {
+            to.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+    }
+
+    /**
+     * Keeps the current state of a user that is about to change, if the save still needs it.
+     *
+     * @param user the user about to change
+     */
+    public void preserveUser(User user) {
+        int id = user.getIdUser();
+        if (id > _userCount || _usersWritten.get(id) || _userImages.containsKey(id)) return;
+        try {
+            _userImages.put(id, _encoder.userRecord(user));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Keeps the current state of a work that is about to change, if the save still needs it.
+     *
+     * @param work the work about to change
+     */
+    public void preserveWork(Work work) {
+        int id = work.getIdWork();
+        if (id > _workCount || _worksWritten.get(id) || _workImages.containsKey(id)) return;
+        try {
+            _workImages.put(id, _encoder.workRecord(work));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the record of a user as it was when the view was taken.
+     */
+    byte[] userRecord(Library library, int id) throws IOException {
+        _usersWritten.set(id);
+        byte[] image = _userImages.remove(id);
+        return image != null ? image : _encoder.userRecord(library.getUser(id));
+    }
+
+    /**
+     * Returns the record of a work as it was when the view was taken.
+     */
+    byte[] workRecord(Library library, int id) throws IOException {
+        _worksWritten.set(id);
+        byte[] image = _workImages.remove(id);
+        return image != null ? image : _encoder.workRecord(library.getWork(id));
+    }
+}
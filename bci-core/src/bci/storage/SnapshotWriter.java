@@ -0,0 +1,208 @@
+package bci.storage;
+
+import bci.Library;
+import bci.creator.Creator;
+import bci.notification.AvailabilityNotification;
+import bci.notification.Notification;
+import bci.request.Request;
+import bci.user.User;
+import bci.work.Work;
+import bci.work.workType.Book;
+import bci.work.workType.DVD;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a {@link Library} in the format described in {@link BinarySnapshot}.
+ *
+ * Each record is first encoded into a reusable buffer, so that its length can be written before it.
+ */
+class SnapshotWriter {
+
+    static final int BUFFER_SIZE = 1 << 16;
+
+    final Library _library;
+    private final Map<Creator, Integer> _creatorIndex = new IdentityHashMap<>();
+    final ByteArrayOutputStream _record = new ByteArrayOutputStream(256);
+    final DataOutputStream _recordOut = new DataOutputStream(_record);
+
+    SnapshotWriter(Library library) {
+        _library = library;
+    }
+
+    long write(String filename) throws IOException {
+        List<Creator> creators = new ArrayList<>(_library.getAllCreators());
+        indexCreators(creators);
+        int userCount = _library.getCurrentUserID() - 1;
+        int workCount = _library.getCurrentWorkID() - 1;
+        List<Request> requests = _library.getActiveRequests();
+        Map<Integer, List<Integer>> availability = _library.getAvailabilityInterests();
+        Map<Integer, List<Integer>> borrowing = _library.getBorrowingInterests();
+
+        try (DataOutputStream out = new DataOutputStream(
+                                    new BufferedOutputStream(
+                                    new FileOutputStream(filename), BUFFER_SIZE))) {
+            out.writeInt(BinarySnapshot.MAGIC);
+            out.writeShort(BinarySnapshot.VERSION);
+            out.writeInt(_library.getCurrentDate());
+            out.writeLong(_library.getJournalSequence());
+            out.writeInt(creators.size());
+            out.writeInt(userCount);
+            out.writeInt(workCount);
+            out.writeInt(requests.size());
+            out.writeInt(availability.size());
+            out.writeInt(borrowing.size());
+
+            for (Creator creator : creators) {
+                writeString(_recordOut, creator.getName());
+                flushRecord(out);
+            }
+            for (int id = 1; id <= userCount; id++) {
+                encodeUser(_library.getUser(id), _recordOut);
+                flushRecord(out);
+            }
+            for (int id = 1; id <= workCount; id++) {
+                encodeWork(_library.getWork(id), _recordOut);
+                flushRecord(out);
+            }
+            for (Request request : requests) {
+                encodeRequest(request, _recordOut);
+                flushRecord(out);
+            }
+            writeInterests(availability, out);
+            writeInterests(borrowing, out);
+            return out.size();
+        }
+    }
+
+    /**
+     * Sets the positions of the creators in the creators section.
+     */
+    void indexCreators(List<Creator> creators) {
+        for (int i = 0; i < creators.size(); i++) {
+            _creatorIndex.put(creators.get(i), i);
+        }
+    }
+
+    byte[] userRecord(User user) throws IOException {
+        encodeUser(user, _recordOut);
+        return takeRecord();
+    }
+
+    byte[] workRecord(Work work) throws IOException {
+        encodeWork(work, _recordOut);
+        return takeRecord();
+    }
+
+    byte[] requestRecord(Request request) throws IOException {
+        encodeRequest(request, _recordOut);
+        return takeRecord();
+    }
+
+    private byte[] takeRecord() {
+        byte[] record = _record.toByteArray();
+        _record.reset();
+        return record;
+    }
+
+    void encodeUser(User user, DataOutputStream out) throws IOException {
+        out.writeInt(user.getIdUser());
+        writeString(out, user.getName());
+        writeString(out, user.getEmail());
+        out.writeBoolean(user.isSuspended());
+        out.writeByte(BinarySnapshot.behaviorCode(user));
+        out.writeInt(user.getConsecutiveLate());
+        out.writeInt(user.getCurrentOnTime());
+        out.writeInt(user.getFines());
+        out.writeInt(user.getCurrentRequests());
+        writeIds(out, user.getInterestWorks());
+        writeIds(out, user.getRequestedWorks());
+        List<Notification> notifications = user.getNotifications();
+        out.writeInt(notifications.size());
+        for (Notification notification : notifications) {
+            out.writeByte(notification instanceof AvailabilityNotification
+                          ? BinarySnapshot.NOTIFICATION_AVAILABILITY
+                          : BinarySnapshot.NOTIFICATION_BORROWING);
+            out.writeInt(notification.getTimestamp());
+            writeString(out, notification.getWorkDescription());
+        }
+    }
+
+    void encodeWork(Work work, DataOutputStream out) throws IOException {
+        List<Creator> creators = new ArrayList<>();
+        String additionalInfo;
+        if (work instanceof Book book) {
+            out.writeByte(BinarySnapshot.WORK_BOOK);
+            creators.addAll(book.getAuthor());
+            additionalInfo = book.getIsbn();
+        } else {
+            DVD dvd = (DVD) work;
+            out.writeByte(BinarySnapshot.WORK_DVD);
+            if (dvd.getDirector() != null) {
+                creators.add(dvd.getDirector());
+            }
+            additionalInfo = dvd.getIgac();
+        }
+        out.writeInt(work.getIdWork());
+        writeString(out, work.getTitle());
+        out.writeInt(work.getPrice());
+        out.writeByte(BinarySnapshot.categoryCode(work.getCategory()));
+        writeString(out, additionalInfo);
+        out.writeInt(work.getTotalCopies());
+        out.writeInt(work.getAvailableCopies());
+        writeCreators(creators, out);
+    }
+
+    /**
+     * Writes the creators of a work as positions in the creators section.
+     */
+    void writeCreators(List<Creator> creators, DataOutputStream out) throws IOException {
+        out.writeInt(creators.size());
+        for (Creator creator : creators) {
+            out.writeInt(_creatorIndex.get(creator));
+        }
+    }
+
+    void encodeRequest(Request request, DataOutputStream out) throws IOException {
+        out.writeInt(request.getUser().getIdUser());
+        out.writeInt(request.getWork().getIdWork());
+        out.writeInt(request.getRequestDate());
+        out.writeInt(request.getRequestLimit());
+    }
+
+    private void writeInterests(Map<Integer, List<Integer>> interests, DataOutputStream out) throws IOException {
+        for (Map.Entry<Integer, List<Integer>> entry : interests.entrySet()) {
+            _recordOut.writeInt(entry.getKey());
+            writeIds(_recordOut, entry.getValue());
+            flushRecord(out);
+        }
+    }
+
+    void flushRecord(DataOutputStream out) throws IOException {
+        out.writeInt(_record.size());
+        _record.writeTo(out);
+        _record.reset();
+    }
+
+    static void writeIds(DataOutputStream out, List<Integer> ids) throws IOException {
+        out.writeInt(ids.size());
+        for (int id : ids) {
+            out.writeInt(id);
+        }
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
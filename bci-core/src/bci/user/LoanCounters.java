@@ -0,0 +1,82 @@
+package bci.user;
+
+import java.util.Arrays;
+
+/**
+ * The loan counters of the users of a library, in columns of {@code int}s indexed by user ID:
+ * current requests, fines, and consecutive returns on time and late.
+ *
+ * A user registered in the library is {@linkplain User#attach(LoanCounters) attached} to its
+ * counters, and from then on they are read and written here, so that the checks made on each
+ * request read an {@code int} from an array. Must be used while holding the library's lock,
+ * like the users.
+ */
+public final class LoanCounters {
+
+    private int[] _currentRequests = new int[16];
+    private int[] _fines = new int[16];
+    private int[] _consecutiveOnTime = new int[16];
+    private int[] _consecutiveLate = new int[16];
+
+    /**
+     * @param id a user ID
+     * @return the number of works the user has borrowed and not returned
+     */
+    public int getCurrentRequests(int id) {
+        return id < _currentRequests.length ? _currentRequests[id] : 0;
+    }
+
+    /**
+     * @param id a user ID
+     * @return the fines the user owes
+     */
+    public int getFines(int id) {
+        return id < _fines.length ? _fines[id] : 0;
+    }
+
+    /**
+     * @param id a user ID
+     * @return the number of consecutive works the user returned on time
+     */
+    public int getConsecutiveOnTime(int id) {
+        return id < _consecutiveOnTime.length ? _consecutiveOnTime[id] : 0;
+    }
+
+    /**
+     * @param id a user ID
+     * @return the number of consecutive works the user returned late
+     */
+    public int getConsecutiveLate(int id) {
+        return id < _consecutiveLate.length ? _consecutiveLate[id] : 0;
+    }
+
+    void setCurrentRequests(int id, int currentRequests) {
+        ensureCapacity(id);
+        _currentRequests[id] = currentRequests;
+    }
+
+    void setFines(int id, int fines) {
+        ensureCapacity(id);
+        _fines[id] = fines;
+    }
+
+    void setConsecutiveOnTime(int id, int consecutiveOnTime) {
+        ensureCapacity(id);
+        _consecutiveOnTime[id] = consecutiveOnTime;
+    }
+
+    void setConsecutiveLate(int id, int consecutiveLate) {
+        ensureCapacity(id);
+        _consecutiveLate[id] = consecutiveLate;
+    }
+
+    private void ensureCapacity(int id) {
+        if (id >= _fines.length) {
+            int capacity = Math.max(id + 1, _fines.length + (_fines.length >> 1));
+            _currentRequests = Arrays.copyOf(_currentRequests, capacity);
+            _fines = Arrays.copyOf(_fines, capacity);
+            _consecutiveOnTime = Arrays.copyOf(_consecutiveOnTime, capacity);
+            _consecutiveLate = Arrays.copyOf(_consecutiveLate, capacity);
+        }
+    }
+}
@@ -4,6 +4,8 @@ import bci.user.behaviorInterface.*;
 import bci.request.Request;
 import bci.notification.Notification;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.List;
 import java.util.ArrayList;
@@ -18,10 +20,11 @@ public class User implements Serializable {
     private String _email;
     private String _status;
     private UserBehavior _behavior; 
-    private int _consecutiveLate; 
+    private int _consecutiveLate; // these four until attached to loan counters, and as serialized
     private int _fines;
     private int _currentRequests;
     private int _consecutiveOnTime;
+    private transient LoanCounters _counters; // of the library, once the user is registered in it
     private List<Integer> _interestWork; 
     private List<Notification> _notifications; 
     private List<Integer> _requestedWorks; 
@@ -42,6 +45,20 @@ public class User implements Serializable {
         _requestedWorks = new ArrayList<>();
     }
 
+    /**
+     * Moves the loan counters of the user to those of its library, where they are kept from
+     * then on.
+     *
+     * @param counters the loan counters of the library
+     */
+    public void attach(LoanCounters counters) {
+        counters.setCurrentRequests(_idUser, getCurrentRequests());
+        counters.setFines(_idUser, getFines());
+        counters.setConsecutiveOnTime(_idUser, getCurrentOnTime());
+        counters.setConsecutiveLate(_idUser, getConsecutiveLate());
+        _counters = counters;
+    }
+
     public void suspend() {
         _status = "SUSPENSO";
     }
@@ -55,25 +72,25 @@ public class User implements Serializable {
     }
     
     public void addLateRequest(Request request) {
-        _consecutiveLate += 1;
+        setConsecutiveLate(getConsecutiveLate() + 1);
     }
 
     public void addConsecutiveOnTime(Request request) {
-        _consecutiveOnTime += 1;
+        setConsecutiveOnTime(getCurrentOnTime() + 1);
     }
     
     public void addFine(int value) {
-        _fines += value;
+        setFines(getFines() + value);
     }
 
 
     public void recordReturn(boolean wasOnTime) {
         if (wasOnTime) {
-            _consecutiveOnTime++;
-            _consecutiveLate = 0; 
+            setConsecutiveOnTime(getCurrentOnTime() + 1);
+            setConsecutiveLate(0); 
         } else {
-            _consecutiveLate++;
-            _consecutiveOnTime = 0;
+            setConsecutiveLate(getConsecutiveLate() + 1);
+            setConsecutiveOnTime(0);
         }
         calculateAndUpdateBehavior();
     }
@@ -87,31 +104,33 @@ public class User implements Serializable {
     }
     
     public void calculateAndUpdateBehavior() {
-        if (_consecutiveOnTime >= 5) {
+        int consecutiveOnTime = getCurrentOnTime();
+        int consecutiveLate = getConsecutiveLate();
+        if (consecutiveOnTime >= 5) {
             _behavior = new Dutiful();
         }
-        else if (_consecutiveLate >= 3) {
+        else if (consecutiveLate >= 3) {
             _behavior = new Overdue();
         }
-        else if (_behavior instanceof Overdue && _consecutiveOnTime >= 3) {
+        else if (_behavior instanceof Overdue && consecutiveOnTime >= 3) {
             _behavior = new Normal();
         }
-        else if (_behavior instanceof Dutiful && _consecutiveOnTime == 0) {
+        else if (_behavior instanceof Dutiful && consecutiveOnTime == 0) {
             _behavior = new Normal();
         }
-        else if (_consecutiveOnTime == 0 && _consecutiveLate == 0) {
+        else if (consecutiveOnTime == 0 && consecutiveLate == 0) {
             _behavior = new Normal();
         }
     }
     
     public void updateStatus() {
-        if (_fines > 0) {
+        if (getFines() > 0) {
             this.suspend();
         }
     }
     
     public void zeroFine(int amount) {
-        _fines = 0;
+        setFines(0);
     }
     
     public void addNotification(Notification notification) {
@@ -148,6 +167,21 @@ public class User implements Serializable {
         _interestWork.remove(Integer.valueOf(workId));
     }
 
+    /**
+     * Copies the mutable state of another instance of the same user, as read from a save.
+     */
+    public void restoreState(User source) {
+        _status = source._status;
+        _behavior = source._behavior;
+        setConsecutiveLate(source.getConsecutiveLate());
+        setFines(source.getFines());
+        setCurrentRequests(source.getCurrentRequests());
+        setConsecutiveOnTime(source.getCurrentOnTime());
+        _interestWork = new ArrayList<>(source._interestWork);
+        _notifications = new ArrayList<>(source._notifications);
+        _requestedWorks = new ArrayList<>(source._requestedWorks);
+    }
+
     public boolean hasNotifications() {
         return !_notifications.isEmpty();
     }
@@ -186,11 +220,11 @@ public class User implements Serializable {
     }
     
     public int getFines() {
-        return _fines;
+        return _counters != null ? _counters.getFines(_idUser) : _fines;
     }
     
     public int getCurrentRequests() {
-        return _currentRequests;
+        return _counters != null ? _counters.getCurrentRequests(_idUser) : _currentRequests;
     }
     
     public int getMaxAllowedWorks() {
@@ -206,15 +240,38 @@ public class User implements Serializable {
     }
 
     public int getCurrentOnTime() {
-        return _consecutiveOnTime;
+        return _counters != null ? _counters.getConsecutiveOnTime(_idUser) : _consecutiveOnTime;
+    }
+
+    public int getConsecutiveLate() {
+        return _counters != null ? _counters.getConsecutiveLate(_idUser) : _consecutiveLate;
     }
     
     public List<Integer> getInterestWorks() {
         return new ArrayList<>(_interestWork);
     }
+
+    public List<Integer> getRequestedWorks() {
+        return new ArrayList<>(_requestedWorks);
+    }
+
+    public List<Notification> getNotifications() {
+        return new ArrayList<>(_notifications);
+    }
     
     public void setIdUser(int idUser) {
+        LoanCounters counters = _counters;
+        if (counters != null) {
+            _consecutiveLate = getConsecutiveLate();
+            _fines = getFines();
+            _currentRequests = getCurrentRequests();
+            _consecutiveOnTime = getCurrentOnTime();
+            _counters = null;
+        }
         this._idUser = idUser;
+        if (counters != null) {
+            attach(counters);
+        }
     }
 
     public void setName(String name) {
@@ -234,22 +291,51 @@ public class User implements Serializable {
     }
 
     public void setFines(int fines) {
-        this._fines = fines;
+        if (_counters != null) {
+            _counters.setFines(_idUser, fines);
+        } else {
+            _fines = fines;
+        }
     }
 
     public void setCurrentRequests(int currentRequests) {
-        this._currentRequests = currentRequests;
+        if (_counters != null) {
+            _counters.setCurrentRequests(_idUser, currentRequests);
+        } else {
+            _currentRequests = currentRequests;
+        }
     }
 
     public void setConsecutiveOnTime(int consecutiveOnTime) {
-        _consecutiveOnTime = consecutiveOnTime;
+        if (_counters != null) {
+            _counters.setConsecutiveOnTime(_idUser, consecutiveOnTime);
+        } else {
+            _consecutiveOnTime = consecutiveOnTime;
+        }
     } 
+
+    public void setConsecutiveLate(int consecutiveLate) {
+        if (_counters != null) {
+            _counters.setConsecutiveLate(_idUser, consecutiveLate);
+        } else {
+            _consecutiveLate = consecutiveLate;
+        }
+    }
+    
+    @java.io.Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        _consecutiveLate = getConsecutiveLate();
+        _fines = getFines();
+        _currentRequests = getCurrentRequests();
+        _consecutiveOnTime = getCurrentOnTime();
+        out.defaultWriteObject();
+    }
     
     @Override
     public String toString() {
         String behaviorName = getBehavior();
         if ("SUSPENSO".equals(_status)) {
-            return _idUser + " - " + _name + " - " + _email + " - " + behaviorName + " - " + _status + " - EUR " + _fines;
+            return _idUser + " - " + _name + " - " + _email + " - " + behaviorName + " - " + _status + " - EUR " + getFines();
         } else {
             return _idUser + " - " + _name + " - " + _email + " - " + behaviorName + " - " + _status;
         }
@@ -0,0 +1,250 @@
+package bci.work;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import bci.creator.Creator;
+import bci.work.workCategory.Category;
+import bci.work.workType.Book;
+import bci.work.workType.DVD;
+
+/**
+ * An off-heap store of the works of a library: each record holds every field of a work that
+ * never changes once it is in the library (ID, type, price, category, creators, title, search key
+ * of the title, ISBN or IGAC), and the library keeps only the reference of each record.
+ *
+ * A work is decoded from its record into a new {@link Work} each time it is looked up; its copies
+ * are read from the inventory of the library, so the view of a work is always current. Creators
+ * and categories are kept as indexes in tables of the store, which hold the instances of the
+ * library, so the views share them. Searches read the search key of the record instead of
+ * folding the title again. Almost nothing of a large catalog is left on the heap, and the
+ * collector has few objects to trace. Records are appended to chunks of {@value #CHUNK_SIZE}
+ * bytes, either allocated outside the heap or mapped from a file, and are never removed: a work
+ * whose authors change is written again, to a new record.
+ *
+ * Records are appended while holding the library's lock; they can be read from any thread.
+ */
+public final class CatalogStore implements Closeable {
+
+    /** The size of each chunk of the store. */
+    public static final int CHUNK_SIZE = 1 << 24;
+
+    private static final int NULL = -1; // length of a null text, index of a null category
+
+    private static final byte TYPE_BOOK = 0;
+    private static final byte TYPE_DVD = 1;
+
+    private final FileChannel _file; // null if the chunks are not mapped from a file
+    private final Path _path;
+    private volatile ByteBuffer[] _chunks = new ByteBuffer[0];
+    private int _position = CHUNK_SIZE; // in the last chunk; a full chunk until the first record
+    private final Table<Creator> _creators = new Table<>();
+    private final Table<Category> _categories = new Table<>();
+
+    /**
+     * Creates a store in memory allocated outside the heap.
+     */
+    public CatalogStore() {
+        _file = null;
+        _path = null;
+    }
+
+    /**
+     * Creates a store in a file mapped into memory, which grows as records are added.
+     *
+     * @param path the file, which is replaced
+     * @throws IOException if the file cannot be created
+     */
+    public CatalogStore(Path path) throws IOException {
+        _file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        _path = path;
+    }
+
+    /**
+     * Creates a store in a temporary file mapped into memory, deleted when the store is closed.
+     *
+     * @return the store
+     * @throws IOException if the file cannot be created
+     */
+    public static CatalogStore temporary() throws IOException {
+        Path path = Files.createTempFile("bci-catalog", ".bin");
+        path.toFile().deleteOnExit();
+        return new CatalogStore(path);
+    }
+
+    /**
+     * Appends the record of a work.
+     *
+     * @param work the work
+     * @return the reference of the record
+     */
+    public synchronized long add(Work work) {
+        List<Creator> creators;
+        String code;
+        if (work instanceof Book book) {
+            creators = book.getAuthor();
+            code = book.getIsbn();
+        } else if (work instanceof DVD dvd) {
+            creators = new ArrayList<>();
+            if (dvd.getDirector() != null) creators.add(dvd.getDirector());
+            code = dvd.getIgac();
+        } else {
+            throw new IllegalArgumentException("work of type " + work.getWorkType());
+        }
+        byte[] title = encode(work.getTitle());
+        byte[] searchKey = encode(work.getSearchKey());
+        byte[] encodedCode = encode(code);
+        int size = Integer.BYTES + 1 + Integer.BYTES + Integer.BYTES + Integer.BYTES * (1 + creators.size())
+                + size(title) + size(searchKey) + size(encodedCode);
+        if (size > CHUNK_SIZE) throw new IllegalArgumentException("record of " + size + " bytes");
+        if (_position + size > CHUNK_SIZE) newChunk();
+        ByteBuffer out = _chunks[_chunks.length - 1].duplicate().position(_position);
+        long ref = (long) (_chunks.length - 1) << 32 | _position;
+        out.putInt(work.getIdWork());
+        out.put(work instanceof Book ? TYPE_BOOK : TYPE_DVD);
+        out.putInt(work.getPrice());
+        out.putInt(work.getCategory() != null ? _categories.indexOf(work.getCategory()) : NULL);
+        out.putInt(creators.size());
+        for (Creator creator : creators) {
+            out.putInt(_creators.indexOf(creator));
+        }
+        put(out, title);
+        put(out, searchKey);
+        put(out, encodedCode);
+        _position = out.position();
+        return ref;
+    }
+
+    /**
+     * Decodes the record of a work into a new work, which reads its copies from an inventory.
+     *
+     * @param ref the reference of a record
+     * @param inventory the inventory of the library, which has the copies of the work
+     * @return the work
+     */
+    public Work get(long ref, Inventory inventory) {
+        ByteBuffer in = _chunks[(int) (ref >>> 32)].duplicate().position((int) ref);
+        int id = in.getInt();
+        byte type = in.get();
+        int price = in.getInt();
+        int categoryIndex = in.getInt();
+        Category category = categoryIndex != NULL ? _categories.get(categoryIndex) : null;
+        int creatorCount = in.getInt();
+        List<Creator> creators = new ArrayList<>(creatorCount);
+        for (int i = 0; i < creatorCount; i++) {
+            creators.add(_creators.get(in.getInt()));
+        }
+        String title = get(in);
+        String searchKey = get(in);
+        String code = get(in);
+        Work work = type == TYPE_BOOK
+                ? new Book(id, title, price, category, code, creators)
+                : new DVD(id, title, price, category, code, creators.isEmpty() ? null : creators.get(0));
+        work.view(searchKey, inventory);
+        return work;
+    }
+
+    private static byte[] encode(String text) {
+        return text != null ? text.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int size(byte[] text) {
+        return Integer.BYTES + (text != null ? text.length : 0);
+    }
+
+    private static void put(ByteBuffer out, byte[] text) {
+        if (text == null) {
+            out.putInt(NULL);
+        } else {
+            out.putInt(text.length);
+            out.put(text);
+        }
+    }
+
+    private static String get(ByteBuffer in) {
+        int length = in.getInt();
+        if (length == NULL) return null;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the number of bytes used by the chunks of the store
+     */
+    public synchronized long size() {
+        return (long) _chunks.length * CHUNK_SIZE;
+    }
+
+    private void newChunk() {
+        ByteBuffer chunk;
+        if (_file == null) {
+            chunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        } else {
+            try {
+                chunk = _file.map(FileChannel.MapMode.READ_WRITE, (long) _chunks.length * CHUNK_SIZE, CHUNK_SIZE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        ByteBuffer[] chunks = Arrays.copyOf(_chunks, _chunks.length + 1);
+        chunks[chunks.length - 1] = chunk;
+        _chunks = chunks;
+        _position = 0;
+    }
+
+    /**
+     * Closes and deletes the file of the store, if it has one. The chunks already mapped stay
+     * readable, but no more records can be added.
+     *
+     * @throws IOException if the file cannot be closed or deleted
+     */
+    @Override
+    public void close() throws IOException {
+        if (_file != null) {
+            _file.close();
+            Files.deleteIfExists(_path);
+        }
+    }
+
+    /**
+     * Instances shared by the records, by their index. Indexes are given while holding the lock
+     * of the store, and the array is published again after each one, for readers without it.
+     */
+    private static final class Table<T> {
+
+        private final Map<T, Integer> _indexes = new IdentityHashMap<>();
+        private volatile Object[] _elements = new Object[16];
+
+        int indexOf(T element) {
+            Integer index = _indexes.get(element);
+            if (index == null) {
+                index = _indexes.size();
+                Object[] elements = _elements;
+                if (index == elements.length) elements = Arrays.copyOf(elements, index * 2);
+                elements[index] = element;
+                _elements = elements;
+                _indexes.put(element, index);
+            }
+            return index;
+        }
+
+        @SuppressWarnings("unchecked")
+        T get(int index) {
+            return (T) _elements[index];
+        }
+    }
+}
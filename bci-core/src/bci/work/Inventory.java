@@ -0,0 +1,52 @@
+package bci.work;
+
+import java.util.Arrays;
+
+/**
+ * The copy counts of the works of a library, in columns of {@code int}s indexed by work ID.
+ *
+ * A work added to the library is {@linkplain Work#attach(Inventory) attached} to its inventory,
+ * and from then on its counts are read and written here: checking whether a work has copies
+ * reads one {@code int} from an array, and looking at the copies of many works reads the
+ * columns in order, instead of going through each work. Must be used while holding the
+ * library's lock, like the works.
+ */
+public final class Inventory {
+
+    private int[] _total = new int[16];
+    private int[] _available = new int[16];
+
+    /**
+     * @param id a work ID
+     * @return the number of copies of the work in the library
+     */
+    public int getTotalCopies(int id) {
+        return id < _total.length ? _total[id] : 0;
+    }
+
+    /**
+     * @param id a work ID
+     * @return the number of copies of the work available to borrow
+     */
+    public int getAvailableCopies(int id) {
+        return id < _available.length ? _available[id] : 0;
+    }
+
+    void setTotalCopies(int id, int totalCopies) {
+        ensureCapacity(id);
+        _total[id] = totalCopies;
+    }
+
+    void setAvailableCopies(int id, int availableCopies) {
+        ensureCapacity(id);
+        _available[id] = availableCopies;
+    }
+
+    private void ensureCapacity(int id) {
+        if (id >= _total.length) {
+            int capacity = Math.max(id + 1, _total.length + (_total.length >> 1));
+            _total = Arrays.copyOf(_total, capacity);
+            _available = Arrays.copyOf(_available, capacity);
+        }
+    }
+}
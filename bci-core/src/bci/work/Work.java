@@ -1,7 +1,10 @@
 package bci.work;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import bci.creator.*;
+import bci.search.SearchKey;
 
 import bci.work.workCategory.Category;
 
@@ -14,44 +17,67 @@ public abstract class Work implements Serializable {
     private final int _idWork;
     private final String _title;
     private final int _price;
-    private final Category _category;
-    private int _totalCopies;
+    private Category _category;
+    private int _totalCopies; // until attached to an inventory, and as serialized
     private int _availableCopies;
-    
-    public Work(int id, String title, int price, Category category, Creator creator) {
+    private transient Inventory _inventory; // of the library, once the work is added to it
+    private transient String _searchKey; // the title, folded for searches
+    
+    /**
+     * Creates a work. It is not added to its creators and category: the library does that when
+     * the work is added to it.
+     */
+    public Work(int id, String title, int price, Category category) {
         _idWork = id;
         _title = title;
         _price = price;
         _category = category;
         _totalCopies = 1;
         _availableCopies = 1;
-        
-        if (creator != null) {
-            creator.addWork(this);
-        }
-        
-        if (category != null) {
-            category.addWork(this);
-        }
+    }
+    
+    /**
+     * Moves the copy counts of the work to the inventory of its library, where they are kept
+     * from then on.
+     *
+     * @param inventory the inventory of the library
+     */
+    public void attach(Inventory inventory) {
+        inventory.setTotalCopies(_idWork, getTotalCopies());
+        inventory.setAvailableCopies(_idWork, getAvailableCopies());
+        _inventory = inventory;
+    }
+
+    /**
+     * Makes the work a view of a record of a {@link CatalogStore}: its search key is the one of
+     * the record, and its copies are those already in the inventory.
+     *
+     * @param searchKey the search key of the title
+     * @param inventory the inventory of the library
+     */
+    void view(String searchKey, Inventory inventory) {
+        _searchKey = searchKey;
+        _inventory = inventory;
     }
     
     public void addCopy() {
-        _availableCopies++;
+        setAvailableCopies(getAvailableCopies() + 1);
     }
     
     public void removeCopy() {
-        if (_availableCopies > 0) {
-            _availableCopies--;
+        int availableCopies = getAvailableCopies();
+        if (availableCopies > 0) {
+            setAvailableCopies(availableCopies - 1);
         }
     }
     
     public void changeInventory(int amount) {
-            _availableCopies += amount;
-            _totalCopies += amount;
+            setAvailableCopies(getAvailableCopies() + amount);
+            setTotalCopies(getTotalCopies() + amount);
     }
     
     public boolean isAvailable() {
-        return _availableCopies > 0;
+        return getAvailableCopies() > 0;
     }
     
     public boolean isRequested() {
@@ -73,6 +99,16 @@ public abstract class Work implements Serializable {
     public String getTitle() {
         return _title;
     }
+
+    /**
+     * @return the title, without accents and in lower case, to be compared with search keys
+     */
+    public String getSearchKey() {
+        if (_searchKey == null) {
+            _searchKey = SearchKey.of(getTitle());
+        }
+        return _searchKey;
+    }
     
     public int getPrice() {
         return _price;
@@ -86,11 +122,42 @@ public abstract class Work implements Serializable {
     public abstract Creator getCreator();
     
     public int getTotalCopies() {
-        return _totalCopies;
+        return _inventory != null ? _inventory.getTotalCopies(_idWork) : _totalCopies;
     }
     
     public int getAvailableCopies() {
-        return _availableCopies;
+        return _inventory != null ? _inventory.getAvailableCopies(_idWork) : _availableCopies;
+    }
+
+    public void setTotalCopies(int totalCopies) {
+        if (_inventory != null) {
+            _inventory.setTotalCopies(_idWork, totalCopies);
+        } else {
+            _totalCopies = totalCopies;
+        }
+    }
+
+    public void setAvailableCopies(int availableCopies) {
+        if (_inventory != null) {
+            _inventory.setAvailableCopies(_idWork, availableCopies);
+        } else {
+            _availableCopies = availableCopies;
+        }
+    }
+
+    /**
+     * Moves the work to another category.
+     *
+     * @param category the category, shared by the works of the library
+     */
+    public void setCategory(Category category) {
+        if (_category != null) {
+            _category.removeWork(this);
+        }
+        _category = category;
+        if (category != null) {
+            category.addWork(this);
+        }
     }
 
     public String getCategoryName() {
@@ -105,9 +172,26 @@ public abstract class Work implements Serializable {
         Work work = (Work) obj;
         return _idWork == work._idWork;
     }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(_idWork);
+    }
+    
+    @java.io.Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("_idWork", _idWork);
+        fields.put("_title", _title);
+        fields.put("_price", _price);
+        fields.put("_category", _category);
+        fields.put("_totalCopies", getTotalCopies());
+        fields.put("_availableCopies", getAvailableCopies());
+        out.writeFields();
+    }
     
     @Override
     public String toString() {
-        return _idWork + " - " + _availableCopies + " de " + _totalCopies + " - " + getWorkType() + " - " + _title + " - " + _price + " - " + getCategoryName() + getAdditionalInfo();
+        return _idWork + " - " + getAvailableCopies() + " de " + getTotalCopies() + " - " + getWorkType() + " - " + getTitle() + " - " + _price + " - " + getCategoryName() + getAdditionalInfo();
     }
 }
@@ -0,0 +1,50 @@
+package bci.work.workCategory;
+
+import bci.search.WorkBitmap;
+import bci.work.*;
+
+/**
+ * The IDs of the works of a category, kept in a bitmap. The bitmap is not serialized: it is
+ * created by the constructor, which also runs when a category is read, and the library adds its
+ * works again.
+ */
+public abstract class AbstractCategory implements Category {
+
+    private final WorkBitmap _works;
+
+    protected AbstractCategory() {
+        _works = new WorkBitmap();
+    }
+
+    @Override
+    public WorkBitmap category(String name) {
+        if (getKey().equals(name)) {
+            return getWorkIds();
+        }
+        return new WorkBitmap();
+    }
+
+    @Override
+    public boolean addWork(Work work) {
+        if (work == null || _works.contains(work.getIdWork())) return false;
+        _works.add(work.getIdWork());
+        return true;
+    }
+
+    @Override
+    public boolean removeWork(Work work) {
+        if (work == null || !_works.contains(work.getIdWork())) return false;
+        _works.remove(work.getIdWork());
+        return true;
+    }
+
+    @Override
+    public boolean hasWork(Work work) {
+        return work != null && _works.contains(work.getIdWork());
+    }
+
+    @Override
+    public WorkBitmap getWorkIds() {
+        return _works;
+    }
+}
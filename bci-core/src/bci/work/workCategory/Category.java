@@ -1,15 +1,39 @@
 package bci.work.workCategory;
 
+import bci.search.WorkBitmap;
 import bci.work.*;
-import java.util.List;
 
+/**
+ * A category of works. A library has one instance of each category, shared by its works, which
+ * indexes the IDs of its works: adding, removing and checking a work take constant time.
+ */
 public interface Category {
     
-    List<Work> category(String name);
+    /**
+     * @param name the key of a category
+     * @return the IDs of the works in the category, if it has the key, or none
+     */
+    WorkBitmap category(String name);
     
-    List<Work> addWork(Work work);
+    boolean addWork(Work work);
     
-    List<Work> removeWork(Work work);
+    boolean removeWork(Work work);
+
+    /**
+     * @param work a work
+     * @return whether the work is in the category
+     */
+    boolean hasWork(Work work);
+
+    /**
+     * @return the IDs of the works in the category (not to be changed)
+     */
+    WorkBitmap getWorkIds();
     
     String getName();
-}
\ No newline at end of file
+
+    /**
+     * @return the key of the category in import files, such as {@code FICTION}
+     */
+    String getKey();
+}
@@ -1,51 +1,25 @@
 package bci.work.workCategory;
 
-import bci.work.*;
 import java.io.Serializable;
-import java.util.List;
-import java.util.ArrayList;
 
 
-public class Fiction implements Category, Serializable {
+public class Fiction extends AbstractCategory implements Serializable {
     
     @java.io.Serial
     private static final long serialVersionUID = 202507171003L;
     
-    private List<Work> _works;
     private String _name;
     
     public Fiction() {
         _name = "Ficção";
-        _works = new ArrayList<>();
-    }
-    
-    @Override
-    public List<Work> category(String name) {
-        if ("FICTION".equals(name)) {
-            return new ArrayList<>(_works);
-        }
-        return new ArrayList<>();
-    }
-    
-    @Override
-    public List<Work> addWork(Work work) {
-        if (work != null && !_works.contains(work)) {
-            _works.add(work);
-        }
-        return new ArrayList<>(_works);
-    }
-    
-    @Override
-    public List<Work> removeWork(Work work) {
-        _works.remove(work);
-        return new ArrayList<>(_works);
     }
     
     public String getName() {
         return _name;
     }
-    
-    public List<Work> getWorks() {
-        return new ArrayList<>(_works);
+
+    @Override
+    public String getKey() {
+        return "FICTION";
     }
-}
\ No newline at end of file
+}
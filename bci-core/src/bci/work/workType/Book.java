@@ -18,17 +18,9 @@ public class Book extends Work {
     private final List<Creator> _author;
     
     public Book(int id, String title, int price, Category category, String isbn, List<Creator> authors) {
-        super(id, title, price, category, authors != null && !authors.isEmpty() ? authors.get(0) : null);
+        super(id, title, price, category);
         _isbn = isbn;
         _author = new ArrayList<>(authors != null ? authors : new ArrayList<>());
-        
-        if (authors != null) {
-            for (Creator author : authors) {
-                if (author != null) {
-                    author.addWork(this);
-                }
-            }
-        }
     }
     
     public void addAuthor(Creator author) {
@@ -13,13 +13,9 @@ public class DVD extends Work {
     private final Creator _director;
 
     public DVD(int id, String title, int price, Category category, String igac, Creator director) {
-        super(id, title, price, category, director);
+        super(id, title, price, category);
         _igac = igac;
         _director = director;
-        
-        if (director != null) {
-            director.addWork(this);
-        }
     }
     
     @Override
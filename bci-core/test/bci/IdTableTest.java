@@ -0,0 +1,101 @@
+package bci;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import bci.test.Test;
+
+import static bci.test.Assert.*;
+
+public class IdTableTest {
+
+    /** Elements by identifier, sorted, as libraries kept them before the tables. */
+    private static TreeMap<Integer, String> map(int... ids) {
+        TreeMap<Integer, String> map = new TreeMap<>();
+        for (int id : ids) {
+            map.put(id, "e" + id);
+        }
+        return map;
+    }
+
+    private static IdTable<String> table(Map<Integer, String> map) {
+        IdTable<String> table = new IdTable<>();
+        for (Map.Entry<Integer, String> entry : map.entrySet()) {
+            table.put(entry.getKey(), entry.getValue());
+        }
+        return table;
+    }
+
+    private static void assertLike(TreeMap<Integer, String> map, IdTable<String> table) {
+        List<String> values = new ArrayList<>(map.values());
+        assertEquals(map.size(), table.size());
+        assertEquals(values, table.values());
+        assertEquals(values, table.view());
+        assertEquals(values, table.stream().toList());
+        List<String> iterated = new ArrayList<>();
+        table.iterator().forEachRemaining(iterated::add);
+        assertEquals(values, iterated);
+        for (int id = -1; id <= (map.isEmpty() ? 0 : map.lastKey()) + 20; id++) {
+            assertEquals(map.get(id), table.get(id));
+            assertEquals(map.containsKey(id), table.containsKey(id));
+        }
+    }
+
+    @Test
+    public void tableWithoutGapsIsLikeTheMap() {
+        TreeMap<Integer, String> map = map(1, 2, 3, 4, 5);
+        assertLike(map, table(map));
+    }
+
+    @Test
+    public void tableWithGapsIsLikeTheMap() {
+        TreeMap<Integer, String> map = map(3, 4, 9, 40, 41, 100);
+        assertLike(map, table(map));
+        assertLike(map(), new IdTable<>());
+    }
+
+    @Test
+    public void elementsPutOutOfOrderAreInIdentifierOrder() {
+        TreeMap<Integer, String> map = map(1, 2, 3, 17, 5, 30);
+        IdTable<String> table = new IdTable<>();
+        for (int id : new int[] { 30, 5, 17, 1, 3, 2 }) {
+            table.put(id, "e" + id);
+        }
+        assertLike(map, table);
+        table.put(5, "changed");
+        map.put(5, "changed");
+        assertLike(map, table);
+    }
+
+    @Test
+    public void viewWithoutGapsSeesLaterChanges() {
+        IdTable<String> table = table(map(1, 2));
+        List<String> view = table.view();
+        table.put(3, "e3");
+        assertEquals(List.of("e1", "e2", "e3"), view);
+    }
+
+    @Test
+    public void tableIsBuiltFromTheMapOfOldLibraries() {
+        TreeMap<Integer, String> map = map(2, 3, 7);
+        assertLike(map, IdTable.of(new java.util.HashMap<>(map)));
+    }
+
+    @Test
+    public void writtenTableIsReadBack() throws Exception {
+        TreeMap<Integer, String> map = map(1, 2, 6, 200);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            table(map).write(out);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertLike(map, IdTable.read(in, String.class));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package bci.importer;
+
+import bci.test.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static bci.test.Assert.*;
+
+public class FieldCursorTest {
+
+    private static List<String> fields(FieldCursor cursor) {
+        List<String> fields = new ArrayList<>();
+        while (cursor.hasNext()) {
+            fields.add(cursor.next().toString());
+        }
+        return fields;
+    }
+
+    @Test
+    public void fieldsAreSplitLikeStringSplit() {
+        FieldCursor cursor = new FieldCursor(':');
+        for (String line : new String[] {"a:b:c", "a::c", ":a", "a:b::", "a", ""}) {
+            assertEquals(List.of(line.split(":")), fields(cursor.reset(line)));
+        }
+    }
+
+    @Test
+    public void readingPastTheLastFieldThrows() {
+        FieldCursor cursor = new FieldCursor(':').reset("a");
+        cursor.next();
+        assertFalse(cursor.hasNext(), "one field");
+        assertThrows(NoSuchElementException.class, cursor::next);
+    }
+
+    @Test
+    public void fieldsOfPartOfABuffer() {
+        char[] chars = "xxUSER:Ana:a@mail.ptyy".toCharArray();
+        FieldCursor cursor = new FieldCursor(':').reset(chars, 2, chars.length - 2);
+        assertEquals(List.of("USER", "Ana", "a@mail.pt"), fields(cursor));
+        assertEquals("USER:Ana:a@mail.pt", cursor.line());
+    }
+
+    @Test
+    public void fieldValuesAreComparedAndParsedInPlace() {
+        FieldCursor cursor = new FieldCursor(':').reset("BOOK: 42 :fiction: ");
+        assertTrue(cursor.next().is("BOOK"), "is");
+        assertFalse(cursor.is("BOO"), "is a prefix");
+        assertEquals(42, cursor.next().trim().intValue());
+        String[] categories = {"REFERENCE", "FICTION"};
+        assertTrue(cursor.next().canonical(categories) == categories[1], "known value shared");
+        assertTrue(cursor.next().isBlank(), "blank");
+        assertThrows(NumberFormatException.class, () -> cursor.reset("x").next().intValue());
+    }
+
+    @Test
+    public void subfieldsAreSplitWithinTheField() {
+        FieldCursor cursor = new FieldCursor(':').reset("BOOK:Ana Silva, José Saramago:10");
+        cursor.next();
+        FieldCursor authors = cursor.next().subfields(',');
+        List<String> names = new ArrayList<>();
+        while (authors.hasNext()) {
+            names.add(authors.next().trim().toString());
+        }
+        assertEquals(List.of("Ana Silva", "José Saramago"), names);
+        assertEquals(10, cursor.next().intValue());
+    }
+}
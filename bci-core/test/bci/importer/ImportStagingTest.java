@@ -0,0 +1,95 @@
+package bci.importer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import bci.LibraryManager;
+import bci.exceptions.ImportFileException;
+import bci.exceptions.UnrecognizedEntryException;
+import bci.exceptions.UserRegistrationFailedException;
+import bci.test.TempFiles;
+import bci.test.Test;
+
+import static bci.test.Assert.*;
+import static bci.test.Libraries.*;
+
+public class ImportStagingTest {
+
+    /** Valid lines, with a blank user name, a price that is not a number and an unknown type. */
+    private static final String[] LINES = {
+        "USER:Miguel Torga:u0@mail.pt",
+        "USER::sem@nome.pt",
+        "BOOK:amor Porto:José Saramago, Ana Silva:19:FICTION:7340888752:6",
+        "BOOK:sem preço:Ana Silva:caro:FICTION:1:1",
+        "REVISTA:mar:Ana Silva",
+        "DVD:casa:Miguel Torga:20:SCITECH:IGAC3:1",
+        "USER:Vergílio Ferreira:u1@mail.pt",
+    };
+
+    /**
+     * @return a library with the valid lines registered one at a time, as imports did before
+     *         they were staged
+     */
+    private static LibraryManager registered() throws Exception {
+        LibraryManager manager = new LibraryManager();
+        manager.processUser("USER", "Miguel Torga", "u0@mail.pt");
+        manager.processWork("BOOK", "amor Porto", "José Saramago, Ana Silva", "19", "FICTION", "7340888752", "6");
+        manager.processWork("DVD", "casa", "Miguel Torga", "20", "SCITECH", "IGAC3", "1");
+        manager.processUser("USER", "Vergílio Ferreira", "u1@mail.pt");
+        return manager;
+    }
+
+    @Test
+    public void reportListsTheRejectedLinesInOrder() throws Exception {
+        ImportReport report = new LibraryManager().importFileWithReport(TempFiles.importFile(LINES));
+        assertEquals(2, report.getAcceptedUsers());
+        assertEquals(2, report.getAcceptedWorks());
+        List<ImportReport.Rejection> rejections = report.getRejections();
+        assertEquals(3, rejections.size());
+        assertEquals(List.of(2L, 4L, 5L), rejections.stream().map(ImportReport.Rejection::getLineNumber).toList());
+        assertEquals(List.of(LINES[1], LINES[3], LINES[4]), rejections.stream().map(ImportReport.Rejection::getLine).toList());
+        assertTrue(rejections.get(0).getError() instanceof UserRegistrationFailedException, "blank name");
+        assertTrue(rejections.get(1).getError() instanceof NumberFormatException, "price");
+        assertTrue(rejections.get(2).getError() instanceof UnrecognizedEntryException, "type");
+    }
+
+    @Test
+    public void validLinesAreImportedAsIfRegisteredOneAtATime() throws Exception {
+        LibraryManager manager = new LibraryManager();
+        manager.importFileWithReport(TempFiles.importFile(LINES));
+        LibraryManager expected = registered();
+        assertEquals(state(expected), state(manager));
+        assertEquals(expected.showWorksByCreator("Ana Silva"), manager.showWorksByCreator("Ana Silva"));
+        assertEquals(expected.showWorksByCategory("SCITECH"), manager.showWorksByCategory("SCITECH"));
+    }
+
+    @Test
+    public void fileWithARejectedLineImportsNothing() throws Exception {
+        LibraryManager manager = imported();
+        String before = state(manager);
+        ImportFileException e = assertThrows(ImportFileException.class,
+                () -> manager.importFile(TempFiles.importFile(LINES)));
+        assertTrue(e.getCause() instanceof UserRegistrationFailedException, "error of the first rejected line");
+        assertEquals(before, state(manager));
+    }
+
+    @Test
+    public void everyWayOfReadingStagesTheSameImport() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            lines.add(LINES[i % LINES.length].replace("casa", "casa " + i));
+        }
+        String filename = TempFiles.importFile(lines.toArray(new String[0]));
+        LibraryManager sequential = new LibraryManager();
+        String report = sequential.importFileWithReport(filename).toString();
+        for (int workers : new int[] { 1, 4 }) {
+            for (boolean mapped : new boolean[] { false, true }) {
+                LibraryManager manager = new LibraryManager();
+                manager.setImportWorkers(workers);
+                manager.setMappedImport(mapped);
+                assertEquals(report, manager.importFileWithReport(filename).toString());
+                assertEquals(state(sequential), state(manager));
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package bci.importer;
+
+import bci.test.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static bci.test.Assert.*;
+
+public class LineReaderTest {
+
+    private static List<String> lines(Reader reader) throws IOException {
+        List<String> lines = new ArrayList<>();
+        FieldCursor cursor = new FieldCursor(':');
+        try (LineReader lineReader = new LineReader(reader)) {
+            while (lineReader.next(cursor)) {
+                lines.add(cursor.line());
+            }
+        }
+        return lines;
+    }
+
+    /** Reads one character at a time, so that every line end falls at the end of the buffer. */
+    private static Reader slow(String text) {
+        return new StringReader(text) {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                return super.read(buffer, offset, Math.min(length, 1));
+            }
+        };
+    }
+
+    @Test
+    public void linesEndWithLineFeedCarriageReturnOrBoth() throws IOException {
+        String text = "a\nb\r\nc\rd\r\n\re";
+        assertEquals(text.lines().toList(), lines(new StringReader(text)));
+    }
+
+    @Test
+    public void carriageReturnAndLineFeedAreOneLineEndAcrossReads() throws IOException {
+        String text = "USER:a\r\nUSER:b\r\n\r\nUSER:c\r";
+        assertEquals(text.lines().toList(), lines(slow(text)));
+    }
+
+    @Test
+    public void lastLineNeedsNoLineEnd() throws IOException {
+        assertEquals(List.of("a", "b"), lines(new StringReader("a\nb")));
+        assertEquals(List.of(), lines(new StringReader("")));
+    }
+
+    @Test
+    public void linesLongerThanTheBufferAreRead() throws IOException {
+        String line = "x".repeat(200_000);
+        assertEquals(List.of("a", line, "b"), lines(new StringReader("a\r\n" + line + "\r\nb\r\n")));
+    }
+}
@@ -0,0 +1,63 @@
+package bci.importer;
+
+import bci.test.TempFiles;
+import bci.test.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static bci.test.Assert.*;
+
+public class MappedImportFileTest {
+
+    private static List<String> lines(String text, long regionSize) throws IOException {
+        String filename = TempFiles.path("library.import");
+        Files.writeString(Path.of(filename), text, StandardCharsets.UTF_8);
+        List<String> lines = new ArrayList<>();
+        FieldCursor cursor = new FieldCursor(':');
+        try (MappedImportFile file = new MappedImportFile(filename)) {
+            long position = 0;
+            for (MappedImportFile.Region region; (region = file.nextRegion(regionSize)) != null; ) {
+                assertEquals(position, region.start());
+                position = region.end();
+                while (region.next(cursor)) {
+                    lines.add(cursor.line());
+                }
+            }
+            assertEquals(file.size(), position);
+        }
+        return lines;
+    }
+
+    @Test
+    public void linesEndWithLineFeedCarriageReturnOrBoth() throws IOException {
+        String text = "a\nb\r\nc\rd\r\n\r\ne";
+        assertEquals(text.lines().toList(), lines(text, 1 << 20));
+    }
+
+    @Test
+    public void regionsEndAtLineEnds() throws IOException {
+        String text = "USER:Ana:a@mail.pt\r\nUSER:Rui:r@mail.pt\r\nDVD:casa:Miguel Torga:20:FICTION:IGAC3:1\r\n";
+        for (int size = 1; size <= text.length(); size++) {
+            assertEquals(text.lines().toList(), lines(text, size));
+        }
+    }
+
+    @Test
+    public void fieldsAreDecodedFromUtf8() throws IOException {
+        String filename = TempFiles.path("library.import");
+        Files.writeString(Path.of(filename), "USER:Vergílio Ferreira:ção@mail.pt\n", StandardCharsets.UTF_8);
+        FieldCursor cursor = new FieldCursor(':');
+        try (MappedImportFile file = new MappedImportFile(filename)) {
+            assertTrue(file.nextRegion(1 << 20).next(cursor), "one line");
+        }
+        assertTrue(cursor.next().is("USER"), "entry type");
+        assertEquals("Vergílio Ferreira", cursor.next().toString());
+        assertEquals("ção@mail.pt", cursor.next().toString());
+        assertFalse(cursor.hasNext(), "three fields");
+    }
+}
@@ -0,0 +1,78 @@
+package bci.search;
+
+import bci.creator.Creator;
+import bci.test.Test;
+import bci.work.Work;
+import bci.work.workCategory.Fiction;
+import bci.work.workType.Book;
+import bci.work.workType.DVD;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static bci.test.Assert.*;
+
+public class AutocompleteTest {
+
+    private static Book book(int id, String title, String... authors) {
+        List<Creator> creators = new ArrayList<>();
+        for (String author : authors) {
+            creators.add(new Creator(author));
+        }
+        return new Book(id, title, 10, new Fiction(), "isbn" + id, creators);
+    }
+
+    private static void borrow(Autocomplete autocomplete, Work work, int times) {
+        for (int i = 0; i < times; i++) {
+            autocomplete.borrowed(work);
+        }
+    }
+
+    @Test
+    public void prefixesMatchTheStartOfAnyWordIgnoringCaseAndAccents() {
+        Autocomplete autocomplete = new Autocomplete();
+        autocomplete.add(book(1, "Memorial do Convento", "José Saramago"));
+        assertEquals(List.of("José Saramago"), autocomplete.complete("sara", 8));
+        assertEquals(List.of("José Saramago"), autocomplete.complete(" JOSE ", 8));
+        assertEquals(List.of("Memorial do Convento"), autocomplete.complete("conv", 8));
+        assertEquals(List.of(), autocomplete.complete("ramago", 8));
+        assertEquals(List.of(), autocomplete.complete("", 8));
+    }
+
+    @Test
+    public void mostBorrowedComeFirstAndTiesByKey() {
+        Autocomplete autocomplete = new Autocomplete();
+        Book mar = book(1, "Mar Novo", "Sophia Andresen");
+        Book mares = book(2, "Marés", "Ana Silva");
+        DVD marte = new DVD(3, "Marte", 10, new Fiction(), "IGAC3", new Creator("Rui Lopes"));
+        autocomplete.add(mar);
+        autocomplete.add(mares);
+        autocomplete.add(marte);
+        assertEquals(List.of("Mar Novo", "Marés", "Marte"), autocomplete.complete("mar", 8));
+
+        borrow(autocomplete, marte, 2);
+        borrow(autocomplete, mares, 1);
+        assertEquals(List.of("Marte", "Marés", "Mar Novo"), autocomplete.complete("mar", 8));
+        assertEquals(List.of("Marte", "Marés"), autocomplete.complete("mar", 2));
+        assertEquals(List.of("Rui Lopes"), autocomplete.complete("rui", 8));
+    }
+
+    @Test
+    public void borrowedSuggestionReachesTheBestOfACrowdedPrefix() {
+        Autocomplete autocomplete = new Autocomplete();
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 3 * Autocomplete.MAX_SUGGESTIONS; i++) {
+            Book book = book(i + 1, "Casa " + (char) ('a' + i), "Autor " + i);
+            books.add(book);
+            autocomplete.add(book);
+        }
+        List<String> completions = autocomplete.complete("casa", 100);
+        assertEquals(Autocomplete.MAX_SUGGESTIONS, completions.size());
+        assertEquals("Casa a", completions.get(0));
+
+        Book last = books.get(books.size() - 1);
+        borrow(autocomplete, last, 1);
+        assertEquals(last.getTitle(), autocomplete.complete("casa", 1).get(0));
+        assertEquals(List.of(last.getTitle(), "Casa a"), autocomplete.complete("casa", 2));
+    }
+}
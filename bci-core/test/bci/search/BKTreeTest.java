@@ -0,0 +1,70 @@
+package bci.search;
+
+import bci.test.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static bci.test.Assert.*;
+
+public class BKTreeTest {
+
+    private static Map<String, Integer> search(BKTree tree, String word, int maxDistance) {
+        Map<String, Integer> found = new HashMap<>();
+        tree.search(word, maxDistance, (match, distance) -> assertEquals(null, found.put(match, distance)));
+        return found;
+    }
+
+    @Test
+    public void distanceCountsInsertionsDeletionsAndReplacements() {
+        assertEquals(0, BKTree.distance("saramago", "saramago"));
+        assertEquals(1, BKTree.distance("saramago", "saramgo"));
+        assertEquals(1, BKTree.distance("saramago", "sarramago"));
+        assertEquals(1, BKTree.distance("saramago", "saramego"));
+        assertEquals(3, BKTree.distance("kitten", "sitting"));
+        assertEquals(4, BKTree.distance("", "amor"));
+        assertEquals(BKTree.distance("noite", "note"), BKTree.distance("note", "noite"));
+    }
+
+    @Test
+    public void wordsAreAddedOnce() {
+        BKTree tree = new BKTree();
+        for (String word : List.of("amor", "mar", "amor", "casa", "mar")) {
+            tree.add(word);
+        }
+        assertEquals(3, tree.size());
+        assertEquals(Map.of("amor", 0), search(tree, "amor", 0));
+    }
+
+    @Test
+    public void searchFindsTheSameWordsAsComparingWithEveryWord() {
+        Random random = new Random(11);
+        String[] words = new String[2000];
+        BKTree tree = new BKTree();
+        for (int i = 0; i < words.length; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int length = 3 + random.nextInt(6); word.length() < length; ) {
+                word.append((char) ('a' + random.nextInt(6)));
+            }
+            words[i] = word.toString();
+            tree.add(words[i]);
+        }
+        for (String query : List.of("abc", "fedcba", "aaaa", "bacafe", "z")) {
+            for (int maxDistance = 0; maxDistance <= 2; maxDistance++) {
+                Map<String, Integer> expected = new HashMap<>();
+                for (String word : words) {
+                    int distance = BKTree.distance(query, word);
+                    if (distance <= maxDistance) expected.put(word, distance);
+                }
+                assertEquals(expected, search(tree, query, maxDistance));
+            }
+        }
+    }
+
+    @Test
+    public void emptyTreeFindsNothing() {
+        assertEquals(Map.of(), search(new BKTree(), "amor", 2));
+    }
+}
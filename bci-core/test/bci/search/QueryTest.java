@@ -0,0 +1,98 @@
+package bci.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import bci.LibraryManager;
+import bci.test.TempFiles;
+import bci.test.Test;
+import bci.work.Work;
+
+import static bci.test.Assert.*;
+
+public class QueryTest {
+
+    private static final String[] TITLES = {"Memorial", "Mar", "Convento", "Amor", "Casa", "Noite", "Perdição", "Morto"};
+    private static final String[] CREATORS = {"José Saramago", "Ana Silva", "Miguel Torga", "Rui Mar", "Sophia Andresen"};
+    private static final String[] CATEGORIES = {"FICTION", "SCITECH", "REFERENCE"};
+
+    /**
+     * @return a library of a user and varied works, some of them without copies
+     */
+    private static LibraryManager library() throws Exception {
+        List<String> lines = new ArrayList<>(List.of("USER:Miguel Torga:u0@mail.pt"));
+        for (int i = 0; i < 120; i++) {
+            String title = TITLES[i % TITLES.length] + " " + TITLES[i * 3 % TITLES.length] + " " + i;
+            String creators = CREATORS[i % CREATORS.length];
+            if (i % 4 == 0) creators += "," + CREATORS[(i + 2) % CREATORS.length];
+            String category = CATEGORIES[i % CATEGORIES.length];
+            lines.add(i % 3 == 0
+                    ? "DVD:" + title + ":" + CREATORS[i % CREATORS.length] + ":" + (i % 40) + ":" + category + ":IGAC" + i + ":" + (1 + i % 2)
+                    : "BOOK:" + title + ":" + creators + ":" + (i % 40) + ":" + category + ":" + i + ":" + (1 + i % 3));
+        }
+        LibraryManager manager = new LibraryManager();
+        manager.importFile(TempFiles.importFile(lines.toArray(new String[0])));
+        for (int id = 1; id <= 120; id += 7) {
+            Work work = manager.getWork(id);
+            manager.changeWorkInventory(id, -work.getTotalCopies());
+        }
+        return manager;
+    }
+
+    /** The works with copies that match, found by checking every work, in ID order. */
+    private static List<String> scan(LibraryManager manager, Predicate<Work> matches) {
+        List<String> works = new ArrayList<>();
+        for (Work work : manager.getLibrary().getAllWorks()) {
+            if (work.getTotalCopies() > 0 && matches.test(work)) works.add(work.toString());
+        }
+        return works;
+    }
+
+    private static List<Query> queries() {
+        return List.of(
+                Query.title("mar"),
+                Query.creator("SARAMAGO"),
+                Query.titleOrCreator("mor"),
+                Query.words("mar amor"),
+                Query.category("ficção"),
+                Query.workType("dvd"),
+                Query.priceBetween(10, 20),
+                Query.available(),
+                Query.and(Query.title("mar"), Query.priceBetween(0, 25)),
+                Query.and(Query.available(), Query.workType("livro"), Query.or(Query.title("noite"), Query.creator("torga"))),
+                Query.or(Query.creator("rui"), Query.and(Query.category("técnica"), Query.priceBetween(30, 39))),
+                Query.and(Query.titleOrCreator("xyz"), Query.available()),
+                Query.or(Query.priceBetween(5, 5), Query.words("convento")));
+    }
+
+    @Test
+    public void queriesFindTheWorksOfAScan() throws Exception {
+        LibraryManager manager = library();
+        for (Query query : queries()) {
+            assertEquals(scan(manager, query::matches), manager.queryWorks(query));
+        }
+    }
+
+    @Test
+    public void queriesSeeChangedCopies() throws Exception {
+        LibraryManager manager = library();
+        manager.queryWorks(Query.available());
+        manager.changeWorkInventory(1, 2);
+        manager.requestWork(1, 2);
+        for (Query query : queries()) {
+            assertEquals(scan(manager, query::matches), manager.queryWorks(query));
+        }
+    }
+
+    @Test
+    public void searchesFindTheWorksOfAScan() throws Exception {
+        LibraryManager manager = library();
+        for (String term : List.of("mar", "SARAMAGO", "o", "ção", "noite 1", "xyz", "ana s")) {
+            String key = SearchKey.of(term);
+            List<String> expected = scan(manager, work -> WorkText.contains(work, key));
+            assertEquals(expected, manager.searchWorks(term));
+            assertEquals(expected, manager.searchWorks(term, 0, 1000));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package bci.search;
+
+import bci.LibraryManager;
+import bci.test.TempFiles;
+import bci.test.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static bci.test.Assert.*;
+
+public class SearchCacheTest {
+
+    private static LibraryManager library(int works) throws Exception {
+        List<String> entries = new ArrayList<>();
+        for (int i = 0; i < works; i++) {
+            entries.add("BOOK:Livro " + i + ":Autor " + (i % 7) + ":10:FICTION:" + (1000 + i) + ":1");
+        }
+        entries.add("DVD:Filme:Realizador:10:FICTION:IGAC1:1");
+        LibraryManager manager = new LibraryManager();
+        manager.importFile(TempFiles.importFile(entries.toArray(new String[0])));
+        return manager;
+    }
+
+    @Test
+    public void pagesOfAResultComeFromOneSearch() throws Exception {
+        LibraryManager manager = library(3 * LibraryManager.PAGE_SIZE + 8);
+        List<String> streamed = manager.streamSearchWorks("livro").collect(Collectors.toList());
+
+        SearchCache cache = manager.getSearchCache();
+        assertEquals(1, cache.getMisses());
+        assertEquals(3, cache.getHits());
+        assertEquals(3 * LibraryManager.PAGE_SIZE + 8, streamed.size());
+        assertEquals(manager.searchWorks("livro"), streamed);
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void changedWorkInvalidatesTheCachedIds() throws Exception {
+        LibraryManager manager = library(10);
+        assertEquals(10, manager.searchWorks("livro", 0, 100).size());
+        manager.changeWorkInventory(1, -1);
+        assertEquals(9, manager.searchWorks("livro", 0, 100).size());
+        assertEquals(2, manager.getSearchCache().getMisses());
+    }
+}
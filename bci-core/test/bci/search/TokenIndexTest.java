@@ -0,0 +1,98 @@
+package bci.search;
+
+import bci.creator.Creator;
+import bci.test.Test;
+import bci.work.Work;
+import bci.work.workCategory.Fiction;
+import bci.work.workType.Book;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static bci.test.Assert.*;
+
+public class TokenIndexTest {
+
+    private static final String[][] WORKS = {
+        {"Memorial do Convento", "José Saramago"},
+        {"O Ano da Morte de Ricardo Reis", "José Saramago"},
+        {"Mar Morto", "Jorge Amado"},
+        {"Marta e o Mar", "Ana Marques", "Rui Mar"},
+        {"Mensagem", "Fernando Pessoa"},
+        {"A Mensagem do Mar", "Sophia de Mello Breyner"},
+        {"Amor de Perdição", "Camilo Castelo Branco"},
+    };
+
+    private static List<Work> works() {
+        List<Work> works = new ArrayList<>();
+        for (int i = 0; i < WORKS.length; i++) {
+            List<Creator> creators = new ArrayList<>();
+            for (int j = 1; j < WORKS[i].length; j++) {
+                creators.add(new Creator(WORKS[i][j]));
+            }
+            works.add(new Book(i + 1, WORKS[i][0], 10, new Fiction(), "isbn" + i, creators));
+        }
+        return works;
+    }
+
+    /** The words of the texts of each work, split and compared one work at a time. */
+    private static BitSet scan(List<Work> works, String term) {
+        Set<String> words = words(term);
+        BitSet ids = new BitSet();
+        for (Work work : works) {
+            Set<String> texts = words(work.getTitle());
+            for (Creator author : ((Book) work).getAuthor()) {
+                texts.addAll(words(author.getName()));
+            }
+            if (texts.containsAll(words)) ids.set(work.getIdWork());
+        }
+        return ids;
+    }
+
+    private static Set<String> words(String text) {
+        return Arrays.stream(SearchKey.of(text).split("[^\\p{L}\\p{N}]+"))
+            .filter(word -> !word.isEmpty())
+            .collect(Collectors.toSet());
+    }
+
+    @Test
+    public void wholeWordsAreFoundFromThePostingsAsByAScan() {
+        List<Work> works = works();
+        TokenIndex index = new TokenIndex();
+        works.forEach(index::add);
+        for (String term : List.of("mar", "MAR", "morto mar", "jose", "saramago memorial", "de", "mensagem mar",
+                                   "perdicao", "marques", "ma", "xyz", "mar xyz")) {
+            assertEquals(scan(works, term), index.search(term));
+        }
+        assertEquals(null, index.search(" - "));
+    }
+
+    @Test
+    public void removedWorksLeaveTheirPostings() {
+        List<Work> works = works();
+        TokenIndex index = new TokenIndex();
+        works.forEach(index::add);
+        index.remove(works.get(2));
+        BitSet expected = scan(works, "mar");
+        expected.clear(works.get(2).getIdWork());
+        assertEquals(expected, index.search("mar"));
+        assertEquals(2, index.estimate("mar"));
+        assertEquals(-1, index.estimate(""));
+    }
+
+    @Test
+    public void wordsQueryMatchesWhatTheIndexFinds() {
+        List<Work> works = works();
+        TokenIndex index = new TokenIndex();
+        works.forEach(index::add);
+        BitSet matched = new BitSet();
+        for (Work work : works) {
+            if (Query.words("o mar").matches(work)) matched.set(work.getIdWork());
+        }
+        assertEquals(index.search("o mar"), matched);
+    }
+}
@@ -0,0 +1,70 @@
+package bci.search;
+
+import bci.test.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static bci.test.Assert.*;
+
+public class TopKTest {
+
+    /** Sorted by the first letter only, so that items with the same letter are equal. */
+    private static final Comparator<String> BY_LETTER = Comparator.comparing(item -> item.charAt(0));
+
+    private static List<String> items(int count) {
+        Random random = new Random(7);
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add((char) ('a' + random.nextInt(5)) + Integer.toString(i));
+        }
+        return items;
+    }
+
+    /** Iterates a list without being a collection, as a stream of results is. */
+    private static <T> Iterable<T> iterable(List<T> list) {
+        return list::iterator;
+    }
+
+    @Test
+    public void smallestAreTheFirstOfAStableSort() {
+        List<String> items = items(500);
+        List<String> sorted = new ArrayList<>(items);
+        sorted.sort(BY_LETTER);
+        for (int k : new int[] {1, 7, 100, 499, 500, 600}) {
+            List<String> expected = sorted.subList(0, Math.min(k, sorted.size()));
+            assertEquals(expected, TopK.smallest(iterable(items), k, BY_LETTER));
+            assertEquals(expected, TopK.smallest(items, k, BY_LETTER));
+        }
+    }
+
+    @Test
+    public void nothingIsSelectedForNoElements() {
+        assertEquals(List.of(), TopK.smallest(items(10), 0, BY_LETTER));
+        assertEquals(List.of(), TopK.smallest(new ArrayList<String>(), 5, BY_LETTER));
+    }
+
+    @Test
+    public void pagesJoinIntoTheSortedElements() {
+        List<String> items = items(300);
+        List<String> sorted = new ArrayList<>(items);
+        sorted.sort(BY_LETTER);
+        List<String> pages = new ArrayList<>();
+        for (int offset = 0; offset < items.size(); offset += 64) {
+            List<String> page = TopK.page(items, offset, 64, BY_LETTER);
+            assertEquals(Math.min(64, items.size() - offset), page.size());
+            pages.addAll(page);
+        }
+        assertEquals(sorted, pages);
+    }
+
+    @Test
+    public void pagesOutOfRangeAreEmpty() {
+        List<String> items = items(10);
+        assertEquals(List.of(), TopK.page(items, 10, 5, BY_LETTER));
+        assertEquals(List.of(), TopK.page(items, 3, 0, BY_LETTER));
+        assertEquals(2, TopK.page(items, 8, Integer.MAX_VALUE, BY_LETTER).size());
+    }
+}
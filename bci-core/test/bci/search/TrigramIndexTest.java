@@ -0,0 +1,109 @@
+package bci.search;
+
+import bci.creator.Creator;
+import bci.test.Test;
+import bci.work.Work;
+import bci.work.workCategory.Fiction;
+import bci.work.workType.Book;
+import bci.work.workType.DVD;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static bci.test.Assert.*;
+
+public class TrigramIndexTest {
+
+    private static final String[][] BOOKS = {
+        {"Memorial do Convento", "José Saramago"},
+        {"O Ano da Morte de Ricardo Reis", "José Saramago"},
+        {"Mar Morto", "Jorge Amado"},
+        {"Marta e o Mar", "Ana Marques", "Rui Mar"},
+        {"Mensagem", "Fernando Pessoa"},
+        {"Amor de Perdição", "Camilo Castelo Branco"},
+        {"Ó", "Zé"},
+    };
+
+    private static List<Work> works() {
+        List<Work> works = new ArrayList<>();
+        for (int i = 0; i < BOOKS.length; i++) {
+            List<Creator> creators = new ArrayList<>();
+            for (int j = 1; j < BOOKS[i].length; j++) {
+                creators.add(new Creator(BOOKS[i][j]));
+            }
+            works.add(new Book(i + 1, BOOKS[i][0], 10, new Fiction(), "isbn" + i, creators));
+        }
+        works.add(new DVD(BOOKS.length + 1, "A Mensagem do Mar", 10, new Fiction(), "IGAC1", new Creator("Manoel de Oliveira")));
+        works.add(new DVD(BOOKS.length + 2, "Aniki-Bóbó", 10, new Fiction(), "IGAC2", null));
+        return works;
+    }
+
+    private static TrigramIndex index(List<Work> works) {
+        TrigramIndex index = new TrigramIndex();
+        for (Work work : works) {
+            index.add(work);
+        }
+        return index;
+    }
+
+    /** The works found by scanning them, as the search did before the index. */
+    private static BitSet scan(List<Work> works, String term) {
+        BitSet ids = new BitSet();
+        for (Work work : new SearchByTitleOrCreator().search(term, works)) {
+            ids.set(work.getIdWork());
+        }
+        return ids;
+    }
+
+    /** Every substring of up to six characters of the texts of the works, and some misses. */
+    private static Set<String> terms(List<Work> works) {
+        Set<String> terms = new LinkedHashSet<>(List.of("MAR", "saramágo", "mar morto", "xyz", "zzzz", "o m", "ó"));
+        for (Work work : works) {
+            List<String> texts = new ArrayList<>(List.of(work.getTitle()));
+            if (work.getCreator() != null) texts.add(work.getCreator().getName());
+            for (String text : texts) {
+                for (int i = 0; i < text.length(); i++) {
+                    for (int j = i + 1; j <= Math.min(text.length(), i + 6); j++) {
+                        terms.add(text.substring(i, j));
+                    }
+                }
+            }
+        }
+        terms.removeIf(term -> !TrigramIndex.isIndexable(term));
+        return terms;
+    }
+
+    @Test
+    public void searchFindsTheWorksOfAScan() {
+        List<Work> works = works();
+        TrigramIndex index = index(works);
+        for (String term : terms(works)) {
+            BitSet expected = scan(works, term);
+            assertEquals(term + " " + expected, term + " " + index.search(term, id -> works.get(id - 1)));
+            assertTrue(index.estimate(term) >= expected.cardinality(), "estimate of " + term);
+        }
+    }
+
+    @Test
+    public void removedWorksAreNotFound() {
+        List<Work> works = works();
+        TrigramIndex index = index(works);
+        index.remove(works.get(2));
+        index.remove(works.get(3));
+        List<Work> left = new ArrayList<>(works);
+        left.remove(3);
+        left.remove(2);
+        for (String term : terms(works)) {
+            assertEquals(term + " " + scan(left, term), term + " " + index.search(term, id -> works.get(id - 1)));
+        }
+    }
+
+    @Test
+    public void blankTermsAreNotIndexable() {
+        assertFalse(TrigramIndex.isIndexable(""), "empty");
+        assertTrue(TrigramIndex.isIndexable("a"), "one letter");
+    }
+}
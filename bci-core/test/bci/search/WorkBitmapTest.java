@@ -0,0 +1,97 @@
+package bci.search;
+
+import bci.test.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static bci.test.Assert.*;
+
+public class WorkBitmapTest {
+
+    private static WorkBitmap range(int from, int to) {
+        WorkBitmap bitmap = new WorkBitmap();
+        for (int id = from; id < to; id++) {
+            bitmap.add(id);
+        }
+        return bitmap;
+    }
+
+    private static BitSet random(Random random, int bound, int count) {
+        BitSet ids = new BitSet();
+        for (int i = 0; i < count; i++) {
+            ids.set(random.nextInt(bound));
+        }
+        return ids;
+    }
+
+    @Test
+    public void chunkBecomesABitmapPastTheArrayLimit() {
+        WorkBitmap bitmap = range(0, WorkBitmap.ARRAY_MAX);
+        assertEquals(0, bitmap.bitmapContainers());
+        bitmap.add(WorkBitmap.ARRAY_MAX);
+        assertEquals(1, bitmap.bitmapContainers());
+        assertEquals(WorkBitmap.ARRAY_MAX + 1, bitmap.cardinality());
+        for (int id = 0; id <= WorkBitmap.ARRAY_MAX; id++) {
+            assertTrue(bitmap.contains(id), "contains " + id);
+        }
+    }
+
+    @Test
+    public void chunkBecomesAnArrayAgainWhenEmptied() {
+        WorkBitmap bitmap = range(0, WorkBitmap.ARRAY_MAX + 1);
+        bitmap.remove(17);
+        assertEquals(0, bitmap.bitmapContainers());
+        assertFalse(bitmap.contains(17), "removed");
+        assertEquals(WorkBitmap.ARRAY_MAX, bitmap.cardinality());
+        bitmap.add(17);
+        assertEquals(1, bitmap.bitmapContainers());
+    }
+
+    @Test
+    public void chunksAreConvertedOnTheirOwn() {
+        WorkBitmap bitmap = range(0, 2 * WorkBitmap.ARRAY_MAX);
+        bitmap.add(1 << 16);
+        bitmap.add(3 << 16 | 5);
+        assertEquals(1, bitmap.bitmapContainers());
+        assertEquals(2 * WorkBitmap.ARRAY_MAX + 2, bitmap.cardinality());
+        assertTrue(bitmap.contains(3 << 16 | 5), "high chunk");
+        assertFalse(bitmap.contains(2 << 16), "missing chunk");
+    }
+
+    @Test
+    public void intersectionOfBitmapsSmallEnoughIsAnArray() {
+        WorkBitmap evens = new WorkBitmap();
+        WorkBitmap threes = new WorkBitmap();
+        for (int id = 0; id < 1 << 16; id++) {
+            if (id % 2 == 0) evens.add(id);
+            if (id % 3 == 0) threes.add(id);
+        }
+        WorkBitmap sixes = evens.and(threes);
+        assertEquals(1, sixes.bitmapContainers());
+        WorkBitmap few = sixes.and(range(0, 6000));
+        assertEquals(0, few.bitmapContainers());
+        assertEquals(1000, few.cardinality());
+    }
+
+    @Test
+    public void operationsMatchBitSetsAcrossContainerTypes() {
+        Random random = new Random(3);
+        for (int round = 0; round < 20; round++) {
+            int count = round % 2 == 0 ? 300 : 60_000;
+            BitSet a = random(random, 3 << 16, count);
+            BitSet b = random(random, 3 << 16, 3 * count / 2);
+            WorkBitmap left = WorkBitmap.of(a);
+            WorkBitmap right = WorkBitmap.of(b);
+
+            BitSet and = (BitSet) a.clone();
+            and.and(b);
+            BitSet or = (BitSet) a.clone();
+            or.or(b);
+            assertEquals(and, left.and(right).toBitSet());
+            assertEquals(and.cardinality(), left.andCardinality(right));
+            assertEquals(or, left.or(right).toBitSet());
+            assertEquals(a.cardinality(), left.cardinality());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package bci.storage;
+
+import bci.Library;
+import bci.LibraryManager;
+import bci.test.TempFiles;
+import bci.test.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static bci.test.Assert.*;
+import static bci.test.Libraries.*;
+
+public class BackgroundSnapshotTest {
+
+    /** Runs the write of a save only when asked to, so the library can change meanwhile. */
+    private static final class Deferred implements Executor {
+        private Runnable _write;
+
+        @Override
+        public void execute(Runnable write) {
+            _write = write;
+        }
+
+        void run() {
+            _write.run();
+        }
+    }
+
+    private static void writesTheStateWhenTheSaveStarted(SnapshotFormat format) throws Exception {
+        String filename = TempFiles.path("library.dat");
+        LibraryManager manager = imported();
+        manager.requestWork(2, 1);
+        String started = state(manager);
+
+        Deferred executor = new Deferred();
+        CompletableFuture<Long> save = BackgroundSnapshot.start(manager.getLibrary(), filename, format, executor);
+        manager.requestWork(1, 1);
+        manager.returnWork(2, 1);
+        manager.changeWorkInventory(2, 4);
+        manager.processUser("USER", "Novo Utente", "n@mail.pt");
+        manager.processWork("BOOK", "Livro Novo", "Autor Novo", "10", "FICTION", "123", "2");
+        manager.advanceDate(9);
+        String changed = state(manager);
+        executor.run();
+        assertTrue(save.join() > 0, "the save writes the file");
+
+        LibraryManager loaded = new LibraryManager();
+        loaded.load(filename);
+        assertEquals(started, state(loaded));
+        assertEquals(changed, state(manager));
+        assertTrue(manager.hasChanged(), "changes made during the save are not in the file");
+    }
+
+    @Test
+    public void binarySaveWritesTheStateWhenItStarted() throws Exception {
+        writesTheStateWhenTheSaveStarted(SnapshotFormat.BINARY);
+    }
+
+    @Test
+    public void serializedSaveWritesTheStateWhenItStarted() throws Exception {
+        writesTheStateWhenTheSaveStarted(SnapshotFormat.SERIALIZED);
+    }
+
+    @Test
+    public void preImageIsKeptOnlyForEntitiesNotWrittenYet() throws Exception {
+        Library library = imported().getLibrary();
+        SnapshotWriter encoder = new SnapshotWriter(library);
+        byte[] firstBefore = encoder.userRecord(library.getUser(1));
+        byte[] secondBefore = encoder.userRecord(library.getUser(2));
+
+        SnapshotView view;
+        synchronized (library) {
+            view = new SnapshotView(library);
+            library.beginSnapshotView(view);
+        }
+        assertTrue(Arrays.equals(firstBefore, view.userRecord(library, 1)), "user 1 is written as it is");
+        library.requestWork(1, 1);
+        library.requestWork(2, 2);
+        assertTrue(Arrays.equals(secondBefore, view.userRecord(library, 2)), "user 2 is written as it was");
+        library.endSnapshotView(view);
+
+        byte[] secondAfter = encoder.userRecord(library.getUser(2));
+        assertFalse(Arrays.equals(secondBefore, secondAfter), "the loan changed user 2");
+    }
+}
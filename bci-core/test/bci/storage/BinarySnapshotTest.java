@@ -0,0 +1,97 @@
+package bci.storage;
+
+import java.io.EOFException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import bci.Library;
+import bci.LibraryManager;
+import bci.test.TempFiles;
+import bci.test.Test;
+
+import static bci.test.Assert.*;
+import static bci.test.Libraries.*;
+
+public class BinarySnapshotTest {
+
+    /**
+     * @return a library with loans, interests, an overdue user and notifications
+     */
+    private static LibraryManager busy() throws Exception {
+        LibraryManager manager = imported();
+        manager.requestWork(1, 2);
+        manager.registerAvailabilityInterest(2, 2);
+        manager.requestWork(2, 1);
+        manager.registerBorrowingInterest(1, 1);
+        manager.advanceDate(30);
+        manager.returnWork(1, 2);
+        manager.changeWorkInventory(1, 2);
+        return manager;
+    }
+
+    private static LibraryManager loaded(String filename) throws Exception {
+        LibraryManager manager = new LibraryManager();
+        manager.load(filename);
+        return manager;
+    }
+
+    @Test
+    public void binarySnapshotLoadsLikeTheSerializedOne() throws Exception {
+        LibraryManager manager = busy();
+        String serialized = TempFiles.path("library.ser");
+        String binary = TempFiles.path("library.bin");
+        manager.setSaveFormat(SnapshotFormat.SERIALIZED);
+        manager.saveAs(serialized);
+        manager.setSaveFormat(SnapshotFormat.BINARY);
+        manager.getLibrary().changed();
+        manager.saveAs(binary);
+        assertTrue(BinarySnapshot.isBinarySnapshot(binary), "binary file");
+        assertFalse(BinarySnapshot.isBinarySnapshot(serialized), "serialized file");
+
+        LibraryManager fromSerialized = loaded(serialized);
+        LibraryManager fromBinary = loaded(binary);
+        assertEquals(state(manager), state(fromBinary));
+        assertEquals(state(fromSerialized), state(fromBinary));
+        Library expected = fromSerialized.getLibrary();
+        Library actual = fromBinary.getLibrary();
+        assertEquals(expected.getAvailabilityInterests(), actual.getAvailabilityInterests());
+        assertEquals(expected.getBorrowingInterests(), actual.getBorrowingInterests());
+        assertEquals(expected.getJournalSequence(), actual.getJournalSequence());
+        for (int userId = 1; userId <= 2; userId++) {
+            assertEquals(fromSerialized.showUserNotifications(userId), fromBinary.showUserNotifications(userId));
+        }
+        assertEquals(fromSerialized.showWorksByCreator("Ana Silva"), fromBinary.showWorksByCreator("Ana Silva"));
+    }
+
+    @Test
+    public void fileThatIsNotASnapshotIsRejected() throws Exception {
+        String filename = TempFiles.importFile("USER:Miguel Torga:u0@mail.pt");
+        assertThrows(StreamCorruptedException.class, () -> BinarySnapshot.read(filename));
+    }
+
+    @Test
+    public void requestOfAMissingWorkIsCorrupt() throws Exception {
+        String filename = TempFiles.path("library.bin");
+        saved(filename, SnapshotFormat.BINARY);
+        Library library = BinarySnapshot.read(filename);
+        try (SnapshotReader reader = new SnapshotReader(library, filename)) {
+            ByteBuffer record = ByteBuffer.allocate(4 * Integer.BYTES).putInt(1).putInt(99).putInt(1).putInt(3).flip();
+            assertThrows(StreamCorruptedException.class, () -> reader.decodeRequest(record));
+            ByteBuffer missingUser = ByteBuffer.allocate(4 * Integer.BYTES).putInt(99).putInt(1).putInt(1).putInt(3).flip();
+            assertThrows(StreamCorruptedException.class, () -> reader.decodeRequest(missingUser));
+        }
+    }
+
+    @Test
+    public void truncatedSnapshotIsRejected() throws Exception {
+        String filename = TempFiles.path("library.bin");
+        saved(filename, SnapshotFormat.BINARY);
+        Path path = Path.of(filename);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(EOFException.class, () -> BinarySnapshot.read(filename));
+    }
+}
@@ -0,0 +1,73 @@
+package bci.storage;
+
+import bci.Library;
+import bci.LibraryManager;
+import bci.test.TempFiles;
+import bci.test.Test;
+import bci.work.workType.Book;
+
+import java.io.RandomAccessFile;
+
+import static bci.test.Assert.*;
+import static bci.test.Libraries.*;
+
+public class JournalTest {
+
+    @Test
+    public void replayAppliesTheOperationsSinceTheSnapshot() throws Exception {
+        String filename = TempFiles.path("library.dat");
+        LibraryManager manager = journaled(filename);
+        manager.processUser("USER", "Novo Utente", "n@mail.pt");
+        manager.processWork("BOOK", "Livro Novo", "Autor Novo", "10", "FICTION", "123", "2");
+        manager.requestWork(1, 2);
+        manager.advanceDate(20);
+        manager.changeWorkInventory(1, 3);
+        Book book = (Book) manager.getWork(1);
+        manager.addAuthor(book, "Sophia Andresen");
+        manager.removeAuthor(book, book.getAuthor().get(0));
+
+        LibraryManager loaded = new LibraryManager();
+        loaded.load(filename);
+        assertEquals(state(manager), state(loaded));
+        assertTrue(loaded.hasChanged(), "without a journal, replayed changes exist only in memory");
+    }
+
+    @Test
+    public void replaySkipsRecordsAlreadyInTheSnapshot() throws Exception {
+        String filename = TempFiles.path("library.dat");
+        Library library = journaled(filename).getLibrary();
+        long sequence = library.getJournalSequence();
+        int date = library.getCurrentDate();
+
+        Journal journal = new Journal(filename);
+        journal.open();
+        journal.append(sequence, JournalOperation.ADVANCE_DATE, 5);
+        journal.append(sequence + 1, JournalOperation.ADVANCE_DATE, 7);
+        journal.close();
+
+        assertEquals(1, new Journal(filename).replay(library));
+        assertEquals(date + 7, library.getCurrentDate());
+        assertEquals(sequence + 1, library.getJournalSequence());
+    }
+
+    @Test
+    public void tornRecordIsDroppedAndAppendingContinues() throws Exception {
+        String filename = TempFiles.path("library.dat");
+        LibraryManager manager = journaled(filename);
+        manager.advanceDate(3);
+        try (RandomAccessFile journal = new RandomAccessFile(filename + ".journal", "rw")) {
+            journal.seek(journal.length());
+            journal.write(new byte[] {0, 0, 0, 40, 1, 2, 3});
+        }
+
+        LibraryManager reopened = new LibraryManager();
+        reopened.setJournaling(true);
+        reopened.load(filename);
+        assertEquals(state(manager), state(reopened));
+
+        reopened.advanceDate(4);
+        LibraryManager loaded = new LibraryManager();
+        loaded.load(filename);
+        assertEquals(state(reopened), state(loaded));
+    }
+}
@@ -0,0 +1,73 @@
+package bci.storage;
+
+import bci.LibraryManager;
+import bci.test.TempFiles;
+import bci.test.Test;
+
+import static bci.test.Assert.*;
+import static bci.test.Libraries.*;
+
+public class SegmentsTest {
+
+    private static void roundTrip(SnapshotFormat format) throws Exception {
+        String filename = TempFiles.path("library.dat");
+        LibraryManager manager = saved(filename, format);
+        manager.requestWork(1, 1);
+        manager.requestWork(2, 2);
+        manager.saveIncremental();
+        manager.returnWork(1, 1);
+        manager.processUser("USER", "Novo Utente", "n@mail.pt");
+        manager.processWork("BOOK", "Livro Novo", "Autor Novo", "10", "FICTION", "123", "2");
+        manager.registerAvailabilityInterest(3, 2);
+        manager.changeWorkInventory(1, 2);
+        manager.advanceDate(9);
+        manager.saveIncremental();
+        assertEquals(2, Segments.count(filename));
+
+        LibraryManager loaded = new LibraryManager();
+        loaded.load(filename);
+        assertEquals(state(manager), state(loaded));
+        assertEquals(manager.getLibrary().getAvailabilityInterests(), loaded.getLibrary().getAvailabilityInterests());
+    }
+
+    @Test
+    public void segmentsOfABinarySnapshotRoundTrip() throws Exception {
+        roundTrip(SnapshotFormat.BINARY);
+    }
+
+    @Test
+    public void segmentsOfASerializedSnapshotRoundTrip() throws Exception {
+        roundTrip(SnapshotFormat.SERIALIZED);
+    }
+
+    @Test
+    public void tooManySegmentsAreMergedIntoTheFile() throws Exception {
+        String filename = TempFiles.path("library.dat");
+        LibraryManager manager = saved(filename, SnapshotFormat.BINARY);
+        manager.setMaxSegments(1);
+        manager.requestWork(1, 1);
+        manager.saveIncremental();
+        manager.advanceDate(2);
+        manager.saveIncremental();
+        assertEquals(0, Segments.count(filename));
+
+        LibraryManager loaded = new LibraryManager();
+        loaded.load(filename);
+        assertEquals(state(manager), state(loaded));
+    }
+
+    @Test
+    public void fullSaveDeletesTheSegments() throws Exception {
+        String filename = TempFiles.path("library.dat");
+        LibraryManager manager = saved(filename, SnapshotFormat.BINARY);
+        manager.advanceDate(1);
+        manager.saveIncremental();
+        manager.advanceDate(1);
+        manager.save();
+        assertEquals(0, Segments.count(filename));
+
+        LibraryManager loaded = new LibraryManager();
+        loaded.load(filename);
+        assertEquals(state(manager), state(loaded));
+    }
+}
@@ -0,0 +1,64 @@
+package bci.test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Runs every {@link Test} method of the test classes, each on a new instance of its class,
+ * and exits with a non-zero status if any of them fails.
+ */
+public final class AllTests {
+
+    private static final List<String> CLASSES = List.of(
+            "bci.IdTableTest",
+            "bci.importer.FieldCursorTest",
+            "bci.importer.ImportStagingTest",
+            "bci.importer.LineReaderTest",
+            "bci.importer.MappedImportFileTest",
+            "bci.search.AutocompleteTest",
+            "bci.search.BKTreeTest",
+            "bci.search.QueryTest",
+            "bci.search.SearchCacheTest",
+            "bci.search.TokenIndexTest",
+            "bci.search.TopKTest",
+            "bci.search.TrigramIndexTest",
+            "bci.search.WorkBitmapTest",
+            "bci.storage.BackgroundSnapshotTest",
+            "bci.storage.BinarySnapshotTest",
+            "bci.storage.JournalTest",
+            "bci.storage.SegmentsTest",
+            "bci.user.LoanCountersTest",
+            "bci.work.CatalogStoreTest",
+            "bci.work.CategoryTest",
+            "bci.work.InventoryTest"
+    );
+
+    private AllTests() {
+    }
+
+    public static void main(String[] args) throws ReflectiveOperationException {
+        int run = 0;
+        int failed = 0;
+        for (String name : args.length > 0 ? Arrays.asList(args) : CLASSES) {
+            Class<?> type = Class.forName(name);
+            Method[] methods = type.getMethods();
+            Arrays.sort(methods, Comparator.comparing(Method::getName));
+            for (Method method : methods) {
+                if (!method.isAnnotationPresent(Test.class)) continue;
+                run++;
+                try {
+                    method.invoke(type.getConstructor().newInstance());
+                } catch (InvocationTargetException e) {
+                    failed++;
+                    System.out.println("FAIL " + type.getSimpleName() + "." + method.getName());
+                    e.getCause().printStackTrace(System.out);
+                }
+            }
+        }
+        System.out.println(run + " tests, " + failed + " failed");
+        if (failed > 0) System.exit(1);
+    }
+}
@@ -0,0 +1,47 @@
+package bci.test;
+
+import java.util.Objects;
+
+/**
+ * The checks made by the tests. A failed check throws an {@link AssertionError}.
+ */
+public final class Assert {
+
+    private Assert() {
+    }
+
+    /**
+     * A piece of code expected to throw.
+     */
+    public interface Code {
+        void run() throws Exception;
+    }
+
+    public static void assertTrue(boolean condition, String message) {
+        if (!condition) throw new AssertionError(message);
+    }
+
+    public static void assertFalse(boolean condition, String message) {
+        assertTrue(!condition, message);
+    }
+
+    public static void assertEquals(Object expected, Object actual) {
+        if (!Objects.equals(expected, actual)) {
+            throw new AssertionError("expected <" + expected + "> but was <" + actual + ">");
+        }
+    }
+
+    public static void assertEquals(long expected, long actual) {
+        assertEquals(Long.valueOf(expected), Long.valueOf(actual));
+    }
+
+    public static <T extends Throwable> T assertThrows(Class<T> type, Code code) {
+        try {
+            code.run();
+        } catch (Throwable e) {
+            if (type.isInstance(e)) return type.cast(e);
+            throw new AssertionError("expected " + type.getSimpleName() + " but got " + e, e);
+        }
+        throw new AssertionError("expected " + type.getSimpleName() + " to be thrown");
+    }
+}
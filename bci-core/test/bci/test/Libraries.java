@@ -0,0 +1,66 @@
+package bci.test;
+
+import bci.LibraryManager;
+import bci.storage.SnapshotFormat;
+
+/**
+ * The library most tests start from, and how they compare two libraries.
+ */
+public final class Libraries {
+
+    /** Two users, a book by two authors and a DVD. */
+    private static final String[] ENTRIES = {
+        "USER:Miguel Torga:u0@mail.pt",
+        "USER:Vergílio Ferreira:u1@mail.pt",
+        "BOOK:amor Porto:José Saramago,Ana Silva:19:FICTION:7340888752:6",
+        "DVD:casa:Miguel Torga:20:FICTION:IGAC3:1",
+    };
+
+    private Libraries() {
+    }
+
+    /**
+     * @return a manager with the entries imported
+     * @throws Exception if the entries cannot be imported
+     */
+    public static LibraryManager imported() throws Exception {
+        LibraryManager manager = new LibraryManager();
+        manager.importFile(TempFiles.importFile(ENTRIES));
+        return manager;
+    }
+
+    /**
+     * @param filename the file to save to
+     * @param format the format of the file
+     * @return a manager with the entries imported and saved to the file
+     * @throws Exception if the library cannot be imported or saved
+     */
+    public static LibraryManager saved(String filename, SnapshotFormat format) throws Exception {
+        LibraryManager manager = imported();
+        manager.setSaveFormat(format);
+        manager.saveAs(filename);
+        return manager;
+    }
+
+    /**
+     * @param filename the file to save to
+     * @return a manager with the entries imported and saved to the file, journaling its changes
+     * @throws Exception if the library cannot be imported or saved
+     */
+    public static LibraryManager journaled(String filename) throws Exception {
+        LibraryManager manager = imported();
+        manager.setJournaling(true);
+        manager.saveAs(filename);
+        return manager;
+    }
+
+    /**
+     * @param manager a manager
+     * @return what the users see of its library: the date, the users, the works and the number
+     *         of loans
+     */
+    public static String state(LibraryManager manager) {
+        return manager.getCurrentDate() + "\n" + manager.showUsers() + "\n" + manager.showWorks()
+                + "\n" + manager.getLibrary().getActiveRequests().size();
+    }
+}
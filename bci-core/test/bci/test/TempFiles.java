@@ -0,0 +1,58 @@
+package bci.test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Files for the tests, in a directory deleted when the tests exit.
+ */
+public final class TempFiles {
+
+    private static Path _directory;
+
+    private TempFiles() {
+    }
+
+    /**
+     * @param name a file name
+     * @return the path of a file with that name, in a directory of its own
+     * @throws IOException if the directory cannot be created
+     */
+    public static synchronized String path(String name) throws IOException {
+        return Files.createTempDirectory(directory(), "t").resolve(name).toString();
+    }
+
+    /**
+     * Writes an import file with the given lines.
+     *
+     * @param lines the entries
+     * @return the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    public static String importFile(String... lines) throws IOException {
+        String path = path("library.import");
+        Files.write(Path.of(path), List.of(lines));
+        return path;
+    }
+
+    private static Path directory() throws IOException {
+        if (_directory == null) {
+            Path directory = Files.createTempDirectory("bci-test");
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> delete(directory)));
+            _directory = directory;
+        }
+        return _directory;
+    }
+
+    private static void delete(Path directory) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            // left for the system to clean
+        }
+    }
+}
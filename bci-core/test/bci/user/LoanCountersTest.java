@@ -0,0 +1,82 @@
+package bci.user;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.function.Consumer;
+
+import bci.test.Test;
+
+import static bci.test.Assert.*;
+
+public class LoanCountersTest {
+
+    private static String counters(User user) {
+        return user.getCurrentRequests() + " " + user.getFines() + " " + user.getCurrentOnTime() + " "
+                + user.getConsecutiveLate() + " " + user.getBehavior() + " " + user;
+    }
+
+    /** Loans, returns and fines, applied to a user one step at a time. */
+    private static final Consumer<User> LOANS = user -> {
+        user.setCurrentRequests(user.getCurrentRequests() + 2);
+        for (int i = 0; i < 6; i++) user.recordReturn(true);
+        user.setCurrentRequests(user.getCurrentRequests() - 1);
+        for (int i = 0; i < 3; i++) user.recordReturn(false);
+        user.addLateRequest(null);
+        user.addFine(15);
+        user.updateStatus();
+    };
+
+    @Test
+    public void attachedUserCountsLikeAUserWithItsOwnFields() {
+        User detached = new User(3, "Ana Silva", "a@mail.pt");
+        User attached = new User(3, "Ana Silva", "a@mail.pt");
+        LoanCounters counters = new LoanCounters();
+        attached.attach(counters);
+        LOANS.accept(detached);
+        LOANS.accept(attached);
+        assertEquals(counters(detached), counters(attached));
+        assertEquals(15, counters.getFines(3));
+        assertEquals(detached.getConsecutiveLate(), counters.getConsecutiveLate(3));
+    }
+
+    @Test
+    public void attachingKeepsTheCountsAndLeavesOtherUsersAlone() {
+        User user = new User(40, "Ana Silva", "a@mail.pt");
+        LOANS.accept(user);
+        String before = counters(user);
+        LoanCounters counters = new LoanCounters();
+        User other = new User(2, "Rui Mar", "r@mail.pt");
+        other.attach(counters);
+        user.attach(counters);
+        assertEquals(before, counters(user));
+        assertEquals("0 0 0 0 NORMAL " + other, counters(other));
+        assertEquals(0, counters.getFines(1000));
+    }
+
+    @Test
+    public void changingTheIdMovesTheCounts() {
+        LoanCounters counters = new LoanCounters();
+        User user = new User(1, "Ana Silva", "a@mail.pt");
+        user.attach(counters);
+        LOANS.accept(user);
+        user.setIdUser(7);
+        assertEquals(15, counters.getFines(7));
+        assertEquals(15, user.getFines());
+    }
+
+    @Test
+    public void serializedUserHasTheCountsOfItsLibrary() throws Exception {
+        User user = new User(5, "Ana Silva", "a@mail.pt");
+        user.attach(new LoanCounters());
+        LOANS.accept(user);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(user);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(counters(user), counters((User) in.readObject()));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package bci.work;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import bci.Library;
+import bci.LibraryManager;
+import bci.creator.Creator;
+import bci.storage.SnapshotFormat;
+import bci.test.TempFiles;
+import bci.test.Test;
+import bci.work.workType.Book;
+import bci.work.workType.DVD;
+
+import static bci.test.Assert.*;
+import static bci.test.Libraries.*;
+
+public class CatalogStoreTest {
+
+    /**
+     * @return every getter of every work of a library, checking that the creators and
+     *         categories of the works are the instances of the library
+     */
+    private static List<String> getters(Library library) {
+        List<String> getters = new ArrayList<>();
+        for (Work work : library.getAllWorks()) {
+            List<Creator> creators = new ArrayList<>();
+            String code;
+            if (work instanceof Book book) {
+                creators.addAll(book.getAuthor());
+                code = book.getIsbn();
+            } else {
+                creators.add(((DVD) work).getDirector());
+                code = ((DVD) work).getIgac();
+            }
+            for (Creator creator : creators) {
+                assertTrue(library.findCreator(creator.getName()).get() == creator, "creator of the library");
+                assertTrue(creator.getWorkIds().contains(work.getIdWork()), "work of its creator");
+            }
+            assertTrue(library.getCategoryByName(work.getCategory().getKey()) == work.getCategory(),
+                       "category of the library");
+            getters.add(work.getIdWork() + "|" + work.getTitle() + "|" + work.getSearchKey() + "|"
+                    + work.getPrice() + "|" + work.getCategoryName() + "|" + work.getWorkType() + "|"
+                    + creators + "|" + work.getCreator() + "|" + code + "|" + work.getTotalCopies() + "|"
+                    + work.getAvailableCopies() + "|" + work.isAvailable() + "|" + work.getAdditionalInfo()
+                    + "|" + work);
+        }
+        return getters;
+    }
+
+    private static void reload(SnapshotFormat format) throws Exception {
+        String filename = TempFiles.path("library.dat");
+        LibraryManager manager = saved(filename, format);
+        List<String> original = getters(manager.getLibrary());
+
+        LibraryManager loaded = new LibraryManager();
+        loaded.setOffHeapCatalog(true);
+        loaded.load(filename);
+        assertEquals(original, getters(loaded.getLibrary()));
+        assertEquals(state(manager), state(loaded));
+
+        manager.setOffHeapCatalog(true);
+        assertEquals(original, getters(manager.getLibrary()));
+    }
+
+    @Test
+    public void offloadedCatalogReloadedFromABinarySnapshotKeepsEveryGetter() throws Exception {
+        reload(SnapshotFormat.BINARY);
+    }
+
+    @Test
+    public void offloadedCatalogReloadedFromASerializedSnapshotKeepsEveryGetter() throws Exception {
+        reload(SnapshotFormat.SERIALIZED);
+    }
+
+    @Test
+    public void offloadedCatalogSavedAndReloadedKeepsEveryGetter() throws Exception {
+        LibraryManager manager = imported();
+        manager.setOffHeapCatalog(true);
+        manager.requestWork(1, 1);
+        List<String> original = getters(manager.getLibrary());
+
+        String filename = TempFiles.path("library.dat");
+        manager.saveAs(filename);
+        LibraryManager loaded = new LibraryManager();
+        loaded.setOffHeapCatalog(true);
+        loaded.load(filename);
+        assertEquals(original, getters(loaded.getLibrary()));
+    }
+
+    @Test
+    public void changesToOffloadedWorksAreKept() throws Exception {
+        LibraryManager manager = imported();
+        manager.setOffHeapCatalog(true);
+        manager.processWork("BOOK", "Livro Novo", "Autor Novo", "10", "FICTION", "123", "2");
+        Library library = manager.getLibrary();
+        library.addAuthor((Book) library.getWork(1), "Autor Novo");
+        assertEquals("[José Saramago, Ana Silva, Autor Novo]", ((Book) library.getWork(1)).getAuthor().toString());
+        library.removeAuthor((Book) library.getWork(1), library.findCreator("Ana Silva").get());
+        manager.changeWorkInventory(2, 3);
+
+        Book changed = (Book) library.getWork(1);
+        assertEquals("[José Saramago, Autor Novo]", changed.getAuthor().toString());
+        assertFalse(library.findCreator("Ana Silva").get().getWorkIds().contains(1), "removed author");
+        assertEquals(4, library.getWork(2).getTotalCopies());
+        assertEquals("Livro Novo", library.getWork(3).getTitle());
+        assertEquals("livro novo", library.getWork(3).getSearchKey());
+        assertEquals(List.of(changed.toString(), library.getWork(3).toString()),
+                     manager.showWorksByCreator("Autor Novo"));
+    }
+}
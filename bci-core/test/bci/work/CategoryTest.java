@@ -0,0 +1,86 @@
+package bci.work;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import bci.Library;
+import bci.LibraryManager;
+import bci.storage.SnapshotFormat;
+import bci.test.TempFiles;
+import bci.test.Test;
+import bci.work.workCategory.Category;
+
+import static bci.test.Assert.*;
+import static bci.test.Libraries.*;
+
+public class CategoryTest {
+
+    private static final String[] KEYS = {"FICTION", "SCITECH", "REFERENCE"};
+
+    private static LibraryManager library() throws Exception {
+        LibraryManager manager = imported();
+        manager.processWork("BOOK", "Manual", "Ana Silva", "30", "SCITECH", "1", "2");
+        manager.processWork("DVD", "Atlas", "Rui Mar", "15", "REFERENCE", "IGAC9", "1");
+        manager.processWork("BOOK", "Contos", "Ana Silva", "12", "fiction", "2", "1");
+        manager.changeWorkInventory(2, -1);
+        return manager;
+    }
+
+    /** The works of a category with copies, found by checking the category of every work. */
+    private static List<String> scan(Library library, String key) {
+        List<String> works = new ArrayList<>();
+        for (Work work : library.getAllWorks()) {
+            if (work.getTotalCopies() > 0 && work.getCategory().getKey().equals(key)) works.add(work.toString());
+        }
+        return works;
+    }
+
+    private static void assertShared(LibraryManager manager) {
+        Library library = manager.getLibrary();
+        for (String key : KEYS) {
+            Category category = library.getCategoryByName(key);
+            assertEquals(key, category.getKey());
+            int works = 0;
+            for (Work work : library.getAllWorks()) {
+                if (!work.getCategory().getKey().equals(key)) continue;
+                assertTrue(work.getCategory() == category, "one instance of " + key);
+                assertTrue(category.hasWork(work), "work " + work.getIdWork() + " in " + key);
+                works++;
+            }
+            assertEquals(works, category.getWorkIds().cardinality());
+            assertEquals(scan(library, key), manager.showWorksByCategory(key));
+        }
+    }
+
+    @Test
+    public void worksOfACategoryShareOneInstance() throws Exception {
+        LibraryManager manager = library();
+        assertShared(manager);
+        assertTrue(manager.getLibrary().getCategoryByName("fiction") == manager.getLibrary().getCategoryByName("FICTION"),
+                   "keys ignore case");
+        assertTrue(manager.getLibrary().getCategoryByName("POESIA") == null, "unknown key");
+        assertEquals(List.of(), manager.showWorksByCategory("POESIA"));
+    }
+
+    @Test
+    public void categoriesAreSharedAgainAfterLoading() throws Exception {
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            LibraryManager manager = library();
+            String filename = TempFiles.path("library." + format);
+            manager.setSaveFormat(format);
+            manager.saveAs(filename);
+            LibraryManager loaded = new LibraryManager();
+            loaded.load(filename);
+            assertShared(loaded);
+            assertEquals(state(manager), state(loaded));
+        }
+    }
+
+    @Test
+    public void categoriesAreSharedByOffloadedWorks() throws Exception {
+        LibraryManager manager = library();
+        manager.setOffHeapCatalog(true);
+        manager.processWork("BOOK", "Poemas", "Rui Mar", "8", "FICTION", "3", "1");
+        assertShared(manager);
+    }
+}
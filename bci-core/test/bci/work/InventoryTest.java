@@ -0,0 +1,88 @@
+package bci.work;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.function.Consumer;
+
+import bci.creator.Creator;
+import bci.test.Test;
+import bci.work.workCategory.Fiction;
+import bci.work.workType.Book;
+
+import static bci.test.Assert.*;
+
+public class InventoryTest {
+
+    private static Work book(int id) {
+        return new Book(id, "Memorial do Convento", 10, new Fiction(), "isbn", List.of(new Creator("José Saramago")));
+    }
+
+    private static String copies(Work work) {
+        return work.getTotalCopies() + " " + work.getAvailableCopies() + " " + work.isAvailable() + " " + work;
+    }
+
+    /** Copies added, lent and returned, applied to a work one step at a time. */
+    private static final Consumer<Work> COPIES = work -> {
+        work.changeInventory(4);
+        for (int i = 0; i < 3; i++) work.removeCopy();
+        work.addCopy();
+        work.changeInventory(-1);
+        for (int i = 0; i < 5; i++) work.removeCopy();
+    };
+
+    @Test
+    public void attachedWorkCountsLikeAWorkWithItsOwnFields() {
+        Work detached = book(3);
+        Work attached = book(3);
+        Inventory inventory = new Inventory();
+        attached.attach(inventory);
+        COPIES.accept(detached);
+        COPIES.accept(attached);
+        assertEquals(copies(detached), copies(attached));
+        assertEquals(detached.getTotalCopies(), inventory.getTotalCopies(3));
+        assertEquals(0, inventory.getAvailableCopies(3));
+    }
+
+    @Test
+    public void attachingKeepsTheCountsAndLeavesOtherWorksAlone() {
+        Work work = book(40);
+        COPIES.accept(work);
+        work.addCopy();
+        String before = copies(work);
+        Inventory inventory = new Inventory();
+        Work other = book(2);
+        other.attach(inventory);
+        work.attach(inventory);
+        assertEquals(before, copies(work));
+        assertEquals(copies(book(2)), copies(other));
+        assertEquals(0, inventory.getTotalCopies(1000));
+    }
+
+    @Test
+    public void worksOfTheSameIdShareTheirCounts() {
+        Inventory inventory = new Inventory();
+        Work work = book(1);
+        work.attach(inventory);
+        Work view = book(1);
+        view.view(work.getSearchKey(), inventory);
+        COPIES.accept(work);
+        assertEquals(copies(work), copies(view));
+    }
+
+    @Test
+    public void serializedWorkHasTheCountsOfItsLibrary() throws Exception {
+        Work work = book(5);
+        work.attach(new Inventory());
+        COPIES.accept(work);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(work);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(copies(work), copies((Work) in.readObject()));
+        }
+    }
+}